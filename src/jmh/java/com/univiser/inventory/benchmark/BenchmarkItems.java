@@ -0,0 +1,38 @@
+package com.univiser.inventory.benchmark;
+
+import com.univiser.inventory.domain.entity.Item;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds realistic looking items for the benchmarks.
+ */
+final class BenchmarkItems {
+
+    private BenchmarkItems() {
+    }
+
+    static Item create(long index) {
+        Item item = new Item();
+        item.setId(index);
+        item.setName("Item " + index);
+        item.setDescription("Benchmark item number " + index + " with a description of typical length");
+        item.setQuantity(100);
+        item.setPrice(new BigDecimal("19.99"));
+        item.setCreatedAt(LocalDateTime.now());
+        item.setUpdatedAt(LocalDateTime.now());
+        item.setVersion(0L);
+        return item;
+    }
+
+    static List<Item> list(int size) {
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            items.add(create(i));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,137 @@
+package com.univiser.inventory.benchmark;
+
+import com.univiser.inventory.InventoryApplication;
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.dto.BulkItemResult;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.inventory_management.service.InventoryService;
+import com.univiser.inventory.inventory_management.service.impl.ItemBulkWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end cost of the service methods, from the cache and JPA down to an in-memory H2 database
+ * started with the "embedded" profile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryServiceBenchmark {
+
+    private static final int ITEM_COUNT = 10_000;
+    private static final int PAGE_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(InventoryApplication.class)
+                .profiles("embedded")
+                .run("--server.port=0");
+        inventoryService = context.getBean(InventoryService.class);
+        ids = context.getBean(ItemBulkWriter.class).create(BenchmarkItems.list(ITEM_COUNT).iterator())
+                .getResults().stream()
+                .mapToLong(BulkItemResult::getId)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    /**
+     * Binds a request to each benchmark thread, as the servlet container would, for ResponseUtil to read.
+     */
+    @State(Scope.Thread)
+    public static class BoundRequest {
+
+        @Setup(Level.Trial)
+        public void bind() {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/inventory-management");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        }
+
+        @TearDown(Level.Trial)
+        public void unbind() {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> getItemById(BoundRequest request) {
+        return inventoryService.getItemById(randomId(), null);
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> getItemByIdNotModified(BoundRequest request) {
+        return inventoryService.getItemById(randomId(), "\"0\"");
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> getItemsPage(BoundRequest request) {
+        long cursor = ThreadLocalRandom.current().nextLong(ITEM_COUNT - PAGE_SIZE);
+        return inventoryService.getItemsPage(String.valueOf(ids[(int) cursor]), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> getAllItems(BoundRequest request) {
+        return inventoryService.getAllItems();
+    }
+
+    @Benchmark
+    public void streamAllItems(BoundRequest request) throws IOException {
+        inventoryService.streamAllItems(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> createItem(BoundRequest request) {
+        Item item = BenchmarkItems.create(0);
+        item.setId(null);
+        return inventoryService.createItem(item);
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> updateItem(BoundRequest request) {
+        Item item = BenchmarkItems.create(randomId());
+        item.setVersion(null);
+        return inventoryService.updateItem(item, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> reserveThenRelease(BoundRequest request) {
+        long id = randomId();
+        inventoryService.reserveStock(id, 1);
+        return inventoryService.releaseStock(id, 1);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,72 @@
+package com.univiser.inventory.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.util.ResponseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the response envelope as the message converter does it, with one item and with item lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private APIResponse singleItem;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the mapper Spring Boot configures for the MVC message converters.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        singleItem = responseUtil().wrapSuccess(BenchmarkItems.create(1), HttpStatus.OK).getBody();
+    }
+
+    @Benchmark
+    public byte[] serializeItem() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(singleItem);
+    }
+
+    @Benchmark
+    public byte[] serializeItemList(ItemList list) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(list.response);
+    }
+
+    @State(Scope.Benchmark)
+    public static class ItemList {
+
+        @Param({"100", "10000"})
+        public int size;
+
+        private APIResponse response;
+
+        @Setup
+        public void setUp() {
+            response = responseUtil().wrapSuccess(BenchmarkItems.list(size), HttpStatus.OK).getBody();
+        }
+    }
+
+    private static ResponseUtil responseUtil() {
+        return new ResponseUtil(new MockHttpServletRequest("GET", "/api/v1/inventory-management/fetch-all"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.univiser.inventory.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.util.ResponseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and serializes the response envelope the way ResponseUtil does, next to a copy of the previous
+ * implementation (Lombok builder, a SimpleDateFormat per call, a singletonMap per error and the reflective
+ * bean serializer). Compare the gc.alloc.rate.norm columns of the legacy and current methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseEnvelopeBenchmark {
+
+    private static final String ORIGIN = "/api/v1/inventory-management/1";
+
+    private ObjectMapper objectMapper;
+    private ResponseUtil responseUtil;
+    private MockHttpServletRequest request;
+    private OutputStream sink;
+    private Item item;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        // The same sink is reused for every invocation.
+        objectMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        request = new MockHttpServletRequest("GET", ORIGIN);
+        responseUtil = new ResponseUtil(request);
+        sink = OutputStream.nullOutputStream();
+        item = BenchmarkItems.create(1);
+    }
+
+    @Benchmark
+    public void success() throws IOException {
+        objectMapper.writeValue(sink, responseUtil.wrapSuccess(item, HttpStatus.OK).getBody());
+    }
+
+    @Benchmark
+    public void error() throws IOException {
+        objectMapper.writeValue(sink, responseUtil.wrapError("Error getting item!", "Database error",
+                HttpStatus.INTERNAL_SERVER_ERROR).getBody());
+    }
+
+    @Benchmark
+    public void legacySuccess() throws IOException {
+        LegacyAPIResponse response = new LegacyAPIResponse();
+        response.statusCode = "0";
+        response.origin = request.getRequestURI();
+        response.statusMessage = "Success";
+        response.responseTime = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+        response.result = item;
+        objectMapper.writeValue(sink, ResponseEntity.status(HttpStatus.OK).body(response).getBody());
+    }
+
+    @Benchmark
+    public void legacyError() throws IOException {
+        LegacyAPIResponse response = new LegacyAPIResponse();
+        response.statusCode = "1";
+        response.statusMessage = "Failure";
+        response.errorType = "Database error";
+        response.origin = request.getRequestURI();
+        response.responseTime = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+        response.result = Collections.singletonMap("error", "Error getting item!");
+        objectMapper.writeValue(sink, ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response).getBody());
+    }
+
+    /**
+     * The envelope as it was before the custom serializer, serialized by the default bean serializer.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class LegacyAPIResponse {
+        public String statusMessage;
+        public String statusCode;
+        public String transactionId;
+        public String responseTime;
+        public String origin;
+        public String errorType;
+        public Object result;
+    }
+}
@@ -0,0 +1,128 @@
+package com.univiser.inventory.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.format.ProtobufResponseConverter;
+import com.univiser.inventory.util.ResponseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the response envelope through the message converter of each encoding, with and without gzip as Tomcat
+ * applies it, for one item and for item lists. The encoded size of every combination is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"1", "10000"})
+    public int size;
+
+    private HttpMessageConverter<Object> converter;
+    private MediaType mediaType;
+    private APIResponse response;
+    private BufferMessage message;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        ObjectMapper jsonMapper = mapper(new JsonFactory());
+        AbstractHttpMessageConverter<?> selected = switch (format) {
+            case "json" -> new MappingJackson2HttpMessageConverter(jsonMapper);
+            case "smile" -> new MappingJackson2SmileHttpMessageConverter(mapper(new SmileFactory()));
+            case "cbor" -> new MappingJackson2CborHttpMessageConverter(mapper(new CBORFactory()));
+            case "protobuf" -> new ProtobufResponseConverter(mapper(new ProtobufFactory()),
+                    ProtobufResponseConverter.loadSchema(), jsonMapper);
+            default -> throw new IllegalArgumentException(format);
+        };
+        converter = (HttpMessageConverter<Object>) selected;
+        mediaType = selected.getSupportedMediaTypes().get(0);
+        ResponseUtil responseUtil = new ResponseUtil(new MockHttpServletRequest("GET", "/api/v1/inventory-management/fetch-all"));
+        Object result = size == 1 ? BenchmarkItems.create(1) : BenchmarkItems.list(size);
+        response = responseUtil.wrapSuccess(result, HttpStatus.OK).getBody();
+        message = new BufferMessage();
+        System.out.printf("%n%s gzip=%s items=%d: %d bytes%n", format, gzip, size, write().length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        message.buffer.reset();
+        if (gzip) {
+            try (GZIPOutputStream compressed = new GZIPOutputStream(message.buffer)) {
+                message.body = compressed;
+                converter.write(response, mediaType, message);
+            }
+        } else {
+            message.body = message.buffer;
+            converter.write(response, mediaType, message);
+        }
+        return message.buffer.toByteArray();
+    }
+
+    /**
+     * Builds a mapper with the settings Spring Boot applies, which writes dates as ISO strings.
+     */
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static final class BufferMessage implements HttpOutputMessage {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+        private final HttpHeaders headers = new HttpHeaders();
+        private OutputStream body;
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
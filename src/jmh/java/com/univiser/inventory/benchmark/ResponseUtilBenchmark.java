@@ -0,0 +1,65 @@
+package com.univiser.inventory.benchmark;
+
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.util.DateTimeUtils;
+import com.univiser.inventory.util.ResponseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the response envelope that wraps every API result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseUtilBenchmark {
+
+    private ResponseUtil responseUtil;
+    private Item item;
+    private Date date;
+
+    @Setup
+    public void setUp() {
+        responseUtil = new ResponseUtil(new MockHttpServletRequest("GET", "/api/v1/inventory-management/1"));
+        item = BenchmarkItems.create(1);
+        date = new Date();
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> wrapSuccess() {
+        return responseUtil.wrapSuccess(item, HttpStatus.OK);
+    }
+
+    @Benchmark
+    public ResponseEntity<APIResponse> wrapError() {
+        return responseUtil.wrapError("Error getting item!", "Database error", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return DateTimeUtils.format(date);
+    }
+
+    @Benchmark
+    public String now() {
+        return DateTimeUtils.now();
+    }
+}
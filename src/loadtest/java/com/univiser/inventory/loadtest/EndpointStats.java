@@ -0,0 +1,69 @@
+package com.univiser.inventory.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and counters of one operation. Latencies are in microseconds and measured from the
+ * scheduled start of the request, so time spent queued behind a slow server is not hidden.
+ * <p>
+ * Requests the concurrency limit shed, answered at once with 503 and Retry-After, are counted and timed apart:
+ * they are neither errors of the endpoint nor samples of how fast it serves, and mixed in they would pull the
+ * percentiles down.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Recorder shedRecorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    void record(long latencyNanos, boolean error) {
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    void shed(long latencyNanos) {
+        shedRecorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    void drop() {
+        dropped.increment();
+    }
+
+    Map<String, Object> report(double seconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        Histogram shedHistogram = shedRecorder.getIntervalHistogram();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", histogram.getTotalCount());
+        report.put("errors", errors.sum());
+        report.put("shed", shedHistogram.getTotalCount());
+        report.put("dropped", dropped.sum());
+        report.put("throughputPerSec", round(histogram.getTotalCount() / seconds));
+        report.put("meanMs", millis(histogram.getMean()));
+        report.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+        report.put("p90Ms", millis(histogram.getValueAtPercentile(90)));
+        report.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+        report.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+        report.put("maxMs", millis(histogram.getMaxValue()));
+        report.put("shedP99Ms", millis(shedHistogram.getValueAtPercentile(99)));
+        return report;
+    }
+
+    private static double millis(double micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
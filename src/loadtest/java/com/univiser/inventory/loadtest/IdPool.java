@@ -0,0 +1,39 @@
+package com.univiser.inventory.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * IDs of the items that currently exist, so gets and updates hit live rows and each delete takes a distinct item.
+ */
+final class IdPool {
+
+    private final List<Long> ids = new ArrayList<>();
+
+    synchronized void add(long id) {
+        ids.add(id);
+    }
+
+    synchronized Long pick(RandomGenerator random) {
+        return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+    }
+
+    /**
+     * Removes a random ID in constant time by moving the last one into its slot.
+     */
+    synchronized Long take(RandomGenerator random) {
+        if (ids.isEmpty()) {
+            return null;
+        }
+        int index = random.nextInt(ids.size());
+        Long id = ids.get(index);
+        ids.set(index, ids.get(ids.size() - 1));
+        ids.remove(ids.size() - 1);
+        return id;
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,250 @@
+package com.univiser.inventory.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.univiser.inventory.InventoryApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open model load test of the inventory endpoints.
+ * <p>
+ * Boots the application on a random port against the in-memory database of the "embedded" profile, seeds it,
+ * then starts requests at a fixed rate regardless of how fast responses come back, picking the endpoint of each
+ * request from a weighted mix. Latency is measured from the scheduled start of each request, which avoids the
+ * coordinated omission of closed loop clients. Per endpoint percentiles and throughput are printed and written
+ * as JSON to the report path. Requests shed by the concurrency limit are reported apart from errors and
+ * latencies; run with CONCURRENCY_LIMIT_ENABLED=false in the environment to measure without it.
+ * <p>
+ * Run with: mvn -Pload-test test-compile exec:exec -Dloadtest.rate=500 -Dloadtest.duration=120
+ */
+public final class LoadTest {
+
+    private static final String BASE_PATH = "/api/v1/inventory-management";
+    private static final String JSON = "application/json";
+
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final IdPool ids = new IdPool();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final Semaphore inFlight;
+    private String baseUrl;
+    private boolean concurrencyLimitEnabled;
+
+    private LoadTest(LoadTestSettings settings) {
+        this.settings = settings;
+        this.inFlight = new Semaphore(settings.maxInFlight());
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryApplication.class)
+                .profiles("embedded")
+                .run(withRandomPort(args))) {
+            LoadTest loadTest = new LoadTest(settings);
+            loadTest.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + BASE_PATH;
+            loadTest.concurrencyLimitEnabled = context.getEnvironment()
+                    .getProperty("inventory.concurrency-limit.enabled", Boolean.class, true);
+            loadTest.seed();
+            loadTest.run();
+            loadTest.writeReport();
+        }
+    }
+
+    /**
+     * Command line arguments outrank application.properties, default properties do not.
+     */
+    private static String[] withRandomPort(String[] args) {
+        String[] withPort = Arrays.copyOf(args, args.length + 1);
+        withPort[args.length] = "--server.port=0";
+        return withPort;
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        List<Map<String, Object>> items = new ArrayList<>(settings.seedItems());
+        for (int i = 0; i < settings.seedItems(); i++) {
+            items.add(itemBody(null));
+        }
+        HttpResponse<String> response = client.send(request("/bulk").POST(body(items)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        for (JsonNode result : objectMapper.readTree(response.body()).path("result").path("results")) {
+            if (result.hasNonNull("id")) {
+                ids.add(result.get("id").asLong());
+            }
+        }
+        System.out.printf("Seeded %d items%n", ids.size());
+    }
+
+    private void run() throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmupSecs());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.durationSec());
+        System.out.printf("Running %d req/s for %ds after %ds of warmup%n", settings.rate(), settings.durationSec(),
+                settings.warmupSecs());
+
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = settings.pick(random);
+            boolean measured = scheduled >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    stats.get(operation).drop();
+                }
+                continue;
+            }
+            CompletableFuture<?> future = send(operation, scheduled, measured)
+                    .whenComplete((ignored, error) -> inFlight.release());
+            pending.add(future);
+            pending.removeIf(CompletableFuture::isDone);
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private CompletableFuture<?> send(Operation operation, long scheduled, boolean measured) {
+        Long id = switch (operation) {
+            case GET, UPDATE -> ids.pick(random);
+            case DELETE -> ids.take(random);
+            case CREATE, FETCH_ALL -> null;
+        };
+        if (id == null && operation != Operation.CREATE && operation != Operation.FETCH_ALL) {
+            // No live item to target, e.g. deletes outran creates.
+            if (measured) {
+                stats.get(operation).drop();
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request = switch (operation) {
+            case GET -> request("/" + id).GET().build();
+            case FETCH_ALL -> request("/fetch-all").GET().build();
+            case CREATE -> request("").POST(body(itemBody(null))).build();
+            case UPDATE -> request("").PUT(body(itemBody(id))).build();
+            case DELETE -> request("").method("DELETE", body(Map.of("id", id))).build();
+        };
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    long latency = System.nanoTime() - scheduled;
+                    boolean failed = error != null || response.statusCode() >= 400;
+                    if (measured && !failed) {
+                        stats.get(operation).record(latency, false);
+                    } else if (measured && isShed(response)) {
+                        stats.get(operation).shed(latency);
+                    } else if (measured) {
+                        stats.get(operation).record(latency, true);
+                    }
+                    if (!failed && operation == Operation.CREATE) {
+                        track(response);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * A 503 with Retry-After is how the concurrency limit turns a request away before it reaches the endpoint.
+     */
+    private static boolean isShed(HttpResponse<?> response) {
+        return response != null && response.statusCode() == 503
+                && response.headers().firstValue("Retry-After").isPresent();
+    }
+
+    private void track(HttpResponse<byte[]> response) {
+        try {
+            ids.add(objectMapper.readTree(response.body()).path("result").path("id").asLong());
+        } catch (IOException e) {
+            // The request is already counted; losing its id only shrinks the pool.
+        }
+    }
+
+    private void writeReport() throws IOException {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((operation, endpoint) -> endpoints.put(operation.key(), endpoint.report(settings.durationSec())));
+
+        Map<String, Object> mix = new LinkedHashMap<>();
+        settings.mix().forEach((operation, weight) -> mix.put(operation.key(), weight));
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("ratePerSec", settings.rate());
+        config.put("warmupSec", settings.warmupSecs());
+        config.put("durationSec", settings.durationSec());
+        config.put("seedItems", settings.seedItems());
+        config.put("maxInFlight", settings.maxInFlight());
+        config.put("concurrencyLimit", concurrencyLimitEnabled);
+        config.put("mix", mix);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("endpoints", endpoints);
+
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(settings.report().toFile(), report);
+
+        System.out.printf("%-10s %9s %7s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "shed", "dropped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        endpoints.forEach((key, value) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = (Map<String, Object>) value;
+            System.out.printf("%-10s %9s %7s %7s %7s %9s %9s %9s %9s %9s%n", key, row.get("requests"), row.get("errors"),
+                    row.get("shed"), row.get("dropped"), row.get("throughputPerSec"), row.get("p50Ms"), row.get("p99Ms"),
+                    row.get("p999Ms"), row.get("maxMs"));
+        });
+        System.out.printf("Report written to %s%n", settings.report().toAbsolutePath());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", JSON)
+                .header("Accept", JSON);
+    }
+
+    private HttpRequest.BodyPublisher body(Object value) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<String, Object> itemBody(Long id) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        if (id != null) {
+            item.put("id", id);
+        }
+        item.put("name", "Load test item " + random.nextInt(1_000_000));
+        item.put("description", "Created by the load test harness");
+        item.put("quantity", random.nextInt(1, 1000));
+        item.put("price", new BigDecimal("9.99"));
+        return item;
+    }
+}
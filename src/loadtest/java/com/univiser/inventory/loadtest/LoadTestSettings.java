@@ -0,0 +1,65 @@
+package com.univiser.inventory.loadtest;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Settings of a load test run, read from loadtest.* system properties.
+ *
+ * @param rate        requests started per second, independent of how fast responses come back
+ * @param warmupSecs  seconds of load whose latencies are discarded
+ * @param durationSec seconds of measured load
+ * @param seedItems   items created before the run starts
+ * @param maxInFlight requests allowed to be outstanding before new arrivals are counted as dropped
+ * @param mix         relative weight of each operation
+ * @param report      where the JSON report is written
+ */
+record LoadTestSettings(int rate, int warmupSecs, int durationSec, int seedItems, int maxInFlight,
+                        Map<Operation, Integer> mix, Path report) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.rate", 200),
+                Integer.getInteger("loadtest.warmup", 10),
+                Integer.getInteger("loadtest.duration", 60),
+                Integer.getInteger("loadtest.seed-items", 1000),
+                Integer.getInteger("loadtest.max-in-flight", 1000),
+                parseMix(System.getProperty("loadtest.mix", "get=60,create=10,update=15,fetch-all=5,delete=10")),
+                Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json")));
+    }
+
+    /**
+     * Picks an operation at random according to the mix weights.
+     */
+    Operation pick(RandomGenerator random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = random.nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Malformed mix entry " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.fromKey(pair[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix " + value + " has no positive weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,31 @@
+package com.univiser.inventory.loadtest;
+
+/**
+ * The controller endpoints the load test drives, named as they appear in the mix and the report.
+ */
+enum Operation {
+    GET("get"),
+    CREATE("create"),
+    UPDATE("update"),
+    FETCH_ALL("fetch-all"),
+    DELETE("delete");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+}
@@ -0,0 +1,45 @@
+package com.univiser.inventory.cache;
+
+import com.univiser.inventory.domain.entity.Item;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Optional shared cache tier (for example Redis) used behind the local cache.
+ * Registering a bean of this type keeps the local caches of several nodes coherent:
+ * evictions made on one node are published and delivered to the others.
+ */
+public interface DistributedItemCacheBackend {
+
+    /**
+     * Looks up an item in the shared tier.
+     *
+     * @param id the ID of the item
+     * @return the item, or empty on a miss
+     */
+    Optional<Item> get(Long id);
+
+    /**
+     * Stores an item in the shared tier.
+     *
+     * @param item the item to store
+     * @param ttl  how long the entry may be served
+     */
+    void put(Item item, Duration ttl);
+
+    /**
+     * Removes an item from the shared tier and notifies every other node.
+     *
+     * @param id the ID of the item
+     */
+    void evict(Long id);
+
+    /**
+     * Registers the callback invoked when another node evicts an item.
+     *
+     * @param listener receives the evicted ID
+     */
+    void subscribeToEvictions(Consumer<Long> listener);
+}
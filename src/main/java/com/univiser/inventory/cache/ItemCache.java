@@ -0,0 +1,55 @@
+package com.univiser.inventory.cache;
+
+import com.univiser.inventory.domain.entity.Item;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of items keyed by ID.
+ * Callers receive copies, so mutating a returned item never changes the cached entry.
+ */
+public interface ItemCache {
+
+    /**
+     * Returns the cached item, loading it with the given loader on a miss.
+     * Concurrent misses for the same ID share a single load.
+     *
+     * @param id     the ID of the item
+     * @param loader loads the item from the backing store
+     * @return the item, or empty if it does not exist
+     */
+    Optional<Item> get(Long id, Function<Long, Optional<Item>> loader);
+
+    /**
+     * Returns the cached items, loading every missing one with a single call of the loader.
+     * Concurrent misses for the same ID share a single load.
+     *
+     * @param ids    the IDs of the items
+     * @param loader loads the given items from the backing store, leaving out those that do not exist
+     * @return the items that exist, by ID
+     */
+    Map<Long, Item> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, Item>> loader);
+
+    /**
+     * Stores the latest state of an item after it was written.
+     *
+     * @param item the item as committed to the database
+     */
+    void put(Item item);
+
+    /**
+     * Removes an item so the next read goes to the database.
+     *
+     * @param id the ID of the item
+     */
+    void evict(Long id);
+
+    /**
+     * Removes every item cached on this node.
+     */
+    void evictAll();
+}
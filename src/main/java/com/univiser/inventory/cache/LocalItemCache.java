@@ -0,0 +1,172 @@
+package com.univiser.inventory.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.entity.Item;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * In-process item cache bounded by size and time to live.
+ * Caffeine evicts with W-TinyLFU, which keeps hot SKUs resident under a scan of cold ones.
+ * Hit, miss and eviction counters are published as the cache.* meters tagged cache=items.
+ * <p>
+ * Evictions stay on this instance unless a {@link DistributedItemCacheBackend} is registered; without one, other
+ * instances see a change only once their copy expires, which is why the default time to live is short.
+ * <p>
+ * Misses are loaded by the calling thread after an incomplete future has been registered, never inside the
+ * map's compute. A load waits for a pool connection, and holding a hash bin lock meanwhile would block writers
+ * of unrelated items that already hold a connection of their own, which can exhaust the pool for good.
+ * Concurrent readers of the same item wait on the future, so each miss still loads once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "inventory.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LocalItemCache implements ItemCache {
+
+    static final String CACHE_NAME = "items";
+
+    private final AsyncCache<Long, Item> cache;
+    private final DistributedItemCacheBackend backend;
+    private final Duration ttl;
+
+    public LocalItemCache(@NonNull InventoryProperties properties, @NonNull MeterRegistry meterRegistry,
+                          @NonNull ObjectProvider<DistributedItemCacheBackend> backendProvider) {
+        this.ttl = properties.getCache().getExpireAfterWrite();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumSize())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.backend = backendProvider.getIfAvailable();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+        if (backend != null) {
+            backend.subscribeToEvictions(cache.synchronous()::invalidate);
+            log.info("Item cache is backed by {}", backend.getClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public Optional<Item> get(Long id, Function<Long, Optional<Item>> loader) {
+        CompletableFuture<Item> loading = new CompletableFuture<>();
+        CompletableFuture<Item> cached = cache.get(id, (key, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(load(id, loader));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return Optional.ofNullable(cached.join()).map(LocalItemCache::copyOf);
+    }
+
+    @Override
+    public Map<Long, Item> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, Item>> loader) {
+        CompletableFuture<Map<Long, Item>> loading = new CompletableFuture<>();
+        Set<Long> missing = new HashSet<>();
+        // Caffeine registers a future for each missing ID and calls this on the calling thread.
+        CompletableFuture<Map<Long, Item>> cached = cache.getAll(ids, (keys, executor) -> {
+            missing.addAll(keys);
+            return loading;
+        });
+        if (!missing.isEmpty()) {
+            try {
+                loading.complete(loadAll(missing, loader));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        Map<Long, Item> items = new HashMap<>();
+        cached.join().forEach((id, item) -> items.put(id, copyOf(item)));
+        return items;
+    }
+
+    @Override
+    public void put(Item item) {
+        if (item == null || item.getId() == null) {
+            return;
+        }
+        Item copy = copyOf(item);
+        cache.put(copy.getId(), CompletableFuture.completedFuture(copy));
+        // Other nodes drop their copy and reload the committed row on their next read.
+        if (backend != null) {
+            backend.evict(copy.getId());
+        }
+    }
+
+    @Override
+    public void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        cache.synchronous().invalidate(id);
+        if (backend != null) {
+            backend.evict(id);
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private Item load(Long id, Function<Long, Optional<Item>> loader) {
+        if (backend != null) {
+            Optional<Item> shared = backend.get(id);
+            if (shared.isPresent()) {
+                return shared.get();
+            }
+        }
+        Item loaded = loader.apply(id).map(LocalItemCache::copyOf).orElse(null);
+        if (loaded != null && backend != null) {
+            backend.put(loaded, ttl);
+        }
+        return loaded;
+    }
+
+    private Map<Long, Item> loadAll(Set<Long> ids, Function<Set<Long>, Map<Long, Item>> loader) {
+        Map<Long, Item> loaded = new HashMap<>();
+        Set<Long> remaining = new HashSet<>(ids);
+        if (backend != null) {
+            for (Long id : ids) {
+                backend.get(id).ifPresent(item -> {
+                    loaded.put(id, item);
+                    remaining.remove(id);
+                });
+            }
+        }
+        if (!remaining.isEmpty()) {
+            loader.apply(remaining).forEach((id, item) -> {
+                Item copy = copyOf(item);
+                loaded.put(id, copy);
+                if (backend != null) {
+                    backend.put(copy, ttl);
+                }
+            });
+        }
+        return loaded;
+    }
+
+    private static Item copyOf(Item item) {
+        return new Item(item.getId(), item.getName(), item.getDescription(), item.getQuantity(), item.getPrice(),
+                item.getCreatedAt(), item.getUpdatedAt(), item.getVersion());
+    }
+}
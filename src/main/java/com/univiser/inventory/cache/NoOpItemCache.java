@@ -0,0 +1,45 @@
+package com.univiser.inventory.cache;
+
+import com.univiser.inventory.domain.entity.Item;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Pass-through used when inventory.cache.enabled is false.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.cache", name = "enabled", havingValue = "false")
+public class NoOpItemCache implements ItemCache {
+
+    @Override
+    public Optional<Item> get(Long id, Function<Long, Optional<Item>> loader) {
+        return loader.apply(id);
+    }
+
+    @Override
+    public Map<Long, Item> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, Item>> loader) {
+        return loader.apply(new HashSet<>(ids));
+    }
+
+    @Override
+    public void put(Item item) {
+        // nothing is cached
+    }
+
+    @Override
+    public void evict(Long id) {
+        // nothing is cached
+    }
+
+    @Override
+    public void evictAll() {
+        // nothing is cached
+    }
+}
@@ -0,0 +1,59 @@
+package com.univiser.inventory.catalog;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Writes the whole item table as a catalog file straight from Postgres with COPY, ordered by ID. The rows are
+ * encoded by the database and streamed to the client as they come, so nothing is buffered in between.
+ */
+@Slf4j
+@Component
+public class CatalogExporter {
+
+    private static final String CSV = "copy (select id, name, description, quantity, price, "
+            + "to_json(created_at) #>> '{}' as \"createdAt\", to_json(updated_at) #>> '{}' as \"updatedAt\", version "
+            + "from item order by id) to stdout with (format csv, header)";
+
+    /**
+     * The text format would escape the backslashes of the JSON, so it is copied as CSV with a quote and delimiter
+     * that JSON never contains unescaped, which writes every object as is.
+     */
+    private static final String NDJSON = "copy (select row_to_json(i) from (select id, name, description, quantity, price, "
+            + "created_at as \"createdAt\", updated_at as \"updatedAt\", version from item order by id) i) "
+            + "to stdout with (format csv, quote e'\\x01', delimiter e'\\x02')";
+
+    private final DataSource dataSource;
+
+    public CatalogExporter(@NonNull DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Runs in a read-only transaction, which reads from a replica when one is configured.
+     *
+     * @return the number of items written
+     */
+    @Transactional(readOnly = true)
+    public long export(CatalogFormat format, OutputStream outputStream) throws IOException, SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            long count = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut(format == CatalogFormat.CSV ? CSV : NDJSON, outputStream);
+            log.info("Exported {} items as {}", count, format);
+            return count;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
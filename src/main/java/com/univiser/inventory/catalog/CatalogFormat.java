@@ -0,0 +1,57 @@
+package com.univiser.inventory.catalog;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Encodings of a catalog file. Both carry the item properties id, name, description, quantity and price; exports
+ * add createdAt, updatedAt and version, which imports ignore.
+ */
+public enum CatalogFormat {
+
+    /**
+     * Comma separated values with a header row naming the columns.
+     */
+    CSV(MediaType.parseMediaType("text/csv")),
+
+    /**
+     * One JSON object per line, as sent to and returned by the other item endpoints.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    CatalogFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the format of a request body.
+     *
+     * @param contentType the Content-Type of the body
+     * @return the matching format
+     * @throws IllegalArgumentException if the type is neither CSV nor NDJSON
+     */
+    public static CatalogFormat of(MediaType contentType) {
+        for (CatalogFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported catalog type " + contentType);
+    }
+
+    /**
+     * Parses a format name such as {@code csv}, ignoring case.
+     *
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static CatalogFormat of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,462 @@
+package com.univiser.inventory.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.univiser.inventory.cache.ItemCache;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.dto.CatalogImportResult;
+import com.univiser.inventory.stock.StockWriteCoalescer;
+import com.univiser.inventory.util.Constant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Loads a catalog file into the item table without creating entities.
+ * <p>
+ * Records are read and validated one at a time and streamed through COPY into a temporary staging table, so
+ * memory does not grow with the file and nothing touches the item table while the file is read. The staged rows
+ * are then merged in batches of {@code inventory.catalog.merge-batch-size}, one short transaction per batch:
+ * rows with an ID update that item, rows without one are inserted with IDs taken from the item sequence the
+ * same way Hibernate takes them. Rejected records are written to an NDJSON error file with their line and error.
+ * <p>
+ * Merged rows are stamped with the database clock when their statement starts, and become visible when the batch
+ * commits. The change feed only reads rows older than {@code inventory.changes.safety-lag}, so each batch must
+ * commit well within it: a batch that runs longer than half the lag is canceled by a statement timeout and retried
+ * at half the size, and later batches are halved as soon as one takes more than a quarter of the lag. Batches grow
+ * back towards {@code merge-batch-size} while they stay fast.
+ * <p>
+ * A failed batch is rolled back and ends the import; batches merged before it stay committed.
+ */
+@Slf4j
+@Component
+public class CatalogImporter {
+
+    private static final String CREATE_STAGING = "create temporary table item_import (seq bigint not null, "
+            + "line bigint not null, id bigint, name text, description text, quantity integer not null, price numeric not null)";
+
+    private static final String COPY_STAGING = "copy item_import (seq, line, id, name, description, quantity, price) from stdin";
+
+    private static final String SELECT_MISSING = "select line, id, name, description, quantity, price from item_import s "
+            + "where seq between ? and ? and id is not null and not exists (select 1 from item i where i.id = s.id) order by seq";
+
+    /**
+     * Updates the items of the batch, the last record of an ID winning, and inserts the new ones with the given
+     * IDs, in one statement. Returns the event type and ID of every changed item.
+     */
+    private static final String MERGE = """
+            with updated as (
+                update item i set name = s.name, description = s.description, quantity = s.quantity, price = s.price,
+                       updated_at = cast(statement_timestamp() as timestamp), version = i.version + 1
+                from (select distinct on (id) * from item_import where seq between ? and ? and id is not null order by id, seq desc) s
+                where i.id = s.id
+                returning i.*
+            ), inserted as (
+                insert into item (id, name, description, quantity, price, created_at, updated_at, version)
+                select n.id, s.name, s.description, s.quantity, s.price, cast(statement_timestamp() as timestamp),
+                       cast(statement_timestamp() as timestamp), 0
+                from (select *, row_number() over (order by seq) as ordinal from item_import
+                      where seq between ? and ? and id is null) s
+                join unnest(?::bigint[]) with ordinality as n(id, ordinal) using (ordinal)
+                returning *
+            ), changed as (
+                select 'UPDATED' as event_type, * from updated
+                union all
+                select 'CREATED', * from inserted
+            )""";
+
+    /**
+     * Writes an outbox row per changed item with the payload {@link com.univiser.inventory.events.InventoryChangeEvent}
+     * serializes to.
+     */
+    private static final String PUBLISH = """
+            , published as (
+                insert into outbox_event (id, aggregate_id, event_type, payload, created_at, attempts)
+                select o.id, c.id, c.event_type, json_build_object('type', c.event_type, 'itemId', c.id,
+                       'item', json_build_object('id', c.id, 'name', c.name, 'description', c.description,
+                           'quantity', c.quantity, 'price', c.price, 'createdAt', c.created_at,
+                           'updatedAt', c.updated_at, 'version', c.version),
+                       'at', ?::timestamp)::text, ?, 0
+                from (select *, row_number() over () as ordinal from changed) c
+                join unnest(?::bigint[]) with ordinality as o(id, ordinal) using (ordinal)
+            )""";
+
+    private static final String RETURN_CHANGED = " select event_type, id from changed";
+
+    private static final String COUNT_INSERTS = "select count(*) from item_import where seq between ? and ? and id is null";
+
+    private static final String STATEMENT_TIMEOUT_SQL_STATE = "57014";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final DataSource dataSource;
+    private final CatalogValidator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rejectionWriter;
+    private final InventoryProperties.Catalog properties;
+    private final long mergeTimeoutMillis;
+    private final ItemCache itemCache;
+    private final ObjectProvider<StockWriteCoalescer> stockWriteCoalescer;
+    private final Counter insertedRecords;
+    private final Counter updatedRecords;
+    private final Counter rejectedRecords;
+
+    public CatalogImporter(@NonNull DataSource dataSource, @NonNull Validator validator, @NonNull ObjectMapper objectMapper,
+                           @NonNull InventoryProperties properties, @NonNull ItemCache itemCache,
+                           @NonNull ObjectProvider<StockWriteCoalescer> stockWriteCoalescer,
+                           @NonNull MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.validator = new CatalogValidator(validator);
+        this.objectMapper = objectMapper;
+        this.rejectionWriter = objectMapper.writerFor(Rejection.class);
+        this.properties = properties.getCatalog();
+        this.mergeTimeoutMillis = Math.max(1, properties.getChanges().getSafetyLag().toMillis() / 2);
+        this.itemCache = itemCache;
+        this.stockWriteCoalescer = stockWriteCoalescer;
+        this.insertedRecords = records(meterRegistry, "inserted");
+        this.updatedRecords = records(meterRegistry, "updated");
+        this.rejectedRecords = records(meterRegistry, "rejected");
+    }
+
+    private static Counter records(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("inventory.catalog.import.records")
+                .description("Catalog records imported, by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports every valid record of the input.
+     *
+     * @param input  the catalog file, closed when done
+     * @param format the encoding of the file
+     * @return the number of records read, inserted, updated and rejected
+     */
+    public CatalogImportResult importCatalog(InputStream input, CatalogFormat format) throws IOException, SQLException {
+        long started = System.nanoTime();
+        Path errorFile = properties.getErrorDir().resolve("import-" + LocalDateTime.now().format(FILE_TIMESTAMP)
+                + "-" + UUID.randomUUID().toString().substring(0, 8) + ".ndjson");
+        Progress progress = new Progress();
+        try (CatalogRecordReader reader = CatalogRecordReader.open(input, format, objectMapper);
+             Rejections rejections = new Rejections(errorFile);
+             Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            try {
+                jdbcTemplate.execute(CREATE_STAGING);
+                long staged = stage(connection, reader, rejections, progress);
+                jdbcTemplate.execute("create index on item_import (seq)");
+                jdbcTemplate.execute("analyze item_import");
+                connection.commit();
+                merge(connection, jdbcTemplate, staged, rejections, progress);
+            } catch (IOException | SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                dropStaging(connection, jdbcTemplate);
+            }
+            long durationMillis = (System.nanoTime() - started) / 1_000_000;
+            log.info("Imported catalog in {} ms: {} records read, {} inserted, {} updated, {} rejected", durationMillis,
+                    progress.read, progress.inserted, progress.updated, rejections.count);
+            return new CatalogImportResult(progress.read, progress.inserted, progress.updated, rejections.count,
+                    rejections.count == 0 ? null : errorFile.toString(), durationMillis);
+        }
+    }
+
+    /**
+     * Validates every record and copies the valid ones into the staging table, numbering them from 1.
+     *
+     * @return the number of rows staged
+     */
+    private long stage(Connection connection, CatalogRecordReader reader, Rejections rejections,
+                              Progress progress) throws IOException, SQLException {
+        long seq = 0;
+        PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_STAGING, 1 << 16);
+        try {
+            StringBuilder line = new StringBuilder(256);
+            CatalogRecord record;
+            while ((record = reader.next()) != null) {
+                progress.read++;
+                CatalogValidator.Result result = validator.validate(record);
+                if (result.error() != null) {
+                    rejections.add(record.line(), result.error(), record.raw());
+                } else {
+                    line.setLength(0);
+                    appendRow(line, ++seq, result.row());
+                    copy.write(line.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                if (progress.read % properties.getProgressInterval() == 0) {
+                    log.info("Catalog import read {} records, {} rejected", progress.read, rejections.count);
+                }
+            }
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+        return seq;
+    }
+
+    private void merge(Connection connection, JdbcTemplate jdbcTemplate, long staged, Rejections rejections,
+                       Progress progress) throws IOException, SQLException {
+        int maxBatchSize = Math.max(1, properties.getMergeBatchSize());
+        int batchSize = maxBatchSize;
+        StockWriteCoalescer coalescer = stockWriteCoalescer.getIfAvailable();
+        long first = 1;
+        while (first <= staged) {
+            long last = Math.min(staged, first + batchSize - 1);
+            long started = System.nanoTime();
+            List<Long> updatedIds = new ArrayList<>();
+            int inserted;
+            try {
+                inserted = mergeBatch(connection, jdbcTemplate, first, last, updatedIds);
+                connection.commit();
+            } catch (DataAccessException e) {
+                connection.rollback();
+                if (!isStatementTimeout(e) || last == first) {
+                    throw e;
+                }
+                batchSize = (int) Math.max(1, (last - first + 1) / 2);
+                log.warn("Catalog merge of rows {} to {} ran over {} ms, retrying {} rows at a time", first, last,
+                        mergeTimeoutMillis, batchSize);
+                continue;
+            }
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            if (elapsedMillis > mergeTimeoutMillis / 2 && batchSize > 1) {
+                batchSize = Math.max(1, batchSize / 2);
+                log.info("Catalog merge of rows {} to {} took {} ms, merging {} rows at a time", first, last,
+                        elapsedMillis, batchSize);
+            } else if (elapsedMillis < mergeTimeoutMillis / 8 && batchSize < maxBatchSize) {
+                batchSize = Math.min(maxBatchSize, batchSize * 2);
+            }
+            rejectMissing(jdbcTemplate, first, last, rejections);
+
+            progress.inserted += inserted;
+            progress.updated += updatedIds.size();
+            insertedRecords.increment(inserted);
+            updatedRecords.increment(updatedIds.size());
+            for (Long id : updatedIds) {
+                itemCache.evict(id);
+                if (coalescer != null) {
+                    coalescer.evict(id);
+                }
+            }
+            long interval = properties.getProgressInterval();
+            if (last / interval != (first - 1) / interval) {
+                log.info("Catalog import merged {} of {} staged rows", last, staged);
+            }
+            first = last + 1;
+        }
+    }
+
+    /**
+     * Merges the staged rows first to last in the current transaction, canceled after the merge timeout.
+     *
+     * @param updatedIds receives the IDs of the updated items
+     * @return the number of items inserted
+     */
+    private int mergeBatch(Connection connection, JdbcTemplate jdbcTemplate, long first, long last,
+                           List<Long> updatedIds) throws SQLException {
+        jdbcTemplate.execute("set local statement_timeout = " + mergeTimeoutMillis);
+        Integer inserts = jdbcTemplate.queryForObject(COUNT_INSERTS, Integer.class, first, last);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Array itemIds = connection.createArrayOf("bigint", allocate(jdbcTemplate, "item_seq", inserts == null ? 0 : inserts));
+        List<Object> args = new ArrayList<>(List.of(first, last, first, last, itemIds));
+        String sql = MERGE;
+        if (properties.isPublishEvents()) {
+            sql += PUBLISH;
+            Array eventIds = connection.createArrayOf("bigint", allocate(jdbcTemplate, "outbox_event_seq", (int) (last - first + 1)));
+            args.addAll(List.of(now, now, eventIds));
+        }
+        int[] inserted = new int[1];
+        jdbcTemplate.query(sql + RETURN_CHANGED, rs -> {
+            if (rs.getString(1).equals("UPDATED")) {
+                updatedIds.add(rs.getLong(2));
+            } else {
+                inserted[0]++;
+            }
+        }, args.toArray());
+        return inserted[0];
+    }
+
+    private static boolean isStatementTimeout(DataAccessException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && STATEMENT_TIMEOUT_SQL_STATE.equals(sqlException.getSQLState());
+    }
+
+    /**
+     * Rejects the rows of the batch whose ID matches no item; the merge skips them.
+     */
+    private void rejectMissing(JdbcTemplate jdbcTemplate, long first, long last, Rejections rejections) throws IOException {
+        List<Rejection> missing = jdbcTemplate.query(SELECT_MISSING, (rs, rowNum) -> {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("id", rs.getLong("id"));
+            record.put("name", rs.getString("name"));
+            record.put("description", rs.getString("description"));
+            record.put("quantity", rs.getInt("quantity"));
+            record.put("price", rs.getBigDecimal("price"));
+            return new Rejection(rs.getLong("line"), "id: Item not found", record);
+        }, first, last);
+        for (Rejection rejection : missing) {
+            rejections.add(rejection);
+        }
+    }
+
+    /**
+     * Takes the IDs for the given number of new items from a pooled sequence, see {@link #ids(List, int)}.
+     */
+    private static Long[] allocate(JdbcTemplate jdbcTemplate, String sequence, int count) {
+        List<Long> values = new ArrayList<>();
+        Long[] ids = ids(values, count);
+        while (ids == null) {
+            int blocks = Math.ceilDiv(count - ids(values), Constant.ID_ALLOCATION_SIZE);
+            values.addAll(jdbcTemplate.queryForList("select nextval('" + sequence + "') from generate_series(1, ?)",
+                    Long.class, blocks));
+            ids = ids(values, count);
+        }
+        return ids;
+    }
+
+    /**
+     * Expands sequence values into IDs the way Hibernate's pooled optimizer does: a value V stands for the IDs
+     * V-49 to V, except for the first value 1, which only stands for itself.
+     *
+     * @return the first count IDs, or null if the values do not stand for that many
+     */
+    static Long[] ids(List<Long> values, int count) {
+        if (ids(values) < count) {
+            return null;
+        }
+        Long[] ids = new Long[count];
+        int next = 0;
+        for (Long value : values) {
+            for (long id = Math.max(1, value - Constant.ID_ALLOCATION_SIZE + 1); id <= value && next < count; id++) {
+                ids[next++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private static int ids(List<Long> values) {
+        int available = 0;
+        for (Long value : values) {
+            available += (int) (value - Math.max(1, value - Constant.ID_ALLOCATION_SIZE + 1) + 1);
+        }
+        return available;
+    }
+
+    private static void dropStaging(Connection connection, JdbcTemplate jdbcTemplate) {
+        try {
+            jdbcTemplate.execute("drop table if exists item_import");
+            connection.commit();
+            connection.setAutoCommit(true);
+        } catch (Exception e) {
+            // The pool discards the connection, and the temporary table with it, when it is broken.
+            log.warn("Could not drop the catalog staging table: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Appends a staging row in the COPY text format: tab separated, \N for null, with backslash escapes.
+     */
+    static void appendRow(StringBuilder line, long seq, CatalogRow row) {
+        line.append(seq).append('\t').append(row.line()).append('\t');
+        appendValue(line, row.id() == null ? null : row.id().toString());
+        line.append('\t');
+        appendValue(line, row.name());
+        line.append('\t');
+        appendValue(line, row.description());
+        line.append('\t').append(row.quantity()).append('\t').append(row.price().toPlainString()).append('\n');
+    }
+
+    private static void appendValue(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> line.append(c);
+            }
+        }
+    }
+
+    private static final class Progress {
+        private long read;
+        private long inserted;
+        private long updated;
+    }
+
+    private record Rejection(long line, String error, Object record) {
+    }
+
+    /**
+     * The error file of one import, created with the first rejection.
+     */
+    private final class Rejections implements Closeable {
+        private final Path file;
+        private BufferedWriter writer;
+        private long count;
+
+        Rejections(Path file) {
+            this.file = file;
+        }
+
+        void add(long line, String error, Object record) throws IOException {
+            add(new Rejection(line, error, record));
+        }
+
+        void add(Rejection rejection) throws IOException {
+            if (writer == null) {
+                Files.createDirectories(file.getParent());
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            }
+            writer.write(rejectionWriter.writeValueAsString(rejection));
+            writer.newLine();
+            count++;
+            rejectedRecords.increment();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
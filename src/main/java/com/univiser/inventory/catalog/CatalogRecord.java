@@ -0,0 +1,18 @@
+package com.univiser.inventory.catalog;
+
+import java.util.Map;
+
+/**
+ * One record of a catalog file, before validation.
+ *
+ * @param line   the line it started on, counted from 1
+ * @param fields the values by property name, null for absent or empty values
+ * @param raw    the record as read, for the error file
+ * @param error  why the record could not be parsed, or null
+ */
+public record CatalogRecord(long line, Map<String, String> fields, Object raw, String error) {
+
+    static CatalogRecord malformed(long line, Object raw, String error) {
+        return new CatalogRecord(line, Map.of(), raw, error);
+    }
+}
@@ -0,0 +1,191 @@
+package com.univiser.inventory.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a catalog file one record at a time, so only the current record is held in memory. A record that cannot
+ * be parsed is returned with its error rather than thrown, and reading goes on with the next one; only a CSV file
+ * whose quoting is broken stops the read, since the following records cannot be told apart.
+ */
+public abstract class CatalogRecordReader implements Closeable {
+
+    /**
+     * Longest NDJSON line accepted; longer lines are skipped as malformed instead of being buffered.
+     */
+    static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    protected final Reader reader;
+
+    private CatalogRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Opens a reader for the given format. The stream is closed with the reader.
+     */
+    public static CatalogRecordReader open(InputStream input, CatalogFormat format, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(input);
+            case NDJSON -> new Ndjson(input, objectMapper);
+        };
+    }
+
+    /**
+     * @return the next record, or null at the end of the input
+     */
+    public abstract CatalogRecord next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class Ndjson extends CatalogRecordReader {
+        private final ObjectMapper objectMapper;
+        private final StringBuilder buffer = new StringBuilder();
+        private final char[] chunk = new char[1 << 16];
+        private int position;
+        private int limit;
+        private long line;
+        private boolean end;
+
+        private Ndjson(InputStream input, ObjectMapper objectMapper) {
+            // Buffered by the reader itself, a char at a time through a BufferedReader would be too slow.
+            super(new InputStreamReader(input, StandardCharsets.UTF_8));
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public CatalogRecord next() throws IOException {
+            while (!end) {
+                boolean complete = readLine();
+                line++;
+                if (!complete) {
+                    return CatalogRecord.malformed(line, buffer.substring(0, 200) + "...",
+                            "Record is longer than " + MAX_LINE_LENGTH + " characters");
+                }
+                String text = buffer.toString();
+                if (!text.isBlank()) {
+                    return parse(text);
+                }
+            }
+            return null;
+        }
+
+        private CatalogRecord parse(String text) {
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (!node.isObject()) {
+                    return CatalogRecord.malformed(line, text, "Record is not a JSON object");
+                }
+                Map<String, String> fields = new HashMap<>();
+                node.fields().forEachRemaining(field -> fields.put(field.getKey(),
+                        field.getValue().isNull() ? null : field.getValue().asText()));
+                return new CatalogRecord(line, fields, node, null);
+            } catch (JsonProcessingException e) {
+                return CatalogRecord.malformed(line, text, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        /**
+         * Reads up to the next line break, keeping at most {@link #MAX_LINE_LENGTH} characters.
+         *
+         * @return false if the line was longer and its rest was skipped
+         */
+        private boolean readLine() throws IOException {
+            buffer.setLength(0);
+            boolean complete = true;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(chunk);
+                    position = 0;
+                    if (limit == -1) {
+                        limit = 0;
+                        end = true;
+                        break;
+                    }
+                }
+                int start = position;
+                while (position < limit && chunk[position] != '\n') {
+                    position++;
+                }
+                int length = Math.min(position - start, MAX_LINE_LENGTH - buffer.length());
+                buffer.append(chunk, start, length);
+                complete &= length == position - start;
+                if (position < limit) {
+                    position++;
+                    break;
+                }
+            }
+            if (!buffer.isEmpty() && buffer.charAt(buffer.length() - 1) == '\r') {
+                buffer.setLength(buffer.length() - 1);
+            }
+            return complete;
+        }
+    }
+
+    private static final class Csv extends CatalogRecordReader {
+        private final MappingIterator<String[]> rows;
+        private String[] header;
+        private long line;
+        private boolean broken;
+
+        private Csv(InputStream input) throws IOException {
+            super(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16));
+            this.rows = new CsvMapper()
+                    .readerFor(String[].class)
+                    .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                    .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                    .readValues(reader);
+        }
+
+        @Override
+        public CatalogRecord next() throws IOException {
+            if (broken) {
+                return null;
+            }
+            try {
+                if (header == null) {
+                    if (!rows.hasNextValue()) {
+                        return null;
+                    }
+                    header = Arrays.stream(rows.nextValue()).map(String::trim).toArray(String[]::new);
+                }
+                if (!rows.hasNextValue()) {
+                    return null;
+                }
+                line = rows.getParser().currentLocation().getLineNr();
+                String[] values = rows.nextValue();
+                if (values.length != header.length) {
+                    return CatalogRecord.malformed(line, values,
+                            "Expected " + header.length + " columns, found " + values.length);
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.length; i++) {
+                    fields.put(header[i], values[i].isEmpty() ? null : values[i]);
+                }
+                return new CatalogRecord(line, fields, values, null);
+            } catch (IOException | RuntimeException e) {
+                broken = true;
+                return CatalogRecord.malformed(line, null, "Stopped reading malformed CSV: " + e.getMessage());
+            }
+        }
+    }
+}
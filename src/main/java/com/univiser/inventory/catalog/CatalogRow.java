@@ -0,0 +1,10 @@
+package com.univiser.inventory.catalog;
+
+import java.math.BigDecimal;
+
+/**
+ * A validated catalog record, as staged for the merge. Rows without an ID are created, rows with one update
+ * the item of that ID.
+ */
+record CatalogRow(long line, Long id, String name, String description, int quantity, BigDecimal price) {
+}
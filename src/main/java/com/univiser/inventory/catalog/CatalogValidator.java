@@ -0,0 +1,86 @@
+package com.univiser.inventory.catalog;
+
+import com.univiser.inventory.domain.entity.Item;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts catalog records to rows, checking each value against the Bean Validation constraints of the
+ * matching {@link Item} property without creating an entity. Errors read like those of the bulk endpoints.
+ */
+class CatalogValidator {
+
+    private final Validator validator;
+
+    CatalogValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * @return the row, or the errors of the record joined into one message
+     */
+    Result validate(CatalogRecord record) {
+        if (record.error() != null) {
+            return Result.rejected(record.error());
+        }
+        Map<String, String> fields = record.fields();
+        List<String> errors = new ArrayList<>();
+        Long id = null;
+        String rawId = fields.get("id");
+        if (rawId != null) {
+            try {
+                id = Long.valueOf(rawId.trim());
+                if (id <= 0) {
+                    errors.add("id: must be a positive integer");
+                }
+            } catch (NumberFormatException e) {
+                errors.add("id: must be a positive integer");
+            }
+        }
+        String name = fields.get("name");
+        check("name", name, errors);
+        String description = fields.get("description");
+        check("description", description, errors);
+        int quantity = 0;
+        String rawQuantity = fields.get("quantity");
+        if (rawQuantity != null) {
+            try {
+                quantity = Integer.parseInt(rawQuantity.trim());
+                check("quantity", quantity, errors);
+            } catch (NumberFormatException e) {
+                errors.add("quantity: must be an integer");
+            }
+        }
+        BigDecimal price = null;
+        String rawPrice = fields.get("price");
+        try {
+            price = rawPrice == null ? null : new BigDecimal(rawPrice.trim());
+            check("price", price, errors);
+        } catch (NumberFormatException e) {
+            errors.add("price: must be a number");
+        }
+        if (!errors.isEmpty()) {
+            errors.sort(null);
+            return Result.rejected(String.join(", ", errors));
+        }
+        return new Result(new CatalogRow(record.line(), id, name, description, quantity, price), null);
+    }
+
+    private void check(String property, Object value, List<String> errors) {
+        for (ConstraintViolation<Item> violation : validator.validateValue(Item.class, property, value)) {
+            errors.add(property + ": " + violation.getMessage());
+        }
+    }
+
+    record Result(CatalogRow row, String error) {
+
+        static Result rejected(String error) {
+            return new Result(null, error);
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package com.univiser.inventory.config;
 
+import com.univiser.inventory.datasource.ReadWriteRoutingDataSource;
+import com.univiser.inventory.datasource.ReplicaDataSource;
+import com.univiser.inventory.sql.SqlAccountingListener;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class DataSourceConfig {
@@ -23,15 +35,67 @@ public class DataSourceConfig {
     }
 
     /**
-     * Builds the primary DataSource from the loaded properties.
+     * Builds the primary DataSource from the loaded properties. The pool settings under spring.datasource.hikari
+     * are bound here, since a user-defined DataSource does not get them from auto-configuration. With
+     * inventory.replicas.enabled, read-only transactions are routed to the replica pools. Unless
+     * inventory.sql.enabled is false, the result is wrapped in a proxy that reports every statement to
+     * {@link SqlAccountingListener}.
      */
     @Bean
     @Primary
-    public DataSource dataSource(DataSourceProperties properties) {
-        return properties
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 InventoryProperties inventoryProperties, SqlAccountingListener sqlAccountingListener,
+                                 MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties
                 .initializeDataSourceBuilder()
                 .type(HikariDataSource.class)
                 .build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        DataSource dataSource = primary;
+        InventoryProperties.Replicas replicas = inventoryProperties.getReplicas();
+        if (replicas.isEnabled() && !replicas.getPools().isEmpty()) {
+            List<HikariDataSource> pools = new ArrayList<>();
+            for (int i = 0; i < replicas.getPools().size(); i++) {
+                pools.add(replicaPool(properties, binder, replicas, i, meterRegistry));
+            }
+            dataSource = new ReadWriteRoutingDataSource(primary, new ReplicaDataSource(primary, pools,
+                    replicas.getSelection(), replicas.getFailureCooldown(), meterRegistry));
+        }
+        if (!inventoryProperties.getSql().isEnabled()) {
+            return dataSource;
+        }
+        // Times every statement for per-request accounting and the slow query log.
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name(primary.getPoolName())
+                .listener(sqlAccountingListener)
+                .build();
+    }
+
+    /**
+     * Builds a replica pool from the shared spring.datasource.hikari settings and its own hikari.* overrides.
+     * Replica pools are not beans, so their Hikari metrics are registered here.
+     */
+    private HikariDataSource replicaPool(DataSourceProperties properties, Binder binder,
+                                         InventoryProperties.Replicas replicas, int index, MeterRegistry meterRegistry) {
+        InventoryProperties.ReplicaPool pool = replicas.getPools().get(index);
+        if (pool.getUrl() == null || pool.getUrl().isBlank()) {
+            throw new IllegalStateException("inventory.replicas.pools[" + index + "].url is required");
+        }
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(pool.getUrl())
+                .username(pool.getUsername() != null ? pool.getUsername() : properties.determineUsername())
+                .password(pool.getPassword() != null ? pool.getPassword() : properties.determinePassword())
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica-" + index);
+        replica.setConnectionTimeout(replicas.getConnectionTimeout().toMillis());
+        binder.bind("inventory.replicas.pools[" + index + "].hikari", Bindable.ofInstance(replica));
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return replica;
     }
 
     /**
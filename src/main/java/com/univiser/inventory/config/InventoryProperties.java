@@ -0,0 +1,542 @@
+package com.univiser.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service specific settings loaded from inventory.*
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "inventory")
+public class InventoryProperties {
+
+    private final Bulk bulk = new Bulk();
+
+    private final Cache cache = new Cache();
+
+    private final Stock stock = new Stock();
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    private final Changes changes = new Changes();
+
+    private final Events events = new Events();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final Sql sql = new Sql();
+
+    private final Logging logging = new Logging();
+
+    private final Replicas replicas = new Replicas();
+
+    private final ReadPath readPath = new ReadPath();
+
+    private final Catalog catalog = new Catalog();
+
+    private final ItemLoader itemLoader = new ItemLoader();
+
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    @Data
+    public static class Bulk {
+        /**
+         * Number of records written per transaction by the bulk endpoints.
+         */
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Cache {
+        /**
+         * Enables the read-through item cache in front of the repository.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of items held by the local cache.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Time after which a cached item is reloaded from the database. Writes only evict the copy of the instance
+         * that made them unless a {@link com.univiser.inventory.cache.DistributedItemCacheBackend} is registered,
+         * so this is also how long other instances may serve an item that changed.
+         */
+        private Duration expireAfterWrite = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class Stock {
+        private final Coalescing coalescing = new Coalescing();
+    }
+
+    @Data
+    public static class Coalescing {
+        /**
+         * Accumulates stock changes in memory and writes them in batches instead of one update per request.
+         * Each request waits for the flush that writes its change, which adds up to a flush interval to its latency.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Delay between two flushes of the accumulated changes, in milliseconds.
+         */
+        private long flushIntervalMs = 50;
+
+        /**
+         * Time after which an item without pending changes stops being tracked in memory.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(1);
+
+        /**
+         * Longest a request waits for the flush of its change before failing with its outcome unknown.
+         */
+        private Duration maxWait = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Bulkhead {
+        /**
+         * Caps the number of requests handled at once, so requests beyond what the connection pool can serve
+         * wait in a cheap queue instead of inside the pool.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Requests handled at once, normally the size of the connection pool.
+         */
+        private int maxConcurrent = 10;
+
+        /**
+         * How long a request waits for a slot before it is answered with 503.
+         */
+        private Duration maxWait = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Changes {
+        /**
+         * How far behind the current time the change feed stops. updatedAt is stamped before the transaction
+         * commits, so a row can become visible with a time the feed already passed; the lag must exceed the
+         * longest write transaction.
+         */
+        private Duration safetyLag = Duration.ofSeconds(5);
+
+        /**
+         * How long tombstones of deleted items are kept. Mirrors that fall further behind must sync again
+         * from scratch.
+         */
+        private Duration tombstoneRetention = Duration.ofDays(30);
+
+        /**
+         * Delay between two purges of expired tombstones, in milliseconds.
+         */
+        private long purgeIntervalMs = 3_600_000;
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Drop the oldest pending change and tell the client how many it missed.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Close the stream so the client reconnects and resynchronises.
+         */
+        DISCONNECT
+    }
+
+    @Data
+    public static class Events {
+        /**
+         * Items with pending changes buffered per subscriber before the overflow policy applies. Changes of
+         * the same item are coalesced, so this bounds distinct items rather than changes.
+         */
+        private int bufferSize = 256;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+        /**
+         * Open event streams allowed at once; further subscribers get 503.
+         */
+        private int maxSubscribers = 1000;
+
+        /**
+         * Idle time after which a comment is sent to keep the connection open.
+         */
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        /**
+         * Lifetime of an event stream, after which the client reconnects.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    public enum OutboxPublisherType {
+        /**
+         * Append published events to a local JSON lines file.
+         */
+        FILE,
+
+        /**
+         * Keep published events in memory, for tests.
+         */
+        MEMORY
+    }
+
+    @Data
+    public static class Outbox {
+        /**
+         * Runs the relay that publishes the outbox. Events are written to the outbox either way.
+         */
+        private boolean relayEnabled = true;
+
+        /**
+         * Events claimed and published per relay transaction.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Delay between two polls of the outbox once it has been drained, in milliseconds.
+         */
+        private long pollIntervalMs = 500;
+
+        /**
+         * How long the relay pauses after a batch failed to publish, doubled on every further failure of its oldest
+         * event.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Upper bound of the pause.
+         */
+        private Duration maxBackoff = Duration.ofMinutes(5);
+
+        private OutboxPublisherType publisher = OutboxPublisherType.FILE;
+
+        /**
+         * File the file publisher appends to.
+         */
+        private Path file = Path.of("outbox", "events.jsonl");
+    }
+
+    @Data
+    public static class Idempotency {
+        /**
+         * Honours the Idempotency-Key header on single item writes.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long a key and its response are kept. Retries after that run again.
+         */
+        private Duration ttl = Duration.ofHours(24);
+
+        /**
+         * Keys held in memory. Older keys are still found in the database when a retry reaches a write.
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * How long a duplicate waits for the request still running under its key before it gets 409.
+         */
+        private Duration maxWait = Duration.ofSeconds(10);
+
+        /**
+         * Delay between two writes of completed responses to the database, in milliseconds.
+         */
+        private long flushIntervalMs = 100;
+
+        /**
+         * Delay between two purges of expired keys, in milliseconds.
+         */
+        private long purgeIntervalMs = 3_600_000;
+    }
+
+    @Data
+    public static class Sql {
+        /**
+         * Wraps the DataSource to time every statement and account for it per request.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Statements at least this slow are logged with the shape of their parameters.
+         */
+        private Duration slowQueryThreshold = Duration.ofMillis(200);
+
+        /**
+         * Statements a request may run before it is logged as a likely N+1 query pattern.
+         */
+        private int statementBudget = 25;
+
+        /**
+         * Reports the statements and JDBC time of each request in a Server-Timing response header.
+         */
+        private boolean timingHeader = true;
+    }
+
+    @Data
+    public static class Logging {
+        /**
+         * Share of successful requests whose completion is logged at INFO, between 0 and 1. Failures are always logged.
+         */
+        private double successSampleRate = 1.0;
+
+        private final Async async = new Async();
+    }
+
+    /**
+     * Read by logback-spring.xml when the logging system starts, listed here so they are bound and documented
+     * with the other settings.
+     */
+    @Data
+    public static class Async {
+        /**
+         * Log events buffered between request threads and the console writer.
+         */
+        private int queueSize = 8192;
+
+        /**
+         * Once fewer slots than this are free, TRACE, DEBUG and INFO events are dropped. -1 keeps a fifth of
+         * the queue for WARN and ERROR.
+         */
+        private int discardingThreshold = -1;
+
+        /**
+         * Drops events when the queue is full instead of blocking the logging thread.
+         */
+        private boolean neverBlock = true;
+    }
+
+    public enum ReplicaSelection {
+        /**
+         * Hand reads to the replicas in turn.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * Hand each read to the replica with the fewest connections in use.
+         */
+        LEAST_CONNECTIONS
+    }
+
+    @Data
+    public static class Replicas {
+        /**
+         * Sends read-only transactions to the replica pools. Writes and reads in read-write transactions
+         * always use the primary.
+         */
+        private boolean enabled = false;
+
+        private ReplicaSelection selection = ReplicaSelection.ROUND_ROBIN;
+
+        /**
+         * How long a client's reads stay on the primary after its own write, so it does not read older data
+         * from a lagging replica. 0 turns this off.
+         */
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        /**
+         * How long a replica that failed to hand out a connection is skipped.
+         */
+        private Duration failureCooldown = Duration.ofSeconds(30);
+
+        /**
+         * Connection timeout of the replica pools unless set per pool. Shorter than the primary's, since a
+         * read that cannot get a replica connection falls back to the primary.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Replica pools. Each pool starts from the spring.datasource.hikari settings, which its own
+         * {@code hikari.*} settings override.
+         */
+        private List<ReplicaPool> pools = new ArrayList<>();
+    }
+
+    @Data
+    public static class ReplicaPool {
+        private String url;
+
+        /**
+         * Defaults to spring.datasource.username.
+         */
+        private String username;
+
+        /**
+         * Defaults to spring.datasource.password.
+         */
+        private String password;
+    }
+
+    public enum ReadPathType {
+        /**
+         * Load entities through the repository and Hibernate.
+         */
+        JPA,
+
+        /**
+         * Map rows to immutable records with JdbcTemplate, bypassing the persistence context.
+         */
+        JDBC
+    }
+
+    /**
+     * How each read endpoint loads items, so the two paths can be compared one endpoint at a time.
+     */
+    @Data
+    public static class ReadPath {
+        /**
+         * GET /{id}. The JDBC path does not use the item cache.
+         */
+        private ReadPathType item = ReadPathType.JPA;
+
+        /**
+         * GET /fetch-all. The JDBC path writes rows into the response as they are fetched.
+         */
+        private ReadPathType list = ReadPathType.JPA;
+
+        /**
+         * GET /page.
+         */
+        private ReadPathType page = ReadPathType.JPA;
+
+        /**
+         * GET /search.
+         */
+        private ReadPathType search = ReadPathType.JPA;
+    }
+
+    /**
+     * Catalog import and export through the Postgres COPY protocol.
+     */
+    @Data
+    public static class Catalog {
+        /**
+         * Number of staged rows merged into the item table per transaction. Smaller batches hold row locks on the
+         * live table for less time. Halved during an import when a batch gets close to half the change feed
+         * safety lag, the longest a batch may run.
+         */
+        private int mergeBatchSize = 10_000;
+
+        /**
+         * A progress line is logged every this many records read or merged.
+         */
+        private long progressInterval = 100_000;
+
+        /**
+         * Directory the rejected records of each import are written to, one NDJSON file per import.
+         */
+        private Path errorDir = Path.of("catalog-errors");
+
+        /**
+         * Whether merged items are written to the outbox as created and updated events, like single writes.
+         */
+        private boolean publishEvents = true;
+    }
+
+    /**
+     * Batching of the single item lookups behind GET /{id}.
+     */
+    @Data
+    public static class ItemLoader {
+        /**
+         * Merges concurrent lookups of different items into one query and lets lookups of the same item share
+         * one result. When disabled every lookup runs its own query.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long a lookup waits for others to join its query. It only waits while other lookups are already
+         * running, so an idle service answers without delay.
+         */
+        private Duration window = Duration.ofMillis(1);
+
+        /**
+         * Most items fetched by one query; a batch that reaches it runs without waiting out the window.
+         */
+        private int maxBatchSize = 100;
+    }
+
+    @Data
+    public static class ConcurrencyLimit {
+        /**
+         * Answers API requests beyond an adaptive concurrency limit with 503 at once, instead of letting them
+         * pile up in front of a slow database.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Limit before any latency has been observed.
+         */
+        private int initialLimit = 20;
+
+        /**
+         * The limit never shrinks below this many concurrent requests.
+         */
+        private int minLimit = 4;
+
+        /**
+         * The limit never grows beyond this many concurrent requests, normally the number of request threads.
+         */
+        private int maxLimit = 200;
+
+        /**
+         * Latency samples averaged before the limit is adjusted.
+         */
+        private int windowSize = 20;
+
+        /**
+         * Latency samples over which the no-load latency is averaged.
+         */
+        private int longWindow = 600;
+
+        /**
+         * How many times the no-load latency a window may take before the limit shrinks.
+         */
+        private double rttTolerance = 1.5;
+
+        /**
+         * How long requests may be in flight without any of them completing before the service counts as
+         * stalled and stops letting requests in.
+         */
+        private Duration stallTimeout = Duration.ofSeconds(1);
+
+        /**
+         * Share of each computed change applied to the limit.
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Factor the limit is multiplied by when a request fails with 500 or 503, such as after a connection
+         * timeout.
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * Share of the limit open to requests that are neither single item reads nor stock operations.
+         */
+        private double normalShare = 0.9;
+
+        /**
+         * Share of the limit open to fetch-all, streams, bulk writes and catalog jobs, which are shed first.
+         */
+        private double bulkShare = 0.5;
+
+        /**
+         * Retry-After sent with a rejection.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
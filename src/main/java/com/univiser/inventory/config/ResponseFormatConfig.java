@@ -0,0 +1,45 @@
+package com.univiser.inventory.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.univiser.inventory.format.ProtobufResponseConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary encodings of the API responses, picked by the Accept header: Smile ({@code application/x-jackson-smile})
+ * and CBOR ({@code application/cbor}) for any body, and protobuf ({@code application/x-protobuf}) for responses.
+ * They are added after the JSON converter, so JSON stays the default for clients that accept anything. The
+ * mappers come from the same builder as the JSON one and write dates and nulls the same way.
+ */
+@Configuration
+public class ResponseFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+    private final ObjectMapper objectMapper;
+
+    public ResponseFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders, ObjectMapper objectMapper) {
+        this.builders = builders;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring MVC registers its own Smile and CBOR converters when they are on the classpath, with default mappers.
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(builders.getObject().factory(new SmileFactory()).build()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(builders.getObject().factory(new CBORFactory()).build()));
+        converters.add(new ProtobufResponseConverter(builders.getObject().factory(new ProtobufFactory()).build(),
+                ProtobufResponseConverter.loadSchema(), objectMapper));
+    }
+}
@@ -0,0 +1,25 @@
+package com.univiser.inventory.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Beans created at startup even with {@code spring.main.lazy-initialization}. Migrations must run, and a broken
+ * database or mapping must fail, before the instance reports ready, and the Hibernate bootstrap would otherwise
+ * fall on the first request. Scheduled jobs and servlet filters are always created at startup by Spring Boot.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerPersistenceBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, Flyway.class,
+                FlywayMigrationInitializer.class, EntityManagerFactory.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.univiser.inventory.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override of the read routing. Bound by {@link com.univiser.inventory.filter.ReadYourWritesFilter}
+ * for requests that write, or that come from a client which wrote within the read-your-writes window.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Sends the read-only transactions of the calling thread to the primary until {@link #clear()}.
+     */
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    /**
+     * Runs {@code read} pinned to the primary, then restores the routing the calling thread had before.
+     *
+     * @param read the reads to run
+     * @return what {@code read} returned
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPinnedToPrimary()) {
+            return read.get();
+        }
+        pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.univiser.inventory.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.io.Closeable;
+
+/**
+ * Primary DataSource when replicas are configured. Connections are only fetched when the first statement
+ * runs, by which point the transaction manager has marked them read-only or not: read-only ones come from
+ * the {@link ReplicaDataSource}, all others from the primary pool.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final HikariDataSource primary;
+    private final ReplicaDataSource replicas;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, ReplicaDataSource replicas) {
+        super(primary);
+        setReadOnlyDataSource(replicas);
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public void close() {
+        replicas.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,115 @@
+package com.univiser.inventory.datasource;
+
+import com.univiser.inventory.config.InventoryProperties.ReplicaSelection;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections of the replica pools for read-only transactions. A replica that fails to hand out a
+ * connection is skipped for a cooldown period; when no replica is available, or the thread is pinned by
+ * {@link ReadRouting}, the connection comes from the primary.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaSelection selection;
+    private final long cooldownNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> pools, ReplicaSelection selection,
+                             Duration failureCooldown, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = pools.stream().map(pool -> new Replica(pool, Counter.builder("inventory.datasource.replica.failures")
+                .description("Replica connections that could not be obtained")
+                .tag("pool", pool.getPoolName())
+                .register(meterRegistry))).toList();
+        this.selection = selection;
+        this.cooldownNanos = failureCooldown.toNanos();
+        this.fallbacks = Counter.builder("inventory.datasource.replica.fallbacks")
+                .description("Read-only connections taken from the primary because no replica was available")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadRouting.isPinnedToPrimary()) {
+            return primary.getConnection();
+        }
+        long now = System.nanoTime();
+        for (Replica replica : candidates()) {
+            if (now - replica.skipUntil < 0) {
+                continue;
+            }
+            try {
+                return replica.pool.getConnection();
+            } catch (SQLException e) {
+                replica.skipUntil = now + cooldownNanos;
+                replica.failures.increment();
+                log.warn("Replica pool {} failed to hand out a connection, skipping it for {} ms: {}",
+                        replica.pool.getPoolName(), cooldownNanos / 1_000_000, e.getMessage());
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Replica connections use the credentials of their pool");
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /**
+     * Orders the replicas for one connection request, the preferred one first.
+     */
+    List<Replica> candidates() {
+        if (replicas.size() == 1) {
+            return replicas;
+        }
+        if (selection == ReplicaSelection.LEAST_CONNECTIONS) {
+            return replicas.stream().sorted(Comparator.comparingInt(Replica::activeConnections)).toList();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        List<Replica> ordered = new ArrayList<>(replicas.size());
+        ordered.addAll(replicas.subList(start, replicas.size()));
+        ordered.addAll(replicas.subList(0, start));
+        return ordered;
+    }
+
+    static final class Replica {
+        private final HikariDataSource pool;
+        private final Counter failures;
+        private volatile long skipUntil = System.nanoTime();
+
+        private Replica(HikariDataSource pool, Counter failures) {
+            this.pool = pool;
+            this.failures = failures;
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            return mxBean == null ? 0 : mxBean.getActiveConnections();
+        }
+    }
+}
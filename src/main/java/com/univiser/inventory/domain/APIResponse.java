@@ -1,14 +1,22 @@
 package com.univiser.inventory.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.univiser.inventory.domain.enums.StatusCode;
+import com.univiser.inventory.domain.enums.StatusMessage;
+import com.univiser.inventory.util.Constant;
 import lombok.Builder;
 import lombok.Data;
 import lombok.ToString;
 
+import java.util.Collections;
+
 @Data
 @Builder
 @ToString
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonSerialize(using = APIResponseSerializer.class)
 public class APIResponse {
     public String statusMessage;
     public String statusCode;
@@ -17,4 +25,32 @@ public class APIResponse {
     public String origin;
     public String errorType;
     public Object result;
-}
\ No newline at end of file
+
+    /**
+     * Detail of a failure, sent as {"error": error} in place of the result, even when null. Kept unwrapped so
+     * building an error response does not allocate the wrapping map.
+     */
+    public Object error;
+
+    public static APIResponse success(String origin, String responseTime, Object result) {
+        return new APIResponse(StatusMessage.SUCCESS.valueOf(), StatusCode.SUCCESS.valueOf(), null, responseTime,
+                origin, null, result, null);
+    }
+
+    public static APIResponse failure(String origin, String responseTime, String errorType, Object error) {
+        return new APIResponse(StatusMessage.FAILURE.valueOf(), StatusCode.FAILURE.valueOf(), null, responseTime,
+                origin, errorType, null, error);
+    }
+
+    /**
+     * @return true if this envelope reports a failure, whose detail is {@link #error}
+     */
+    @JsonIgnore
+    public boolean isFailure() {
+        return StatusCode.FAILURE.valueOf().equals(statusCode);
+    }
+
+    public Object getResult() {
+        return isFailure() ? Collections.singletonMap(Constant.ERROR, error) : result;
+    }
+}
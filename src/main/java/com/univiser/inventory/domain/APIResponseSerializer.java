@@ -0,0 +1,89 @@
+package com.univiser.inventory.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.univiser.inventory.domain.enums.StatusCode;
+import com.univiser.inventory.domain.enums.StatusMessage;
+import com.univiser.inventory.util.Constant;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the response envelope straight to the generator, skipping the reflective bean serializer.
+ * Field names and the status constants are encoded once and copied as bytes; null fields are left out
+ * as with {@code @JsonInclude(NON_NULL)}, except that a failure always carries {@code result: {error: ...}}.
+ * The result is delegated to the serializer of its own type.
+ */
+public class APIResponseSerializer extends StdSerializer<APIResponse> {
+
+    private static final SerializedString STATUS_MESSAGE = new SerializedString("statusMessage");
+    private static final SerializedString STATUS_CODE = new SerializedString("statusCode");
+    private static final SerializedString TRANSACTION_ID = new SerializedString("transactionId");
+    private static final SerializedString RESPONSE_TIME = new SerializedString("responseTime");
+    private static final SerializedString ORIGIN = new SerializedString("origin");
+    private static final SerializedString ERROR_TYPE = new SerializedString("errorType");
+    private static final SerializedString RESULT = new SerializedString("result");
+    private static final SerializedString ERROR = new SerializedString(Constant.ERROR);
+
+    private static final Map<String, SerializableString> CONSTANTS = new HashMap<>();
+
+    static {
+        for (StatusCode code : StatusCode.values()) {
+            CONSTANTS.put(code.valueOf(), new SerializedString(code.valueOf()));
+        }
+        for (StatusMessage message : StatusMessage.values()) {
+            CONSTANTS.put(message.valueOf(), new SerializedString(message.valueOf()));
+        }
+    }
+
+    public APIResponseSerializer() {
+        super(APIResponse.class);
+    }
+
+    @Override
+    public void serialize(APIResponse response, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(response);
+        writeConstant(generator, STATUS_MESSAGE, response.statusMessage);
+        writeConstant(generator, STATUS_CODE, response.statusCode);
+        writeString(generator, TRANSACTION_ID, response.transactionId);
+        writeString(generator, RESPONSE_TIME, response.responseTime);
+        writeString(generator, ORIGIN, response.origin);
+        writeString(generator, ERROR_TYPE, response.errorType);
+        if (response.isFailure()) {
+            generator.writeFieldName(RESULT);
+            generator.writeStartObject();
+            generator.writeFieldName(ERROR);
+            provider.defaultSerializeValue(response.error, generator);
+            generator.writeEndObject();
+        } else if (response.result != null) {
+            generator.writeFieldName(RESULT);
+            provider.defaultSerializeValue(response.result, generator);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeConstant(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        generator.writeFieldName(name);
+        SerializableString encoded = CONSTANTS.get(value);
+        if (encoded != null) {
+            generator.writeString(encoded);
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            generator.writeString(value);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.univiser.inventory.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.univiser.inventory.domain.enums.StatusCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single record of a bulk request, identified by its position in the request body.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+    private int index;
+    private Long id;
+    private String statusCode;
+    private String error;
+
+    public static BulkItemResult success(int index, Long id) {
+        return new BulkItemResult(index, id, StatusCode.SUCCESS.valueOf(), null);
+    }
+
+    public static BulkItemResult failure(int index, Long id, String error) {
+        return new BulkItemResult(index, id, StatusCode.FAILURE.valueOf(), error);
+    }
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        return StatusCode.SUCCESS.valueOf().equals(statusCode);
+    }
+}
@@ -0,0 +1,25 @@
+package com.univiser.inventory.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk request together with the per-record results, ordered by request position.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkResult {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BulkItemResult> results;
+
+    public static BulkResult of(List<BulkItemResult> results) {
+        int succeeded = (int) results.stream().filter(BulkItemResult::isSuccess).count();
+        return new BulkResult(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
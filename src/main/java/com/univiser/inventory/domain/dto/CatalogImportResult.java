@@ -0,0 +1,25 @@
+package com.univiser.inventory.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary of a catalog import. Rejected records are listed with their line and error in the error file.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogImportResult {
+    private long read;
+    private long inserted;
+    private long updated;
+    private long rejected;
+
+    /**
+     * Path of the error file, null if no record was rejected.
+     */
+    private String errorFile;
+
+    private long durationMillis;
+}
@@ -0,0 +1,24 @@
+package com.univiser.inventory.domain.dto;
+
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.entity.ItemTombstone;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the change feed: items created or updated and items deleted since the cursor, each oldest
+ * first. {@code nextCursor} is always set and is the watermark for the next poll; {@code hasMore} tells
+ * whether the next page is already available.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeFeed {
+    private List<Item> items;
+    private List<ItemTombstone> deleted;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,44 @@
+package com.univiser.inventory.domain.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Watermarks of the change feed, one for changed items and one for tombstones, each a time and an id tie
+ * breaker. A null item time means the mirror has not read any item yet. Sent to clients as an opaque
+ * base64url token.
+ */
+public record ChangeFeedCursor(LocalDateTime itemsAfter, Long itemId, LocalDateTime deletedAfter, Long deletedId) {
+
+    private static final String SEPARATOR = "|";
+
+    public ChangeFeedCursor withItems(LocalDateTime after, Long id) {
+        return new ChangeFeedCursor(after, id, deletedAfter, deletedId);
+    }
+
+    public ChangeFeedCursor withDeleted(LocalDateTime after, Long id) {
+        return new ChangeFeedCursor(itemsAfter, itemId, after, id);
+    }
+
+    public String encode() {
+        String raw = (itemsAfter == null ? "" : itemsAfter) + SEPARATOR + itemId + SEPARATOR + deletedAfter + SEPARATOR + deletedId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a token written by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token was not produced by this service
+     */
+    public static ChangeFeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            return new ChangeFeedCursor(parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]),
+                    LocalDateTime.parse(parts[2]), Long.valueOf(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor " + token, e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.univiser.inventory.domain.dto;
+
+import com.univiser.inventory.util.Constant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of the search endpoint. Every filter is optional; lower bounds are inclusive and the
+ * upper bounds of the time windows are exclusive.
+ */
+@Data
+@NoArgsConstructor
+public class ItemSearchCriteria {
+
+    /**
+     * Words that must all appear in the name or description.
+     */
+    private String q;
+
+    /**
+     * Case-insensitive prefix of the name.
+     */
+    private String namePrefix;
+
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    private Integer minQuantity;
+    private Integer maxQuantity;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedTo;
+
+    private String sort = "id";
+    private String direction = "asc";
+
+    /**
+     * The cursor returned with the previous page, or null for the first page. Only valid with the same sort.
+     */
+    private String cursor;
+    private int size = Constant.DEFAULT_PAGE_SIZE;
+}
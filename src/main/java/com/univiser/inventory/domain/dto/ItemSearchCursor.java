@@ -0,0 +1,47 @@
+package com.univiser.inventory.domain.dto;
+
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.enums.ItemSortField;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last item of a search page: its sort value and id. Sent to clients as an opaque
+ * base64url token that also records the sort, so it cannot be replayed against a different order.
+ */
+public record ItemSearchCursor(ItemSortField sort, Sort.Direction direction, Long id, Comparable<?> value) {
+
+    private static final String SEPARATOR = ":";
+
+    public static ItemSearchCursor of(ItemSortField sort, Sort.Direction direction, Item last) {
+        return new ItemSearchCursor(sort, direction, last.getId(), sort.parse(sort.valueOf(last)));
+    }
+
+    public static ItemSearchCursor of(ItemSortField sort, Sort.Direction direction, ItemView last) {
+        return new ItemSearchCursor(sort, direction, last.id(), sort.parse(sort.valueOf(last)));
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a token written by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token was not produced by this service
+     */
+    public static ItemSearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The value goes last as names and timestamps may contain the separator.
+            String[] parts = raw.split(SEPARATOR, 4);
+            ItemSortField sort = ItemSortField.valueOf(parts[0]);
+            return new ItemSearchCursor(sort, Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]), sort.parse(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor " + token, e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.univiser.inventory.domain.dto;
+
+import com.fasterxml.jackson.databind.JsonSerializable;
+
+/**
+ * A list result that writes itself to the generator as an array of items, row by row, instead of being held in
+ * memory. Encoders other than JSON treat it as a list of items.
+ */
+public interface ItemStream extends JsonSerializable {
+}
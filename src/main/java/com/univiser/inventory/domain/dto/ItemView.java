@@ -0,0 +1,12 @@
+package com.univiser.inventory.domain.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of an item row, read through the JDBC path without a persistence context. Serialises to the
+ * same JSON as {@link com.univiser.inventory.domain.entity.Item}.
+ */
+public record ItemView(Long id, String name, String description, int quantity, BigDecimal price,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+}
@@ -0,0 +1,16 @@
+package com.univiser.inventory.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock change applied to an item, negative when stock was taken.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockChange {
+    private Long id;
+    private int delta;
+}
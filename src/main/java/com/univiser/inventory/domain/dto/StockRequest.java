@@ -0,0 +1,15 @@
+package com.univiser.inventory.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of the reserve, release and adjust endpoints. For adjust the quantity may be negative.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockRequest {
+    private int quantity;
+}
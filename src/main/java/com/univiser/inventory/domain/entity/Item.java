@@ -3,9 +3,11 @@ package com.univiser.inventory.domain.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import com.univiser.inventory.util.Constant;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -20,7 +22,8 @@ import java.time.LocalDateTime;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = Constant.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Name cannot be blank")
@@ -31,8 +34,8 @@ public class Item {
     @Size(max = 500, message = "Description cannot exceed 500 characters")
     private String description;
 
-    @Min(value = 0, message = "Quantity cannot be negative")
-    @Max(value = 10000, message = "Quantity cannot exceed 10,000")
+    @Min(value = Constant.MIN_QUANTITY, message = "Quantity cannot be negative")
+    @Max(value = Constant.MAX_QUANTITY, message = "Quantity cannot exceed 10,000")
     private int quantity;
 
     @NotNull(message = "Price cannot be null")
@@ -42,9 +45,18 @@ public class Item {
     private BigDecimal price;
 
     @CreationTimestamp
-    @Column(updatable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
+    @Column(nullable = false)
     private LocalDateTime updatedAt;
+
+    /**
+     * Incremented on every write; sent back to clients as the ETag of the item.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,92 @@
+package com.univiser.inventory.domain.enums;
+
+import com.univiser.inventory.domain.dto.ItemView;
+import com.univiser.inventory.domain.entity.Item;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * The fields search results can be ordered by. Each one is backed by a (field, id) index, id being the
+ * tie breaker of the keyset cursor.
+ */
+public enum ItemSortField {
+
+    ID("id", "id", Item::getId, ItemView::id, Long::valueOf),
+
+    NAME("name", "name", Item::getName, ItemView::name, value -> value),
+
+    PRICE("price", "price", Item::getPrice, ItemView::price, BigDecimal::new),
+
+    QUANTITY("quantity", "quantity", Item::getQuantity, ItemView::quantity, Integer::valueOf),
+
+    CREATED_AT("createdAt", "created_at", Item::getCreatedAt, ItemView::createdAt, LocalDateTime::parse),
+
+    UPDATED_AT("updatedAt", "updated_at", Item::getUpdatedAt, ItemView::updatedAt, LocalDateTime::parse);
+
+    private final String property;
+    private final String column;
+    private final Function<Item, Object> accessor;
+    private final Function<ItemView, Object> viewAccessor;
+    private final Function<String, Comparable<?>> parser;
+
+    ItemSortField(String property, String column, Function<Item, Object> accessor,
+                  Function<ItemView, Object> viewAccessor, Function<String, Comparable<?>> parser) {
+        this.property = property;
+        this.column = column;
+        this.accessor = accessor;
+        this.viewAccessor = viewAccessor;
+        this.parser = parser;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * The column of this field in the item table, for queries written in SQL.
+     */
+    public String column() {
+        return column;
+    }
+
+    /**
+     * Reads the value of this field from an item, to be written into a cursor.
+     */
+    public String valueOf(Item item) {
+        return String.valueOf(accessor.apply(item));
+    }
+
+    /**
+     * Reads the value of this field from an item read through the JDBC path, to be written into a cursor.
+     */
+    public String valueOf(ItemView item) {
+        return String.valueOf(viewAccessor.apply(item));
+    }
+
+    /**
+     * Reads a value written by {@link #valueOf(Item)} back.
+     *
+     * @throws RuntimeException if the value does not have the type of the field
+     */
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    /**
+     * Finds a field by its property name, ignoring case.
+     *
+     * @param property the sort parameter sent by the client
+     * @return the matching field
+     * @throws IllegalArgumentException if no field has this name
+     */
+    public static ItemSortField fromProperty(String property) {
+        for (ItemSortField field : values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Cannot sort by " + property);
+    }
+}
@@ -0,0 +1,209 @@
+package com.univiser.inventory.events;
+
+import com.univiser.inventory.config.InventoryProperties;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * One SSE client. Writers only add to a bounded buffer of pending changes keyed by item, so a slow client
+ * never holds up a commit or the other clients; a dedicated thread drains the buffer into the connection.
+ * <p>
+ * Pending changes of the same item are coalesced: a new state (created, updated, deleted) replaces
+ * everything pending for the item, and stock changes are summed. When the buffer still overflows, the
+ * oldest item is dropped and the client is told how many changes it missed, or the connection is closed,
+ * depending on the overflow policy.
+ */
+@Slf4j
+final class EventSubscriber implements Runnable {
+
+    private final SseEmitter emitter;
+    private final Set<Long> itemIds;
+    private final int capacity;
+    private final InventoryProperties.OverflowPolicy overflowPolicy;
+    private final long heartbeatNanos;
+    private final Counter droppedCounter;
+    private final Consumer<EventSubscriber> onClose;
+
+    /**
+     * Uses a lock instead of synchronized so the draining virtual thread does not pin its carrier while waiting.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final LinkedHashMap<Long, PendingChange> pending = new LinkedHashMap<>();
+    private int dropped;
+    private boolean overflowed;
+    private volatile boolean closed;
+
+    EventSubscriber(SseEmitter emitter, Set<Long> itemIds, InventoryProperties.Events settings, Counter droppedCounter,
+                    Consumer<EventSubscriber> onClose) {
+        this.emitter = emitter;
+        this.itemIds = itemIds;
+        this.capacity = Math.max(1, settings.getBufferSize());
+        this.overflowPolicy = settings.getOverflowPolicy();
+        this.heartbeatNanos = settings.getHeartbeat().toNanos();
+        this.droppedCounter = droppedCounter;
+        this.onClose = onClose;
+    }
+
+    boolean accepts(InventoryChangeEvent event) {
+        return itemIds == null || itemIds.contains(event.itemId());
+    }
+
+    /**
+     * Buffers a change without blocking on the client.
+     */
+    void offer(InventoryChangeEvent event) {
+        lock.lock();
+        try {
+            if (closed || overflowed) {
+                return;
+            }
+            PendingChange change = pending.get(event.itemId());
+            if (change == null) {
+                if (pending.size() >= capacity && !makeRoom()) {
+                    return;
+                }
+                change = new PendingChange();
+                pending.put(event.itemId(), change);
+            }
+            change.merge(event);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed) {
+                Batch batch = await();
+                if (batch.overflowed()) {
+                    log.warn("Closing event stream of a subscriber that fell {} changes behind", capacity);
+                    emitter.complete();
+                    break;
+                }
+                if (batch.dropped() > 0) {
+                    emitter.send(SseEmitter.event().name("dropped").data(Map.of("count", batch.dropped()), MediaType.APPLICATION_JSON));
+                }
+                for (InventoryChangeEvent event : batch.events()) {
+                    emitter.send(SseEmitter.event().name(event.type().name().toLowerCase(Locale.ROOT))
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+                if (batch.isEmpty()) {
+                    // Lets proxies keep the connection open and reveals clients that went away.
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Event stream closed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        onClose.accept(this);
+    }
+
+    /**
+     * @return false if the overflow policy closes the stream instead of dropping a change
+     */
+    private boolean makeRoom() {
+        if (overflowPolicy == InventoryProperties.OverflowPolicy.DISCONNECT) {
+            overflowed = true;
+            changed.signal();
+            return false;
+        }
+        Iterator<PendingChange> oldest = pending.values().iterator();
+        int count = oldest.next().size();
+        oldest.remove();
+        dropped += count;
+        droppedCounter.increment(count);
+        return true;
+    }
+
+    private Batch await() throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = heartbeatNanos;
+            while (pending.isEmpty() && dropped == 0 && !overflowed && !closed && nanos > 0) {
+                nanos = changed.awaitNanos(nanos);
+            }
+            List<InventoryChangeEvent> events = new ArrayList<>(pending.size());
+            for (PendingChange change : pending.values()) {
+                change.drainTo(events);
+            }
+            pending.clear();
+            Batch batch = new Batch(events, dropped, overflowed);
+            dropped = 0;
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * What is pending for one item: its latest state, then the stock changes made after it.
+     */
+    private static final class PendingChange {
+        private InventoryChangeEvent state;
+        private InventoryChangeEvent stock;
+
+        void merge(InventoryChangeEvent event) {
+            if (event.type() == InventoryChangeEvent.Type.STOCK_CHANGED) {
+                stock = stock == null ? event : stock.plus(event);
+            } else {
+                // The new state already includes the stock changes committed before it.
+                state = event;
+                stock = null;
+            }
+        }
+
+        int size() {
+            return (state == null ? 0 : 1) + (stock == null ? 0 : 1);
+        }
+
+        void drainTo(List<InventoryChangeEvent> events) {
+            if (state != null) {
+                events.add(state);
+            }
+            if (stock != null) {
+                events.add(stock);
+            }
+        }
+    }
+
+    private record Batch(List<InventoryChangeEvent> events, int dropped, boolean overflowed) {
+        boolean isEmpty() {
+            return events.isEmpty() && dropped == 0;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.univiser.inventory.events;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.univiser.inventory.domain.entity.Item;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed change to an item. Created, updated and deleted events carry the state of the item after the
+ * write; stock events carry the quantity added, negative when stock was taken.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record InventoryChangeEvent(Type type, Long itemId, Item item, Integer delta, LocalDateTime at) {
+
+    public enum Type {CREATED, UPDATED, DELETED, STOCK_CHANGED}
+
+    public static InventoryChangeEvent created(Item item) {
+        return new InventoryChangeEvent(Type.CREATED, item.getId(), item, null, LocalDateTime.now());
+    }
+
+    public static InventoryChangeEvent updated(Item item) {
+        return new InventoryChangeEvent(Type.UPDATED, item.getId(), item, null, LocalDateTime.now());
+    }
+
+    public static InventoryChangeEvent deleted(Long itemId) {
+        return new InventoryChangeEvent(Type.DELETED, itemId, null, null, LocalDateTime.now());
+    }
+
+    public static InventoryChangeEvent stockChanged(Long itemId, int delta) {
+        return new InventoryChangeEvent(Type.STOCK_CHANGED, itemId, null, delta, LocalDateTime.now());
+    }
+
+    /**
+     * Folds a later stock change of the same item into this one.
+     */
+    InventoryChangeEvent plus(InventoryChangeEvent later) {
+        return new InventoryChangeEvent(Type.STOCK_CHANGED, itemId, null, delta + later.delta(), later.at());
+    }
+}
@@ -0,0 +1,82 @@
+package com.univiser.inventory.events;
+
+import com.univiser.inventory.config.InventoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans committed item changes out to the SSE subscribers. Changes published inside a transaction are
+ * delivered once it commits and dropped if it rolls back; changes published outside one, after a repository
+ * call already committed, are delivered at once.
+ */
+@Slf4j
+@Component
+public class InventoryEventBroadcaster {
+
+    private final Set<EventSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final InventoryProperties.Events settings;
+    private final Counter published;
+    private final Counter dropped;
+
+    public InventoryEventBroadcaster(@NonNull InventoryProperties properties, @NonNull MeterRegistry meterRegistry) {
+        this.settings = properties.getEvents();
+        this.published = Counter.builder("inventory.events.published")
+                .description("Item changes handed to the event stream subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("inventory.events.dropped")
+                .description("Item changes dropped because a subscriber fell behind")
+                .register(meterRegistry);
+        Gauge.builder("inventory.events.subscribers", subscribers, Set::size)
+                .description("Number of open event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens an event stream.
+     *
+     * @param itemIds the items to receive changes of, or null for every item
+     * @return the emitter to return from the controller, or null if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Set<Long> itemIds) {
+        if (subscribers.size() >= settings.getMaxSubscribers()) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(settings.getTimeout().toMillis());
+        EventSubscriber subscriber = new EventSubscriber(emitter, itemIds, settings, dropped, subscribers::remove);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        // Sending blocks on the client socket, so each subscriber gets its own cheap thread.
+        Thread.ofVirtual().name("inventory-events-" + sequence.incrementAndGet()).start(subscriber);
+        log.info("Opened event stream for items {}, {} open", itemIds == null ? "all" : itemIds, subscribers.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(InventoryChangeEvent event) {
+        published.increment();
+        for (EventSubscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        subscribers.forEach(EventSubscriber::close);
+    }
+}
@@ -0,0 +1,179 @@
+package com.univiser.inventory.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.limit.AdaptiveConcurrencyLimiter;
+import com.univiser.inventory.limit.OverloadSignals;
+import com.univiser.inventory.limit.RequestPriority;
+import com.univiser.inventory.util.ResponseUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sheds load before it reaches the database. Requests beyond the {@link AdaptiveConcurrencyLimiter} limit for
+ * their {@link RequestPriority} are answered with 503 and Retry-After at once, so when Postgres slows down the
+ * requests that are let in keep their latency instead of all of them waiting out the connection timeout. Bulk
+ * requests are shed first, single item reads and stock operations last.
+ * <p>
+ * Only single item and page sized requests feed their latency to the limit; bulk requests and streams take as
+ * long as their data and would read as congestion. Streams keep their slot until the async request completes.
+ * <p>
+ * Runs ahead of the other filters of the service, including {@link ConnectionBulkheadFilter}, whose queue then
+ * only holds the requests the limit let in.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 400)
+@ConditionalOnProperty(prefix = "inventory.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String EVENTS_PATH = "/events";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final String retryAfterSeconds;
+    private final ResponseUtil responseUtil;
+    private final ObjectMapper objectMapper;
+    private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+
+    public ConcurrencyLimitFilter(@NonNull InventoryProperties properties, @NonNull ResponseUtil responseUtil,
+                                  @NonNull ObjectMapper objectMapper, @NonNull MeterRegistry meterRegistry) {
+        this.limiter = new AdaptiveConcurrencyLimiter(properties.getConcurrencyLimit());
+        this.retryAfterSeconds = String.valueOf(Math.max(1, properties.getConcurrencyLimit().getRetryAfter().toSeconds()));
+        this.responseUtil = responseUtil;
+        this.objectMapper = objectMapper;
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejected.put(priority, Counter.builder("inventory.concurrency-limit.rejected")
+                    .description("Requests answered with 503 because the concurrency limit for their priority was reached")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("inventory.concurrency-limit.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Requests currently let in at once")
+                .register(meterRegistry);
+        Gauge.builder("inventory.concurrency-limit.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently holding a slot of the concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("inventory.concurrency-limit.rtt", limiter, AdaptiveConcurrencyLimiter::getShortRtt)
+                .description("Average latency of the last window of requests")
+                .tag("window", "short")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("inventory.concurrency-limit.rtt", limiter, AdaptiveConcurrencyLimiter::getLongRtt)
+                .description("Long running average latency the last window is compared with")
+                .tag("window", "long")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        log.info("Adaptive concurrency limit starts at {} requests", limiter.getLimit());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health checks must answer even when the service is saturated, and event streams hold no connection.
+        String path = path(request);
+        return path.startsWith("/actuator") || path.endsWith(EVENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestPriority priority = RequestPriority.of(request.getMethod(), path(request));
+        if (!limiter.tryAcquire(priority)) {
+            rejected.get(priority).increment();
+            reject(response);
+            return;
+        }
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(priority));
+            } else if (isOverload(response.getStatus(), failure)) {
+                limiter.onOverload(priority);
+            } else if (priority == RequestPriority.BULK || failure != null) {
+                limiter.release(priority);
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * 503 is what the bulkhead and the service answer when no connection or lock could be had in time; a 500
+     * or an exception of another kind points at the request, not at load.
+     */
+    private static boolean isOverload(int status, Throwable failure) {
+        if (failure != null) {
+            return OverloadSignals.isOverload(failure);
+        }
+        return status == HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), responseUtil.wrapError("Service busy!",
+                "Too many requests in progress, try again later", HttpStatus.SERVICE_UNAVAILABLE).getBody());
+    }
+
+    /**
+     * Servlet containers call onComplete exactly once for every async request, including after errors and timeouts.
+     */
+    private final class ReleaseOnComplete implements AsyncListener {
+        private final RequestPriority priority;
+
+        private ReleaseOnComplete(RequestPriority priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(priority);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Released in onComplete.
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Released in onComplete.
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
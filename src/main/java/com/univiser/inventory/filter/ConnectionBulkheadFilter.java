@@ -0,0 +1,157 @@
+package com.univiser.inventory.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.util.ResponseUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets at most as many requests run as the connection pool has connections, and parks the rest on a fair
+ * semaphore. With virtual threads every accepted connection gets a thread of its own, so without this limit
+ * thousands of requests would wait inside Hikari and fail together once connection-timeout expires. Parked
+ * virtual threads cost a few hundred bytes each, and a request that waits longer than max-wait is answered
+ * with 503 and Retry-After.
+ * <p>
+ * Streaming responses keep their slot until the async request completes, since they hold a connection
+ * for as long as they write.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "inventory.bulkhead", name = "enabled", havingValue = "true")
+public class ConnectionBulkheadFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String EVENTS_PATH = "/events";
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final ResponseUtil responseUtil;
+    private final ObjectMapper objectMapper;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public ConnectionBulkheadFilter(@NonNull InventoryProperties properties, @NonNull ResponseUtil responseUtil,
+                                    @NonNull ObjectMapper objectMapper, @NonNull MeterRegistry meterRegistry) {
+        this.maxConcurrent = properties.getBulkhead().getMaxConcurrent();
+        this.maxWaitNanos = properties.getBulkhead().getMaxWait().toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.responseUtil = responseUtil;
+        this.objectMapper = objectMapper;
+        this.waitTimer = Timer.builder("inventory.bulkhead.wait")
+                .description("Time requests spent waiting for a bulkhead slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("inventory.bulkhead.rejected")
+                .description("Requests answered with 503 because no slot freed up in time")
+                .register(meterRegistry);
+        Gauge.builder("inventory.bulkhead.active", permits, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .description("Requests currently holding a bulkhead slot")
+                .register(meterRegistry);
+        Gauge.builder("inventory.bulkhead.waiting", waiting, AtomicInteger::get)
+                .description("Requests currently waiting for a bulkhead slot")
+                .register(meterRegistry);
+        log.info("Request bulkhead allows {} concurrent requests", maxConcurrent);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health checks must answer even when the service is saturated, and event streams hold no connection
+        // but would keep a slot for their whole lifetime.
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/actuator") || path.endsWith(EVENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            rejected.increment();
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        waiting.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), responseUtil.wrapError("Service busy!",
+                "No request slot freed up in time", HttpStatus.SERVICE_UNAVAILABLE).getBody());
+    }
+
+    /**
+     * Servlet containers call onComplete exactly once for every async request, including after errors and timeouts.
+     */
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Released in onComplete.
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Released in onComplete.
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
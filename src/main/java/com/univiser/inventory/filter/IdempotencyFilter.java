@@ -0,0 +1,315 @@
+package com.univiser.inventory.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.entity.IdempotencyRecord;
+import com.univiser.inventory.idempotency.IdempotencyStore;
+import com.univiser.inventory.idempotency.StoredResponse;
+import com.univiser.inventory.util.ResponseUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Applies a write sent with an Idempotency-Key header at most once, and answers repeats of it with the stored
+ * response. A repeat that arrives while the first request is still running waits for its response instead of
+ * running again. Error responses of 500 and above are not stored, so the key can be retried, unless the write
+ * committed: then the key is spent and every retry gets the stored failure. A key whose write committed on an
+ * instance that stopped before storing the response is answered as applied once that response is overdue.
+ * <p>
+ * Runs ahead of the request bulkhead, so duplicates waiting here hold no slot. The bulk and catalog endpoints
+ * stream their bodies and are not covered; any other body is buffered only up to {@link #MAX_BODY_BYTES}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 100)
+@ConditionalOnProperty(prefix = "inventory.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String BULK_PATH = "/bulk";
+    private static final String CATALOG_PATH = "/catalog/";
+    /**
+     * Largest body buffered for fingerprinting and replay, far above any single item write.
+     */
+    static final int MAX_BODY_BYTES = 1024 * 1024;
+
+    private final IdempotencyStore store;
+    private final ResponseUtil responseUtil;
+    private final ObjectMapper objectMapper;
+    private final long maxWaitNanos;
+    private final Duration responseOverdue;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter refused;
+
+    public IdempotencyFilter(@NonNull IdempotencyStore store, @NonNull InventoryProperties properties,
+                             @NonNull ResponseUtil responseUtil, @NonNull ObjectMapper objectMapper,
+                             @NonNull MeterRegistry meterRegistry) {
+        this.store = store;
+        this.responseUtil = responseUtil;
+        this.objectMapper = objectMapper;
+        this.maxWaitNanos = properties.getIdempotency().getMaxWait().toNanos();
+        // A running request answers within max-wait, and its response reaches the table one flush later.
+        this.responseOverdue = properties.getIdempotency().getMaxWait()
+                .plusMillis(properties.getIdempotency().getFlushIntervalMs());
+        this.executed = Counter.builder("inventory.idempotency.requests").tag("result", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("inventory.idempotency.requests").tag("result", "replayed").register(meterRegistry);
+        this.refused = Counter.builder("inventory.idempotency.requests").tag("result", "refused").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return request.getHeader(IDEMPOTENCY_KEY) == null || !WRITE_METHODS.contains(request.getMethod())
+                || uri.endsWith(BULK_PATH) || uri.contains(CATALOG_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            refused.increment();
+            reject(response, HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key header!",
+                    "Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            refused.increment();
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request too large for Idempotency-Key!",
+                    "Bodies sent with an Idempotency-Key may be at most " + MAX_BODY_BYTES + " bytes");
+            return;
+        }
+        String fingerprint = fingerprint(request, body);
+        while (true) {
+            IdempotencyStore.Entry entry = IdempotencyStore.Entry.of(fingerprint);
+            IdempotencyStore.Entry earlier = store.reserve(key, entry);
+            if (earlier == null) {
+                execute(key, entry, new CachedBodyRequest(request, body), response, filterChain);
+                return;
+            }
+            if (!earlier.fingerprint().equals(fingerprint)) {
+                refused.increment();
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key reused!",
+                        "Key " + key + " was sent with another request");
+                return;
+            }
+            try {
+                replay(earlier.response().get(maxWaitNanos, TimeUnit.NANOSECONDS), response);
+                return;
+            } catch (TimeoutException e) {
+                refused.increment();
+                inProgress(response, key);
+                return;
+            } catch (ExecutionException e) {
+                // The first request failed without a response worth keeping; run this one instead.
+                log.debug("Request with idempotency key {} failed, executing its duplicate", key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted waiting for idempotency key " + key, e);
+            }
+        }
+    }
+
+    private void execute(String key, IdempotencyStore.Entry entry, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IdempotencyStore.Claim claim = null;
+        try {
+            store.begin(key, entry.fingerprint());
+            try {
+                filterChain.doFilter(request, wrapper);
+            } finally {
+                claim = store.end();
+            }
+        } catch (ServletException | IOException | RuntimeException e) {
+            if (claim != null && claim.isClaimed()) {
+                store.complete(key, entry, claim, errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Request failed!",
+                        "The request with key " + key + " was applied, but failed afterwards"));
+            } else {
+                store.abandon(key, entry, e);
+            }
+            throw e;
+        }
+        if (claim != null && claim.isDuplicate()) {
+            // Another instance, or this one before a restart, applied the key; the write was rolled back.
+            wrapper.resetBuffer();
+            replayDurable(key, entry, response);
+            return;
+        }
+        if (wrapper.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value() && (claim == null || !claim.isClaimed())) {
+            store.abandon(key, entry, new IllegalStateException("Request failed with status " + wrapper.getStatus()));
+        } else {
+            store.complete(key, entry, claim, new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                    wrapper.getHeader(HttpHeaders.ETAG), wrapper.getContentAsByteArray()));
+        }
+        executed.increment();
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replayDurable(String key, IdempotencyStore.Entry entry, HttpServletResponse response) throws IOException {
+        Optional<IdempotencyRecord> record = store.findDurable(key);
+        if (record.isPresent() && !record.get().getFingerprint().equals(entry.fingerprint())) {
+            store.abandon(key, entry, new IllegalStateException("Idempotency key " + key + " was reused"));
+            refused.increment();
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key reused!",
+                    "Key " + key + " was sent with another request");
+            return;
+        }
+        if (record.isPresent() && record.get().getStatus() == null
+                && record.get().getCreatedAt().isBefore(LocalDateTime.now().minus(responseOverdue))) {
+            log.warn("Response of idempotency key {} was never stored, answering it as applied", key);
+            StoredResponse lost = errorResponse(HttpStatus.CONFLICT, "Request already applied!",
+                    "The request with key " + key + " was applied, but its response was lost; read the item for its state");
+            store.settleLost(key, entry, lost);
+            replay(lost, response);
+            return;
+        }
+        if (record.isEmpty() || record.get().getStatus() == null) {
+            store.abandon(key, entry, new IllegalStateException("Response of idempotency key " + key + " is not stored yet"));
+            refused.increment();
+            inProgress(response, key);
+            return;
+        }
+        IdempotencyRecord stored = record.get();
+        StoredResponse storedResponse = StoredResponse.decode(stored.getStatus(), stored.getContentType(), stored.getEtag(),
+                stored.getBody());
+        store.complete(key, entry, null, storedResponse);
+        replay(storedResponse, response);
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        replayed.increment();
+        response.setStatus(stored.status());
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.eTag() != null) {
+            response.setHeader(HttpHeaders.ETAG, stored.eTag());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void inProgress(HttpServletResponse response, String key) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        reject(response, HttpStatus.CONFLICT, "Request in progress!", "A request with key " + key + " is still running");
+    }
+
+    /**
+     * A final error answer for a key whose write committed, stored so that every retry gets the same.
+     */
+    private StoredResponse errorResponse(HttpStatus status, String message, String reason) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(responseUtil.wrapError(message, reason, status).getBody());
+        return new StoredResponse(status.value(), MediaType.APPLICATION_JSON_VALUE, null, body);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message, String reason) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), responseUtil.wrapError(message, reason, status).getBody());
+    }
+
+    /**
+     * Hashes what makes two requests the same: method, path, query and body.
+     */
+    static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Serves a body that was read up front to compute the fingerprint.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Body is already buffered");
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.univiser.inventory.filter;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.datasource.ReadRouting;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Keeps a client on the primary right after its own writes, so it does not read older data from a lagging
+ * replica. A write request is pinned to the primary for its whole duration and answered with a cookie holding
+ * the end of the read-your-writes window; requests carrying that cookie are pinned until the window ends.
+ * The window travels with the client, so it holds whichever instance serves the next read.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 300)
+@ConditionalOnProperty(prefix = "inventory.replicas", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "inventory-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(@NonNull InventoryProperties properties) {
+        this.windowMillis = properties.getReplicas().getReadYourWritesWindow().toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write && windowMillis > 0) {
+            // Set before the chain runs, since the response may be committed by the time it returns.
+            response.addCookie(windowCookie(request, System.currentTimeMillis() + windowMillis));
+        }
+        if (!write && !withinWindow(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReadRouting.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+
+    private boolean withinWindow(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null || windowMillis <= 0) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    // Bounded by the window, so a forged cookie cannot pin a client for longer.
+                    long now = System.currentTimeMillis();
+                    return until > now && until - now <= windowMillis;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Cookie windowCookie(HttpServletRequest request, long until) {
+        Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+        cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+        cookie.setMaxAge((int) Math.max(1, (windowMillis + 999) / 1000));
+        cookie.setHttpOnly(true);
+        cookie.setAttribute("SameSite", "Lax");
+        return cookie;
+    }
+}
@@ -0,0 +1,103 @@
+package com.univiser.inventory.filter;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.sql.SqlStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the statements and JDBC time of every request and records them per endpoint as inventory.sql.statements
+ * and inventory.sql.time. A request running more statements than inventory.sql.statement-budget is logged and
+ * counted, which is how N+1 query patterns show up.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 200)
+@ConditionalOnProperty(prefix = "inventory.sql", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public SqlAccountingFilter(@NonNull InventoryProperties properties, @NonNull MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = properties.getSql().getStatementBudget();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length()).startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStats stats = SqlStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStats.clear();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+        EndpointMeters endpoint = meters.computeIfAbsent(request.getMethod() + ' ' + uri,
+                key -> new EndpointMeters(request.getMethod(), uri));
+        endpoint.statements.record(stats.getStatements());
+        endpoint.time.record(stats.getNanos(), TimeUnit.NANOSECONDS);
+        if (stats.getStatements() > statementBudget) {
+            endpoint.overBudget.increment();
+            log.warn("{} {} ran {} SQL statements, over the budget of {}; check for N+1 queries",
+                    request.getMethod(), request.getRequestURI(), stats.getStatements(), statementBudget);
+        }
+    }
+
+    private final class EndpointMeters {
+        private final DistributionSummary statements;
+        private final Timer time;
+        private final Counter overBudget;
+
+        private EndpointMeters(String method, String uri) {
+            this.statements = DistributionSummary.builder("inventory.sql.statements")
+                    .description("SQL statements run per request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry);
+            this.time = Timer.builder("inventory.sql.time")
+                    .description("JDBC time spent per request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry);
+            this.overBudget = Counter.builder("inventory.sql.budget.exceeded")
+                    .description("Requests that ran more statements than the budget")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.univiser.inventory.format;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.dto.CursorPage;
+import com.univiser.inventory.domain.dto.ItemStream;
+import com.univiser.inventory.domain.dto.ItemView;
+import com.univiser.inventory.domain.entity.Item;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * Writes {@link APIResponse} bodies in the protobuf encoding defined by {@code proto/inventory.proto}, for
+ * service-to-service callers that send {@code Accept: application/x-protobuf}. Items, item lists and pages map to
+ * the typed fields of the schema; any other result is carried as its JSON document. Request bodies are not read
+ * in this encoding.
+ */
+public class ProtobufResponseConverter extends AbstractHttpMessageConverter<APIResponse> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+    static final String SCHEMA_LOCATION = "proto/inventory.proto";
+    static final String ROOT_TYPE = "Response";
+
+    private final ObjectWriter writer;
+    private final ObjectMapper jsonMapper;
+
+    /**
+     * @param protobufMapper the mapper encoding items, configured like the JSON one
+     * @param schema         the {@code Response} message of the schema
+     * @param jsonMapper     the mapper of the JSON responses, for results without a typed field
+     */
+    public ProtobufResponseConverter(ObjectMapper protobufMapper, ProtobufSchema schema, ObjectMapper jsonMapper) {
+        super(APPLICATION_PROTOBUF, MediaType.parseMediaType("application/protobuf"));
+        // The schema declares dates as strings, whatever the JSON mapper is configured with.
+        this.writer = protobufMapper.writer(schema).without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Parses the {@code Response} message and the types it uses from the schema file on the classpath.
+     */
+    public static ProtobufSchema loadSchema() {
+        try (InputStream schema = new ClassPathResource(SCHEMA_LOCATION).getInputStream()) {
+            return ProtobufSchemaLoader.std.load(schema, ROOT_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load " + SCHEMA_LOCATION, e);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return APIResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected APIResponse readInternal(Class<? extends APIResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(APIResponse response, HttpOutputMessage outputMessage) throws IOException {
+        writer.writeValue(StreamUtils.nonClosing(outputMessage.getBody()), new Envelope(response, jsonMapper));
+    }
+
+    /**
+     * Writes the envelope field by field against the {@code Response} message.
+     */
+    private record Envelope(APIResponse response, ObjectMapper jsonMapper) implements JsonSerializable {
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            writeString(generator, "statusMessage", response.statusMessage);
+            writeString(generator, "statusCode", response.statusCode);
+            writeString(generator, "transactionId", response.transactionId);
+            writeString(generator, "responseTime", response.responseTime);
+            writeString(generator, "origin", response.origin);
+            writeString(generator, "errorType", response.errorType);
+            if (response.isFailure()) {
+                if (response.error != null) {
+                    writeString(generator, "error", response.error instanceof CharSequence text
+                            ? text.toString() : jsonMapper.writeValueAsString(response.error));
+                }
+            } else if (response.result != null) {
+                writeResult(generator, provider, response.result);
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSer)
+                throws IOException {
+            serialize(generator, provider);
+        }
+
+        private void writeResult(JsonGenerator generator, SerializerProvider provider, Object result) throws IOException {
+            if (result instanceof Item || result instanceof ItemView) {
+                generator.writeFieldName("item");
+                provider.defaultSerializeValue(result, generator);
+            } else if (result instanceof ItemStream || isItemList(result)) {
+                generator.writeFieldName("items");
+                provider.defaultSerializeValue(result, generator);
+            } else if (result instanceof CursorPage<?> page && isItemList(page.getItems())) {
+                generator.writeFieldName("items");
+                provider.defaultSerializeValue(page.getItems(), generator);
+                writeString(generator, "nextCursor", page.getNextCursor());
+            } else {
+                writeString(generator, "result", jsonMapper.writeValueAsString(result));
+            }
+        }
+
+        private static boolean isItemList(Object result) {
+            if (!(result instanceof Collection<?> collection)) {
+                return false;
+            }
+            for (Object element : collection) {
+                if (!(element instanceof Item || element instanceof ItemView)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void writeString(JsonGenerator generator, String name, String value) throws IOException {
+            if (value != null) {
+                generator.writeStringField(name, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.univiser.inventory.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.entity.IdempotencyRecord;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Remembers the responses of writes sent with an Idempotency-Key.
+ * <p>
+ * Keys live in a bounded in-memory map with a time to live, so a retry or a concurrent duplicate on the same
+ * instance is settled with one hash lookup. The map is backed by the idempotency_key table: the key is
+ * inserted by the first item change of the request, inside the write transaction, so a duplicate that slipped
+ * past the map (another instance, a restart, an evicted entry) fails on the primary key and rolls its write
+ * back instead of applying it twice. Responses are written to the table in batches after the request, so a
+ * row can be left without one by a crash in between; {@link #settleLost} gives such a row a final answer.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "inventory.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyStore {
+
+    static final String CLAIM_SQL = "insert into idempotency_key (idempotency_key, fingerprint, created_at, expires_at) "
+            + "values (?, ?, ?, ?)";
+
+    static final String RESPONSE_SQL = "update idempotency_key set status = ?, content_type = ?, etag = ?, body = ? "
+            + "where idempotency_key = ? and status is null";
+
+    static final String FIND_SQL = "select idempotency_key, fingerprint, status, content_type, etag, body, created_at, expires_at "
+            + "from idempotency_key where idempotency_key = ? and expires_at > ?";
+
+    static final String PURGE_SQL = "delete from idempotency_key where expires_at < ?";
+
+    private final Cache<String, Entry> entries;
+    private final ThreadLocal<Claim> currentClaim = new ThreadLocal<>();
+    private final Queue<PendingResponse> pendingResponses = new ConcurrentLinkedQueue<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+
+    public IdempotencyStore(@NonNull JdbcTemplate jdbcTemplate, @NonNull InventoryProperties properties,
+                            @NonNull MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = properties.getIdempotency().getTtl();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getIdempotency().getMaximumSize())
+                .expireAfterWrite(ttl)
+                .build();
+        Gauge.builder("inventory.idempotency.keys", entries, Cache::estimatedSize)
+                .description("Idempotency keys held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a request under its key unless another request holds it already.
+     *
+     * @return the entry of the earlier request, or null if the caller now owns the key
+     */
+    public Entry reserve(String key, Entry entry) {
+        return entries.asMap().putIfAbsent(key, entry);
+    }
+
+    /**
+     * Publishes the response of an owned key to waiting duplicates, and queues it for the table if the request
+     * wrote anything.
+     */
+    public void complete(String key, Entry entry, Claim claim, StoredResponse response) {
+        entry.response().complete(response);
+        if (claim != null && claim.claimed) {
+            pendingResponses.add(new PendingResponse(key, response));
+        }
+    }
+
+    /**
+     * Stores a response for a key whose write committed but whose own response never reached the table, because
+     * the instance that ran it stopped before the flush. The first response written for a key is the one kept.
+     */
+    public void settleLost(String key, Entry entry, StoredResponse response) {
+        entry.response().complete(response);
+        pendingResponses.add(new PendingResponse(key, response));
+    }
+
+    /**
+     * Releases an owned key without a response to replay, so the next attempt executes again.
+     */
+    public void abandon(String key, Entry entry, Throwable cause) {
+        entries.asMap().remove(key, entry);
+        entry.response().completeExceptionally(cause);
+    }
+
+    /**
+     * Binds the key of the request to the calling thread until {@link #end()}.
+     */
+    public void begin(String key, String fingerprint) {
+        currentClaim.set(new Claim(key, fingerprint));
+    }
+
+    public Claim end() {
+        Claim claim = currentClaim.get();
+        currentClaim.remove();
+        return claim;
+    }
+
+    /**
+     * Inserts the key of the current request with its first item change, in the transaction of that change.
+     *
+     * @throws DuplicateRequestException if the key was already used, which rolls the change back
+     */
+    @EventListener
+    public void onChange(InventoryChangeEvent event) {
+        Claim claim = currentClaim.get();
+        if (claim == null || claim.claimed) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            jdbcTemplate.update(CLAIM_SQL, claim.key, claim.fingerprint, now, now.plus(ttl));
+            claim.claimed = true;
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        // The key went with the write, so the request is free to fail without a stored answer.
+                        claim.claimed = status == STATUS_COMMITTED;
+                    }
+                });
+            }
+        } catch (DuplicateKeyException e) {
+            claim.duplicate = true;
+            throw new DuplicateRequestException(claim.key);
+        }
+    }
+
+    /**
+     * Reads a key from the table, for duplicates the in-memory map did not know about.
+     */
+    public Optional<IdempotencyRecord> findDurable(String key) {
+        return jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> new IdempotencyRecord(rs.getString("idempotency_key"),
+                rs.getString("fingerprint"), (Integer) rs.getObject("status"), rs.getString("content_type"),
+                rs.getString("etag"), rs.getString("body"), rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("expires_at", LocalDateTime.class)), key, LocalDateTime.now()).stream().findFirst();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.idempotency.flush-interval-ms:100}")
+    public void flushResponses() {
+        List<PendingResponse> batch = new ArrayList<>();
+        for (PendingResponse response = pendingResponses.poll(); response != null; response = pendingResponses.poll()) {
+            batch.add(response);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(RESPONSE_SQL, batch, batch.size(), (ps, pending) -> {
+                ps.setInt(1, pending.response().status());
+                ps.setString(2, pending.response().contentType());
+                ps.setString(3, pending.response().eTag());
+                ps.setString(4, pending.response().encodedBody());
+                ps.setString(5, pending.key());
+            });
+        } catch (Exception e) {
+            log.error("Error storing {} idempotent responses, retrying on next flush: {}", batch.size(), e.getMessage());
+            pendingResponses.addAll(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushResponses();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.idempotency.purge-interval-ms:3600000}",
+            initialDelayString = "${inventory.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            int purged = jdbcTemplate.update(PURGE_SQL, LocalDateTime.now());
+            if (purged > 0) {
+                log.info("Purged {} expired idempotency keys", purged);
+            }
+        } catch (Exception e) {
+            log.error("Error purging idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A request registered under a key. Duplicates wait on its response.
+     */
+    public record Entry(String fingerprint, CompletableFuture<StoredResponse> response) {
+
+        public static Entry of(String fingerprint) {
+            return new Entry(fingerprint, new CompletableFuture<>());
+        }
+    }
+
+    /**
+     * Tracks whether the request bound to the current thread committed its key, or found it taken.
+     */
+    public static final class Claim {
+        private final String key;
+        private final String fingerprint;
+        private boolean claimed;
+        private boolean duplicate;
+
+        private Claim(String key, String fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+
+        public boolean isClaimed() {
+            return claimed;
+        }
+
+        public boolean isDuplicate() {
+            return duplicate;
+        }
+    }
+
+    /**
+     * Thrown inside the write transaction of a request whose key was already applied.
+     */
+    public static class DuplicateRequestException extends RuntimeException {
+        public DuplicateRequestException(String key) {
+            super("Idempotency key " + key + " was already used");
+        }
+    }
+
+    private record PendingResponse(String key, StoredResponse response) {
+    }
+}
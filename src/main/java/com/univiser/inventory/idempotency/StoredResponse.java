@@ -0,0 +1,48 @@
+package com.univiser.inventory.idempotency;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.InvalidMimeTypeException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The parts of a response replayed for a repeated Idempotency-Key.
+ */
+public record StoredResponse(int status, String contentType, String eTag, byte[] body) {
+
+    /**
+     * Restores a response read from the idempotency_key table.
+     *
+     * @param body the stored body, as written by {@link #encodedBody()}
+     */
+    public static StoredResponse decode(int status, String contentType, String eTag, String body) {
+        if (body == null) {
+            return new StoredResponse(status, contentType, eTag, new byte[0]);
+        }
+        return new StoredResponse(status, contentType, eTag, isText(contentType)
+                ? body.getBytes(StandardCharsets.UTF_8) : Base64.getDecoder().decode(body));
+    }
+
+    /**
+     * The body as kept in the text column of the idempotency_key table: as is for textual content types, Base64
+     * for the binary encodings (Smile, CBOR, protobuf).
+     */
+    public String encodedBody() {
+        return isText(contentType) ? new String(body, StandardCharsets.UTF_8) : Base64.getEncoder().encodeToString(body);
+    }
+
+    private static boolean isText(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            String subtype = mediaType.getSubtype();
+            return "text".equals(mediaType.getType()) || subtype.equals("json") || subtype.endsWith("+json")
+                    || subtype.equals("x-ndjson") || subtype.equals("xml") || subtype.endsWith("+xml");
+        } catch (InvalidMimeTypeException e) {
+            return true;
+        }
+    }
+}
@@ -1,13 +1,34 @@
 package com.univiser.inventory.inventory_management.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.catalog.CatalogFormat;
 import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.dto.ItemSearchCriteria;
+import com.univiser.inventory.domain.dto.StockRequest;
 import com.univiser.inventory.domain.entity.Item;
 import com.univiser.inventory.inventory_management.service.InventoryService;
+import com.univiser.inventory.logging.RequestLogSampler;
+import com.univiser.inventory.util.Constant;
+import com.univiser.inventory.util.LogUtils;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -18,44 +39,201 @@ public class InventoryController {
     @NonNull
     private final InventoryService inventoryService;
 
+    @NonNull
+    private final ObjectMapper objectMapper;
+
+    @NonNull
+    private final RequestLogSampler requestLogSampler;
+
     @PostMapping
     public ResponseEntity<APIResponse> createItem(@RequestBody Item item) {
-        log.info("Creating new inventory item {}", item);
+        log.debug("Creating new inventory item {}", item);
         var response = inventoryService.createItem(item);
-        log.info("Successfully created inventory item {}", item);
+        logCompletion(response, "Created inventory item {}", LogUtils.summary(item));
         return response;
     }
 
     @PutMapping
-    public ResponseEntity<APIResponse> updateItem(@RequestBody Item item) {
-        log.info("Updating inventory item {}", item);
-        var response = inventoryService.updateItem(item);
-        log.info("Successfully updated inventory item {}", item);
+    public ResponseEntity<APIResponse> updateItem(@RequestBody Item item,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("Updating inventory item {}", item);
+        var response = inventoryService.updateItem(item, ifMatch);
+        logCompletion(response, "Updated inventory item {}", LogUtils.summary(item));
         return response;
     }
 
     @DeleteMapping
-    public ResponseEntity<APIResponse> deleteItem(@RequestBody Item item) {
-        log.info("Deleting inventory item {}", item);
-        var response = inventoryService.deleteItem(item);
-        log.info("Successfully deleted inventory item {}", item);
+    public ResponseEntity<APIResponse> deleteItem(@RequestBody Item item,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("Deleting inventory item {}", item);
+        var response = inventoryService.deleteItem(item, ifMatch);
+        logCompletion(response, "Deleted inventory item {}", LogUtils.summary(item));
         return response;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<APIResponse> getItemById(@PathVariable Long id) {
-        log.info("Fetching inventory item by ID {}", id);
-        var response = inventoryService.getItemById(id);
-        log.info("Successfully fetched inventory item by ID {}", id);
+    public ResponseEntity<APIResponse> getItemById(@PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching inventory item by ID {}", id);
+        var response = inventoryService.getItemById(id, ifNoneMatch);
+        logCompletion(response, "Fetched inventory item by ID {}", id);
+        return response;
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<APIResponse> getItemsByIds(@RequestParam List<Long> ids) {
+        log.debug("Fetching inventory items by IDs {}", ids);
+        var response = inventoryService.getItemsByIds(ids);
+        logCompletion(response, "Fetched {} inventory items by ID", ids.size());
+        return response;
+    }
+
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<APIResponse> reserveStock(@PathVariable Long id, @RequestBody StockRequest request) {
+        log.debug("Reserving {} of inventory item {}", request.getQuantity(), id);
+        var response = inventoryService.reserveStock(id, request.getQuantity());
+        logCompletion(response, "Reserved {} of inventory item {}", request.getQuantity(), id);
+        return response;
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<APIResponse> releaseStock(@PathVariable Long id, @RequestBody StockRequest request) {
+        log.debug("Releasing {} of inventory item {}", request.getQuantity(), id);
+        var response = inventoryService.releaseStock(id, request.getQuantity());
+        logCompletion(response, "Released {} of inventory item {}", request.getQuantity(), id);
+        return response;
+    }
+
+    @PostMapping("/{id}/adjust")
+    public ResponseEntity<APIResponse> adjustStock(@PathVariable Long id, @RequestBody StockRequest request) {
+        log.debug("Adjusting inventory item {} by {}", id, request.getQuantity());
+        var response = inventoryService.adjustStock(id, request.getQuantity());
+        logCompletion(response, "Adjusted inventory item {} by {}", id, request.getQuantity());
         return response;
     }
 
     @GetMapping("/fetch-all")
     public ResponseEntity<APIResponse> getAllItems() {
-        log.info("Fetching all inventory items");
+        log.debug("Fetching all inventory items");
         var response = inventoryService.getAllItems();
-        log.info("Successfully fetched all inventory items");
+        logCompletion(response, "Fetched all inventory items");
+        return response;
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<APIResponse> getItemsPage(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "" + Constant.DEFAULT_PAGE_SIZE) int size) {
+        log.debug("Fetching inventory items page after cursor {}", cursor);
+        var response = inventoryService.getItemsPage(cursor, size);
+        logCompletion(response, "Fetched inventory items page after cursor {}", cursor);
+        return response;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<APIResponse> searchItems(@ModelAttribute ItemSearchCriteria criteria) {
+        log.debug("Searching inventory items {}", criteria);
+        var response = inventoryService.searchItems(criteria);
+        logCompletion(response, "Searched inventory items {}", criteria);
+        return response;
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<APIResponse> getChanges(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                                  @RequestParam(defaultValue = "" + Constant.DEFAULT_PAGE_SIZE) int size) {
+        log.debug("Fetching inventory changes after cursor {} since {}", cursor, since);
+        var response = inventoryService.getChanges(cursor, since, size);
+        logCompletion(response, "Fetched inventory changes after cursor {} since {}", cursor, since);
         return response;
     }
 
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToChanges(@RequestParam(required = false) Set<Long> ids) {
+        log.info("Opening inventory event stream for items {}", ids);
+        SseEmitter emitter = inventoryService.subscribeToChanges(ids);
+        if (emitter == null) {
+            log.warn("Rejected inventory event stream, subscriber limit reached");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        log.info("Streaming all inventory items");
+        StreamingResponseBody body = inventoryService::streamAllItems;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<APIResponse> bulkCreateItems(InputStream body) throws IOException {
+        log.debug("Bulk creating inventory items");
+        var response = inventoryService.bulkCreateItems(readItems(body));
+        logCompletion(response, "Finished bulk creating inventory items");
+        return response;
+    }
+
+    @PutMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<APIResponse> bulkUpdateItems(InputStream body) throws IOException {
+        log.debug("Bulk updating inventory items");
+        var response = inventoryService.bulkUpdateItems(readItems(body));
+        logCompletion(response, "Finished bulk updating inventory items");
+        return response;
+    }
+
+    @DeleteMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<APIResponse> bulkDeleteItems(InputStream body) throws IOException {
+        log.debug("Bulk deleting inventory items");
+        var response = inventoryService.bulkDeleteItems(readItems(body));
+        logCompletion(response, "Finished bulk deleting inventory items");
+        return response;
+    }
+
+    @PostMapping(value = "/catalog/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<APIResponse> importCatalog(InputStream body,
+                                                     @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        CatalogFormat format = CatalogFormat.of(contentType);
+        log.info("Importing catalog as {}", format);
+        var response = inventoryService.importCatalog(body, format);
+        logCompletion(response, "Finished importing catalog as {}", format);
+        return response;
+    }
+
+    @GetMapping("/catalog/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestParam(defaultValue = "csv") String format) {
+        CatalogFormat catalogFormat;
+        try {
+            catalogFormat = CatalogFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected catalog export in unknown format {}", format);
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Exporting catalog as {}", catalogFormat);
+        StreamingResponseBody body = outputStream -> inventoryService.exportCatalog(catalogFormat, outputStream);
+        return ResponseEntity.ok().contentType(catalogFormat.mediaType()).body(body);
+    }
+
+    /**
+     * Logs the completion of a request at INFO with its status, if the sampler picks it.
+     */
+    private void logCompletion(ResponseEntity<?> response, String message, Object... args) {
+        if (log.isInfoEnabled() && requestLogSampler.shouldLog(response)) {
+            log.info(message + " with status {}", append(args, response == null ? null : response.getStatusCode().value()));
+        }
+    }
+
+    private static Object[] append(Object[] args, Object last) {
+        Object[] all = Arrays.copyOf(args, args.length + 1);
+        all[args.length] = last;
+        return all;
+    }
+
+    /**
+     * Reads a JSON array or newline-delimited JSON body lazily, one item at a time.
+     */
+    private Iterator<Item> readItems(InputStream body) throws IOException {
+        return objectMapper.readerFor(Item.class).readValues(body);
+    }
+
 }
@@ -1,9 +1,141 @@
 package com.univiser.inventory.inventory_management.repository;
 
 import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.util.Constant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface InventoryRepo extends JpaRepository<Item, Long> {
+public interface InventoryRepo extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item> {
+
+    /**
+     * Fetches the items whose id is strictly greater than the given cursor, ordered by id.
+     *
+     * @param id    the last id seen by the client
+     * @param limit the maximum number of rows to return
+     * @return the next keyset page of items
+     */
+    @Transactional(readOnly = true)
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Fetches the items written before the given bound, in (updatedAt, id) order. Starts a full sync of the
+     * change feed.
+     *
+     * @param until the exclusive upper bound of the update time
+     * @param limit the maximum number of rows to return
+     * @return the first items of the feed, least recently updated first
+     */
+    List<Item> findByUpdatedAtBeforeOrderByUpdatedAtAscIdAsc(LocalDateTime until, Limit limit);
+
+    /**
+     * Fetches the items written after the given position in (updatedAt, id) order, up to an upper bound.
+     * Served by the (updated_at, id) index.
+     *
+     * @param after the update time of the last item seen
+     * @param id    the id of the last item seen
+     * @param until the exclusive upper bound of the update time
+     * @param limit the maximum number of rows to return
+     * @return the next changed items, least recently updated first
+     */
+    @Query("select i from Item i where i.updatedAt >= :after and (i.updatedAt > :after or i.id > :id) "
+            + "and i.updatedAt < :until order by i.updatedAt, i.id")
+    List<Item> findChangedAfter(@Param("after") LocalDateTime after, @Param("id") Long id,
+                                @Param("until") LocalDateTime until, Limit limit);
+
+    /**
+     * Streams every item ordered by id through a server-side cursor.
+     * Must be consumed inside a read-only transaction and closed once done.
+     *
+     * @return a lazily populated stream of items
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Constant.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select i from Item i order by i.id")
+    Stream<Item> streamAllByOrderByIdAsc();
+
+    /**
+     * Reads only the quantity of an item.
+     *
+     * @param id the ID of the item
+     * @return the current quantity, or empty if the item does not exist
+     */
+    @Query("select i.quantity from Item i where i.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
+    /**
+     * Reads only the version of an item, used as its ETag.
+     *
+     * @param id the ID of the item
+     * @return the current version, or empty if the item does not exist
+     */
+    @Query("select i.version from Item i where i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Deletes an item in a single conditional statement, if it still has the given version.
+     *
+     * @param id      the ID of the item
+     * @param version the version the delete is checked against
+     * @return 1 if the item was deleted, 0 if it does not exist or has another version
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Item i where i.id = :id and i.version = :version")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    /**
+     * Takes stock in a single conditional update, without loading the item.
+     *
+     * @param id       the ID of the item
+     * @param quantity the positive quantity to take
+     * @return 1 if the stock was taken, 0 if the item does not exist or has too little stock
+     */
+    @Transactional
+    @Modifying
+    @Query("update Item i set i.quantity = i.quantity - :quantity, i.updatedAt = local datetime, i.version = i.version + 1 "
+            + "where i.id = :id and i.quantity >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Returns stock in a single conditional update, without loading the item.
+     *
+     * @param id       the ID of the item
+     * @param quantity the positive quantity to return
+     * @return 1 if the stock was returned, 0 if the item does not exist or would exceed the maximum quantity
+     */
+    @Transactional
+    @Modifying
+    @Query("update Item i set i.quantity = i.quantity + :quantity, i.updatedAt = local datetime, i.version = i.version + 1 "
+            + "where i.id = :id and i.quantity + :quantity <= " + Constant.MAX_QUANTITY)
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Applies a signed stock correction in a single conditional update, without loading the item.
+     *
+     * @param id    the ID of the item
+     * @param delta the quantity to add, negative to remove
+     * @return 1 if the stock was changed, 0 if the item does not exist or the result would be out of range
+     */
+    @Transactional
+    @Modifying
+    @Query("update Item i set i.quantity = i.quantity + :delta, i.updatedAt = local datetime, i.version = i.version + 1 "
+            + "where i.id = :id and i.quantity + :delta between " + Constant.MIN_QUANTITY + " and " + Constant.MAX_QUANTITY)
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
 }
@@ -0,0 +1,198 @@
+package com.univiser.inventory.inventory_management.repository;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.datasource.ReadRouting;
+import com.univiser.inventory.domain.dto.ItemView;
+import com.univiser.inventory.domain.entity.Item;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Loads single items for concurrent callers with as few queries as possible.
+ * <p>
+ * A lookup of an item that is already queried, or waiting to be, shares that result instead of running its own
+ * query. Lookups of other items join an open batch: the first lookup of a batch runs one query for every item
+ * that joined, after waiting up to {@code inventory.item-loader.window} while other queries are in flight, or at
+ * once when the service is otherwise idle or the batch is full. Waiting callers are completed with the rows of
+ * that query.
+ * <p>
+ * Lookups pinned to the primary by {@link ReadRouting} are batched apart from the others, so they never wait on
+ * a query a replica answers.
+ */
+@Component
+public class ItemBatchLoader {
+
+    private final ItemQueryRepository itemQueryRepository;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Batcher primary = new Batcher();
+    private final Batcher anyDataSource = new Batcher();
+    private final DistributionSummary batchSize;
+    private final Counter shared;
+
+    public ItemBatchLoader(@NonNull ItemQueryRepository itemQueryRepository, @NonNull InventoryProperties properties,
+                           @NonNull MeterRegistry meterRegistry) {
+        this.itemQueryRepository = itemQueryRepository;
+        this.enabled = properties.getItemLoader().isEnabled();
+        this.windowNanos = properties.getItemLoader().getWindow().toNanos();
+        this.maxBatchSize = Math.max(1, properties.getItemLoader().getMaxBatchSize());
+        this.batchSize = DistributionSummary.builder("inventory.item-loader.batch.size")
+                .description("Items fetched per batched lookup query")
+                .register(meterRegistry);
+        this.shared = Counter.builder("inventory.item-loader.shared")
+                .description("Item lookups answered by a query already running or waiting for the same item")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param id the ID of the item
+     * @return the item, or empty if it does not exist
+     */
+    public Optional<ItemView> load(Long id) {
+        if (!enabled) {
+            return itemQueryRepository.findById(id);
+        }
+        return (ReadRouting.isPinnedToPrimary() ? primary : anyDataSource).load(id);
+    }
+
+    /**
+     * {@link #load(Long)} for the cache, which holds entities. Always read from the primary: the cache serves the
+     * row to every client until its TTL, including the writer whose read-your-writes window is still open, so a
+     * row from a lagging replica must never get in.
+     */
+    public Optional<Item> loadItem(Long id) {
+        return ReadRouting.onPrimary(() -> load(id)).map(ItemBatchLoader::toItem);
+    }
+
+    /**
+     * Fetches many items with one query, for callers that know every ID up front. Like {@link #loadItem(Long)},
+     * it reads from the primary, as the result is cached.
+     *
+     * @param ids the IDs of the items
+     * @return the items that exist, by ID
+     */
+    public Map<Long, Item> loadItems(Collection<Long> ids) {
+        Map<Long, Item> items = new HashMap<>();
+        for (ItemView view : ReadRouting.onPrimary(() -> itemQueryRepository.findAllById(ids))) {
+            items.put(view.id(), toItem(view));
+        }
+        return items;
+    }
+
+    private static Item toItem(ItemView view) {
+        return new Item(view.id(), view.name(), view.description(), view.quantity(), view.price(), view.createdAt(),
+                view.updatedAt(), view.version());
+    }
+
+    private final class Batcher {
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * Items queried right now, by ID.
+         */
+        private final Map<Long, CompletableFuture<Optional<ItemView>>> inFlight = new HashMap<>();
+        /**
+         * The batch waiting for its query, or null.
+         */
+        private Map<Long, CompletableFuture<Optional<ItemView>>> open;
+
+        Optional<ItemView> load(Long id) {
+            CompletableFuture<Optional<ItemView>> result;
+            Map<Long, CompletableFuture<Optional<ItemView>>> batch = null;
+            boolean wait = false;
+            lock.lock();
+            try {
+                result = inFlight.get(id);
+                if (result == null && open != null) {
+                    result = open.get(id);
+                }
+                if (result != null) {
+                    shared.increment();
+                } else {
+                    result = new CompletableFuture<>();
+                    if (open == null) {
+                        open = new LinkedHashMap<>();
+                        batch = open;
+                        wait = windowNanos > 0 && !inFlight.isEmpty();
+                    }
+                    open.put(id, result);
+                    if (open.size() >= maxBatchSize) {
+                        // Full: whoever filled it runs it, the first caller finds it gone after its wait.
+                        batch = open;
+                        wait = false;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (batch != null) {
+                if (wait) {
+                    long deadline = System.nanoTime() + windowNanos;
+                    for (long left = windowNanos; left > 0; left = deadline - System.nanoTime()) {
+                        LockSupport.parkNanos(left);
+                    }
+                }
+                if (take(batch)) {
+                    run(batch);
+                }
+            }
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        /**
+         * Closes the batch and marks its items in flight, unless another caller already did.
+         */
+        private boolean take(Map<Long, CompletableFuture<Optional<ItemView>>> batch) {
+            lock.lock();
+            try {
+                if (open != batch) {
+                    return false;
+                }
+                open = null;
+                inFlight.putAll(batch);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void run(Map<Long, CompletableFuture<Optional<ItemView>>> batch) {
+            try {
+                Map<Long, ItemView> found = new HashMap<>();
+                for (ItemView view : batch.size() == 1
+                        ? itemQueryRepository.findById(batch.keySet().iterator().next()).stream().toList()
+                        : itemQueryRepository.findAllById(batch.keySet())) {
+                    found.put(view.id(), view);
+                }
+                batchSize.record(batch.size());
+                batch.forEach((id, result) -> result.complete(Optional.ofNullable(found.get(id))));
+            } catch (RuntimeException e) {
+                batch.values().forEach(result -> result.completeExceptionally(e));
+            } finally {
+                lock.lock();
+                try {
+                    batch.forEach(inFlight::remove);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.univiser.inventory.inventory_management.repository;
+
+import com.univiser.inventory.domain.dto.ItemSearchCriteria;
+import com.univiser.inventory.domain.dto.ItemSearchCursor;
+import com.univiser.inventory.domain.dto.ItemView;
+import com.univiser.inventory.domain.enums.ItemSortField;
+import com.univiser.inventory.util.Constant;
+import lombok.NonNull;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Read-only queries on items through plain JDBC: rows are mapped straight to {@link ItemView} records, with no
+ * persistence context, entity snapshots or dirty checking. Serves the read endpoints whose path is set to
+ * JDBC under inventory.read-path; the searches mirror {@link ItemSpecifications} and use the same indexes.
+ */
+@Repository
+public class ItemQueryRepository {
+
+    static final String COLUMNS = "id, name, description, quantity, price, created_at, updated_at, version";
+
+    static final RowMapper<ItemView> ROW_MAPPER = (rs, rowNum) -> new ItemView(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getInt(4),
+            rs.getBigDecimal(5),
+            rs.getObject(6, LocalDateTime.class),
+            rs.getObject(7, LocalDateTime.class),
+            rs.getLong(8));
+
+    private static final String SELECT = "select " + COLUMNS + " from item";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String ftsMatch;
+
+    public ItemQueryRepository(@NonNull JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param id the ID of the item
+     * @return the item, or empty if it does not exist
+     */
+    public Optional<ItemView> findById(Long id) {
+        return jdbcTemplate.query(readOnly(SELECT + " where id = ?", id), ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Fetches many items with one query, whatever their number.
+     *
+     * @param ids the IDs of the items
+     * @return the items that exist, in no particular order
+     */
+    public List<ItemView> findAllById(Collection<Long> ids) {
+        return jdbcTemplate.query(readOnly(SELECT + " where id = any(?)", (Object) ids.toArray(Long[]::new)), ROW_MAPPER);
+    }
+
+    /**
+     * Fetches the items whose id is strictly greater than the given cursor, ordered by id.
+     *
+     * @param afterId the last id seen by the client
+     * @param limit   the maximum number of rows to return
+     * @return the next keyset page of items
+     */
+    public List<ItemView> findPage(long afterId, int limit) {
+        return jdbcTemplate.query(readOnly(SELECT + " where id > ? order by id fetch first ? rows only", afterId, limit),
+                ROW_MAPPER);
+    }
+
+    /**
+     * Searches items with the filters of the criteria, in (sort field, id) order.
+     *
+     * @param criteria  the search parameters
+     * @param sort      the field to order by
+     * @param direction the direction of the order
+     * @param cursor    the position of the last item already returned, or null for the first page
+     * @param limit     the maximum number of rows to return
+     * @return the matching items
+     */
+    public List<ItemView> search(ItemSearchCriteria criteria, ItemSortField sort, Sort.Direction direction,
+                                 ItemSearchCursor cursor, int limit) {
+        List<String> predicates = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (hasText(criteria.getQ())) {
+            predicates.add(ftsMatch());
+            args.add(criteria.getQ().trim());
+        }
+        if (hasText(criteria.getNamePrefix())) {
+            predicates.add("lower(name) like ? escape '\\'");
+            args.add(ItemSpecifications.escapeLike(criteria.getNamePrefix().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        between(predicates, args, "price", criteria.getMinPrice(), criteria.getMaxPrice(), true);
+        between(predicates, args, "quantity", criteria.getMinQuantity(), criteria.getMaxQuantity(), true);
+        between(predicates, args, "created_at", criteria.getCreatedFrom(), criteria.getCreatedTo(), false);
+        between(predicates, args, "updated_at", criteria.getUpdatedFrom(), criteria.getUpdatedTo(), false);
+        String order = direction == Sort.Direction.ASC ? "asc" : "desc";
+        if (cursor != null) {
+            // Same shape as ItemSpecifications.after, so the leading column bounds the index range.
+            String after = direction == Sort.Direction.ASC ? ">" : "<";
+            if (sort == ItemSortField.ID) {
+                predicates.add("id " + after + " ?");
+                args.add(cursor.id());
+            } else {
+                predicates.add(sort.column() + " " + after + "= ? and (" + sort.column() + " " + after + " ? or id " + after + " ?)");
+                args.add(cursor.value());
+                args.add(cursor.value());
+                args.add(cursor.id());
+            }
+        }
+        StringBuilder sql = new StringBuilder(SELECT);
+        if (!predicates.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", predicates));
+        }
+        sql.append(" order by ");
+        if (sort != ItemSortField.ID) {
+            sql.append(sort.column()).append(' ').append(order).append(", ");
+        }
+        sql.append("id ").append(order).append(" fetch first ? rows only");
+        args.add(limit);
+        return jdbcTemplate.query(readOnly(sql.toString(), args.toArray()), ROW_MAPPER);
+    }
+
+    /**
+     * Hands every item row, ordered by id, to the handler while the rows are fetched from a server-side cursor.
+     *
+     * @param handler reads the current row of the result set
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(SELECT + " order by id");
+            statement.setFetchSize(Integer.parseInt(Constant.STREAM_FETCH_SIZE));
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Prepares a query on a connection marked read-only before its first statement, so that a configured
+     * replica serves it without the cost of a transaction. Inside a transaction the connection is left alone.
+     */
+    private static PreparedStatementCreator readOnly(String sql, Object... args) {
+        return con -> {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                con.setReadOnly(true);
+            }
+            PreparedStatement statement = con.prepareStatement(sql);
+            new ArgumentPreparedStatementSetter(args).setValues(statement);
+            return statement;
+        };
+    }
+
+    /**
+     * The full-text predicate registered with Hibernate by {@link SearchFunctionContributor}, in SQL.
+     */
+    private String ftsMatch() {
+        String match = ftsMatch;
+        if (match == null) {
+            Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) con ->
+                    "PostgreSQL".equals(con.getMetaData().getDatabaseProductName()));
+            String pattern = Boolean.TRUE.equals(postgres)
+                    ? SearchFunctionContributor.POSTGRESQL_PATTERN : SearchFunctionContributor.FALLBACK_PATTERN;
+            match = pattern.replace("?1", "name").replace("?2", "description").replace("?3", "?");
+            ftsMatch = match;
+        }
+        return match;
+    }
+
+    private static void between(List<String> predicates, List<Object> args, String column, Object from, Object to,
+                                boolean inclusiveUpperBound) {
+        if (from != null) {
+            predicates.add(column + " >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            predicates.add(column + (inclusiveUpperBound ? " <= ?" : " < ?"));
+            args.add(to);
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,121 @@
+package com.univiser.inventory.inventory_management.repository;
+
+import com.univiser.inventory.domain.dto.ItemSearchCriteria;
+import com.univiser.inventory.domain.dto.ItemSearchCursor;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.enums.ItemSortField;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search predicates on items. Each one is written in the form the indexes of V3__create_item_search_indexes
+ * can serve, so searches stay index scans on large catalogs.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ItemSpecifications {
+
+    /**
+     * Name of the full-text function registered by {@link SearchFunctionContributor}.
+     */
+    static final String FTS_MATCH = "fts_match";
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * Combines every filter set in the criteria.
+     *
+     * @param criteria the search parameters
+     * @return a specification matching the items that satisfy all filters
+     */
+    public static Specification<Item> matching(ItemSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (hasText(criteria.getQ())) {
+                predicates.add(cb.isTrue(cb.function(FTS_MATCH, Boolean.class,
+                        root.get("name"), root.get("description"), cb.literal(criteria.getQ().trim()))));
+            }
+            if (hasText(criteria.getNamePrefix())) {
+                // Served by the lower(name) text_pattern_ops index. The escape character is explicit because
+                // Hibernate otherwise renders escape '', which turns backslash escaping off.
+                String prefix = escapeLike(criteria.getNamePrefix().trim().toLowerCase(Locale.ROOT));
+                predicates.add(cb.like(cb.lower(root.get("name")), prefix + "%", LIKE_ESCAPE));
+            }
+            between(predicates, cb, root.get("price"), criteria.getMinPrice(), criteria.getMaxPrice(), true);
+            between(predicates, cb, root.get("quantity"), criteria.getMinQuantity(), criteria.getMaxQuantity(), true);
+            between(predicates, cb, root.get("createdAt"), criteria.getCreatedFrom(), criteria.getCreatedTo(), false);
+            between(predicates, cb, root.get("updatedAt"), criteria.getUpdatedFrom(), criteria.getUpdatedTo(), false);
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Restricts the results to the items after the cursor in (sort field, id) order.
+     * Written as {@code field >= value and (field > value or id > lastId)} so the leading column bounds the
+     * index range; the descending form mirrors it.
+     *
+     * @param cursor the position of the last item already returned
+     * @return a specification matching the items of the following pages
+     */
+    public static Specification<Item> after(ItemSearchCursor cursor) {
+        return (root, query, cb) -> {
+            boolean ascending = cursor.direction() == Sort.Direction.ASC;
+            Path<Long> id = root.get("id");
+            Predicate afterId = ascending ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+            if (cursor.sort() == ItemSortField.ID) {
+                return afterId;
+            }
+            Path<Comparable<Object>> field = root.get(cursor.sort().property());
+            Comparable<Object> value = comparable(cursor.value());
+            if (ascending) {
+                return cb.and(cb.greaterThanOrEqualTo(field, value), cb.or(cb.greaterThan(field, value), afterId));
+            }
+            return cb.and(cb.lessThanOrEqualTo(field, value), cb.or(cb.lessThan(field, value), afterId));
+        };
+    }
+
+    /**
+     * The order of search results; id breaks ties so the cursor identifies a single position.
+     */
+    public static Sort order(ItemSortField sort, Sort.Direction direction) {
+        if (sort == ItemSortField.ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, sort.property(), "id");
+    }
+
+    static String escapeLike(String value) {
+        String escape = String.valueOf(LIKE_ESCAPE);
+        return value.replace(escape, escape + escape).replace("%", escape + "%").replace("_", escape + "_");
+    }
+
+    private static <T extends Comparable<? super T>> void between(List<Predicate> predicates, CriteriaBuilder cb,
+                                                                  Expression<T> field, T from, T to,
+                                                                  boolean inclusiveUpperBound) {
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(field, from));
+        }
+        if (to != null) {
+            predicates.add(inclusiveUpperBound ? cb.lessThanOrEqualTo(field, to) : cb.lessThan(field, to));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> comparable(Comparable<?> value) {
+        return (Comparable<Object>) value;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
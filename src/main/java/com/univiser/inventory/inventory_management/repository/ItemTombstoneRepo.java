@@ -0,0 +1,42 @@
+package com.univiser.inventory.inventory_management.repository;
+
+import com.univiser.inventory.domain.entity.ItemTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ItemTombstoneRepo extends JpaRepository<ItemTombstone, Long> {
+
+    /**
+     * Fetches the tombstones after the given position in (deletedAt, itemId) order, up to an upper bound.
+     *
+     * @param after  the deletion time of the last tombstone seen
+     * @param itemId the item id of the last tombstone seen
+     * @param until  the exclusive upper bound of the deletion time
+     * @param limit  the maximum number of rows to return
+     * @return the next tombstones, oldest first
+     */
+    @Query("select t from ItemTombstone t where t.deletedAt >= :after and (t.deletedAt > :after or t.itemId > :itemId) "
+            + "and t.deletedAt < :until order by t.deletedAt, t.itemId")
+    List<ItemTombstone> findDeletedAfter(@Param("after") LocalDateTime after, @Param("itemId") Long itemId,
+                                         @Param("until") LocalDateTime until, Limit limit);
+
+    /**
+     * Drops the tombstones older than the retention period.
+     *
+     * @param cutoff the deletion time before which tombstones are dropped
+     * @return the number of tombstones dropped
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ItemTombstone t where t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,30 @@
+package com.univiser.inventory.inventory_management.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers {@code fts_match(name, description, query)} with Hibernate, picked up through
+ * META-INF/services. On PostgreSQL it renders the expression of the item_search_text_idx GIN index so the
+ * planner can use it; other databases, such as the H2 used by tests, get a case-insensitive substring match.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    static final String POSTGRESQL_PATTERN = "(to_tsvector('simple', coalesce(?1, '') || ' ' || coalesce(?2, ''))"
+            + " @@ plainto_tsquery('simple', ?3))";
+
+    static final String FALLBACK_PATTERN = "(lower(coalesce(?1, '') || ' ' || coalesce(?2, '')) like ('%' || lower(?3) || '%'))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect ? POSTGRESQL_PATTERN : FALLBACK_PATTERN;
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder(ItemSpecifications.FTS_MATCH, pattern)
+                .setExactArgumentCount(3)
+                .setInvariantType(functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.BOOLEAN))
+                .register();
+    }
+}
@@ -1,8 +1,19 @@
 package com.univiser.inventory.inventory_management.service;
 
+import com.univiser.inventory.catalog.CatalogFormat;
 import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.dto.ItemSearchCriteria;
 import com.univiser.inventory.domain.entity.Item;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 public interface InventoryService {
 
@@ -15,33 +26,168 @@ public interface InventoryService {
     ResponseEntity<APIResponse> createItem(Item item);
 
     /**
-     * Updates an existing item in the inventory.
+     * Updates an existing item in the inventory, failing if it was changed since the client read it.
      *
-     * @param item The item with updated details.
-     * @return A ResponseEntity containing an APIResponse with the result of the operation.
+     * @param item    The item with updated details.
+     * @param ifMatch The If-Match header naming the version the update is based on, or null.
+     * @return A ResponseEntity containing an APIResponse with the result of the operation, 412 if the If-Match
+     * version is stale or 409 if the version in the body is stale.
      */
-    ResponseEntity<APIResponse> updateItem(Item item);
+    ResponseEntity<APIResponse> updateItem(Item item, String ifMatch);
 
     /**
-     * Deletes an item from the inventory.
+     * Deletes an item from the inventory, failing if it was changed since the client read it.
      *
-     * @param item The item to be deleted.
-     * @return A ResponseEntity containing an APIResponse with the result of the operation.
+     * @param item    The item to be deleted.
+     * @param ifMatch The If-Match header naming the version the delete is based on, or null.
+     * @return A ResponseEntity containing an APIResponse with the result of the operation, 412 if the If-Match
+     * version is stale or 409 if the version in the body is stale.
+     */
+    ResponseEntity<APIResponse> deleteItem(Item item, String ifMatch);
+
+    /**
+     * Retrieves an item from the inventory by its ID, with its version as ETag.
+     *
+     * @param id          The ID of the item to retrieve.
+     * @param ifNoneMatch The If-None-Match header sent by the client, or null.
+     * @return A ResponseEntity containing an APIResponse with the item details, or an empty 304 if the client
+     * copy is current.
      */
-    ResponseEntity<APIResponse> deleteItem(Item item);
+    ResponseEntity<APIResponse> getItemById(Long id, String ifNoneMatch);
 
     /**
-     * Retrieves an item from the inventory by its ID.
+     * Retrieves many items by their IDs, from the cache where possible and with one query for the rest.
      *
-     * @param id The ID of the item to retrieve.
-     * @return A ResponseEntity containing an APIResponse with the item details.
+     * @param ids The IDs of the items, at most {@link com.univiser.inventory.util.Constant#MAX_PAGE_SIZE}.
+     * @return A ResponseEntity containing an APIResponse with the items that exist, in the order of the first
+     * occurrence of their ID.
      */
-    ResponseEntity<APIResponse> getItemById(Long id);
+    ResponseEntity<APIResponse> getItemsByIds(List<Long> ids);
 
     /**
      * Retrieves all items from the inventory.
+     * Loads the whole table into memory; prefer {@link #getItemsPage(String, int)} or
+     * {@link #streamAllItems(OutputStream)} for large catalogs.
      *
      * @return A ResponseEntity containing an APIResponse with the list of all items.
      */
     ResponseEntity<APIResponse> getAllItems();
+
+    /**
+     * Retrieves one keyset page of items ordered by ID.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The maximum number of items to return.
+     * @return A ResponseEntity containing an APIResponse with the page and the cursor of the next page.
+     */
+    ResponseEntity<APIResponse> getItemsPage(String cursor, int size);
+
+    /**
+     * Searches items by text, name prefix, price and quantity ranges and time windows, returning one keyset
+     * page in the requested order.
+     *
+     * @param criteria The filters, sort and cursor of the search.
+     * @return A ResponseEntity containing an APIResponse with the page and the cursor of the next page, or 400
+     * if the sort or cursor is invalid.
+     */
+    ResponseEntity<APIResponse> searchItems(ItemSearchCriteria criteria);
+
+    /**
+     * Retrieves the items created or updated and the items deleted since a watermark, so mirrors can sync
+     * incrementally instead of fetching the whole catalog.
+     *
+     * @param cursor The cursor returned with the previous page, or null to start from {@code since}.
+     * @param since  The time to start from when there is no cursor, or null for a full sync.
+     * @param size   The maximum number of changed items, and of deleted items, to return.
+     * @return A ResponseEntity containing an APIResponse with the changes and the cursor of the next poll, or
+     * 410 if the deletes since the cursor are no longer tracked.
+     */
+    ResponseEntity<APIResponse> getChanges(String cursor, LocalDateTime since, int size);
+
+    /**
+     * Opens a server-sent event stream of committed item changes: created, updated, deleted and stock changes.
+     *
+     * @param itemIds The items to receive changes of, or null or empty for every item.
+     * @return The emitter streaming the changes, or null if no more streams can be opened.
+     */
+    SseEmitter subscribeToChanges(Set<Long> itemIds);
+
+    /**
+     * Writes every item to the given stream as newline-delimited JSON, ordered by ID.
+     * Rows are read through a database cursor so memory use does not grow with the table.
+     *
+     * @param outputStream The stream to write the items to.
+     * @throws IOException If writing to the stream fails.
+     */
+    void streamAllItems(OutputStream outputStream) throws IOException;
+
+    /**
+     * Creates many items using batched inserts, committing in chunks.
+     *
+     * @param items The items to be created, consumed lazily.
+     * @return A ResponseEntity containing an APIResponse with a result per item.
+     */
+    ResponseEntity<APIResponse> bulkCreateItems(Iterator<Item> items);
+
+    /**
+     * Updates many existing items using batched updates, committing in chunks.
+     *
+     * @param items The items with updated details, consumed lazily.
+     * @return A ResponseEntity containing an APIResponse with a result per item.
+     */
+    ResponseEntity<APIResponse> bulkUpdateItems(Iterator<Item> items);
+
+    /**
+     * Deletes many items using batched deletes, committing in chunks.
+     *
+     * @param items The items to be deleted, only their IDs are used.
+     * @return A ResponseEntity containing an APIResponse with a result per item.
+     */
+    ResponseEntity<APIResponse> bulkDeleteItems(Iterator<Item> items);
+
+    /**
+     * Imports a catalog file through a staging table: records with an ID update that item, the others are created.
+     * Invalid records are skipped and written to an error file.
+     *
+     * @param input  The catalog file, read as a stream.
+     * @param format The encoding of the file.
+     * @return A ResponseEntity containing an APIResponse with the import summary.
+     */
+    ResponseEntity<APIResponse> importCatalog(InputStream input, CatalogFormat format);
+
+    /**
+     * Writes every item to the given stream as a catalog file, ordered by ID, encoded by the database.
+     *
+     * @param format       The encoding to write.
+     * @param outputStream The stream to write the catalog to.
+     * @throws IOException If reading the items or writing to the stream fails.
+     */
+    void exportCatalog(CatalogFormat format, OutputStream outputStream) throws IOException;
+
+    /**
+     * Takes stock from an item with a single conditional update.
+     *
+     * @param id       The ID of the item.
+     * @param quantity The positive quantity to take.
+     * @return A ResponseEntity containing an APIResponse with the applied change, or a conflict if stock is insufficient.
+     */
+    ResponseEntity<APIResponse> reserveStock(Long id, int quantity);
+
+    /**
+     * Returns previously reserved stock to an item with a single conditional update.
+     *
+     * @param id       The ID of the item.
+     * @param quantity The positive quantity to return.
+     * @return A ResponseEntity containing an APIResponse with the applied change, or a conflict if the maximum would be exceeded.
+     */
+    ResponseEntity<APIResponse> releaseStock(Long id, int quantity);
+
+    /**
+     * Applies a signed stock correction to an item with a single conditional update.
+     *
+     * @param id    The ID of the item.
+     * @param delta The quantity to add, negative to remove.
+     * @return A ResponseEntity containing an APIResponse with the applied change, or a conflict if the result is out of range.
+     */
+    ResponseEntity<APIResponse> adjustStock(Long id, int delta);
 }
@@ -1,17 +1,75 @@
 package com.univiser.inventory.inventory_management.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.univiser.inventory.cache.ItemCache;
+import com.univiser.inventory.catalog.CatalogExporter;
+import com.univiser.inventory.catalog.CatalogFormat;
+import com.univiser.inventory.catalog.CatalogImporter;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.config.InventoryProperties.ReadPathType;
 import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.dto.BulkResult;
+import com.univiser.inventory.domain.dto.CatalogImportResult;
+import com.univiser.inventory.domain.dto.ChangeFeed;
+import com.univiser.inventory.domain.dto.ChangeFeedCursor;
+import com.univiser.inventory.domain.dto.CursorPage;
+import com.univiser.inventory.domain.dto.ItemSearchCriteria;
+import com.univiser.inventory.domain.dto.ItemSearchCursor;
+import com.univiser.inventory.domain.dto.ItemView;
+import com.univiser.inventory.domain.dto.StockChange;
 import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.entity.ItemTombstone;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import com.univiser.inventory.events.InventoryEventBroadcaster;
+import com.univiser.inventory.domain.enums.ItemSortField;
 import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import com.univiser.inventory.inventory_management.repository.ItemBatchLoader;
+import com.univiser.inventory.inventory_management.repository.ItemQueryRepository;
+import com.univiser.inventory.inventory_management.repository.ItemTombstoneRepo;
+import com.univiser.inventory.inventory_management.repository.ItemSpecifications;
 import com.univiser.inventory.inventory_management.service.InventoryService;
+import com.univiser.inventory.limit.OverloadSignals;
+import com.univiser.inventory.stock.StockWriteCoalescer;
+import com.univiser.inventory.util.Constant;
+import com.univiser.inventory.util.ETagUtils;
 import com.univiser.inventory.util.ResponseUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolationException;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -23,66 +81,641 @@ public class InventoryServiceImpl implements InventoryService {
     @NonNull
     private final ResponseUtil responseUtil;
 
-    public InventoryServiceImpl(@NonNull InventoryRepo inventoryRepo, @NonNull ResponseUtil responseUtil) {
+    @NonNull
+    private final EntityManager entityManager;
+
+    @NonNull
+    private final ItemBulkWriter itemBulkWriter;
+
+    @NonNull
+    private final ItemCache itemCache;
+
+    @NonNull
+    private final ObjectWriter itemWriter;
+
+    @NonNull
+    private final ItemTombstoneRepo itemTombstoneRepo;
+
+    @NonNull
+    private final TransactionTemplate transactionTemplate;
+
+    @NonNull
+    private final InventoryProperties properties;
+
+    @NonNull
+    private final ApplicationEventPublisher eventPublisher;
+
+    @NonNull
+    private final InventoryEventBroadcaster eventBroadcaster;
+
+    @NonNull
+    private final ItemQueryRepository itemQueryRepository;
+
+    @NonNull
+    private final ItemBatchLoader itemBatchLoader;
+
+    @NonNull
+    private final CatalogImporter catalogImporter;
+
+    @NonNull
+    private final CatalogExporter catalogExporter;
+
+    /**
+     * Present only when inventory.stock.coalescing.enabled is true.
+     */
+    private final StockWriteCoalescer stockWriteCoalescer;
+
+    public InventoryServiceImpl(@NonNull InventoryRepo inventoryRepo, @NonNull ResponseUtil responseUtil,
+                                @NonNull EntityManager entityManager, @NonNull ItemBulkWriter itemBulkWriter,
+                                @NonNull ItemCache itemCache, @NonNull ObjectMapper objectMapper,
+                                @NonNull ObjectProvider<StockWriteCoalescer> stockWriteCoalescer,
+                                @NonNull ItemTombstoneRepo itemTombstoneRepo, @NonNull TransactionTemplate transactionTemplate,
+                                @NonNull InventoryProperties properties, @NonNull ApplicationEventPublisher eventPublisher,
+                                @NonNull InventoryEventBroadcaster eventBroadcaster,
+                                @NonNull ItemQueryRepository itemQueryRepository, @NonNull ItemBatchLoader itemBatchLoader,
+                                @NonNull CatalogImporter catalogImporter, @NonNull CatalogExporter catalogExporter) {
         this.inventoryRepo = inventoryRepo;
         this.responseUtil = responseUtil;
+        this.entityManager = entityManager;
+        this.itemBulkWriter = itemBulkWriter;
+        this.itemCache = itemCache;
+        this.itemWriter = objectMapper.writerFor(Item.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.stockWriteCoalescer = stockWriteCoalescer.getIfAvailable();
+        this.itemTombstoneRepo = itemTombstoneRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.eventBroadcaster = eventBroadcaster;
+        this.itemQueryRepository = itemQueryRepository;
+        this.itemBatchLoader = itemBatchLoader;
+        this.catalogImporter = catalogImporter;
+        this.catalogExporter = catalogExporter;
     }
 
     @Override
     public ResponseEntity<APIResponse> createItem(Item item) {
         try {
-            Item save = inventoryRepo.save(item);
-            log.info("Item created: {}", save);
-            return responseUtil.wrapSuccess(save, HttpStatus.CREATED);
+            Item save = saveAndPublish(item, InventoryChangeEvent::created);
+            itemCache.put(save);
+            log.debug("Item created: {}", save);
+            return withETag(responseUtil.wrapSuccess(save, HttpStatus.CREATED), save);
         } catch (Exception e) {
             log.error("Error creating item: {}", e.getMessage());
-            return responseUtil.wrapError("Error creating Item!", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            return failure("Error creating Item!", e);
         }
     }
 
     @Override
-    public ResponseEntity<APIResponse> updateItem(Item item) {
+    public ResponseEntity<APIResponse> updateItem(Item item, String ifMatch) {
         try {
-            Item save = inventoryRepo.save(item);
-            log.info("Item updated: {}", save);
-            return responseUtil.wrapSuccess(save, HttpStatus.OK);
+            ResponseEntity<APIResponse> rejected = resolveVersion(item, ifMatch);
+            if (rejected != null) {
+                return rejected;
+            }
+            Item save = saveAndPublish(item, InventoryChangeEvent::updated);
+            itemCache.put(save);
+            evictPendingStock(save.getId());
+            log.debug("Item updated: {}", save);
+            return withETag(responseUtil.wrapSuccess(save, HttpStatus.OK), save);
+        } catch (OptimisticLockingFailureException e) {
+            log.error("Conflict updating item {}: {}", item.getId(), e.getMessage());
+            return versionConflict(ifMatch, e);
         } catch (Exception e) {
             log.error("Error updating item: {}", e.getMessage());
-            return responseUtil.wrapError("Error updating item!", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            return failure("Error updating item!", e);
         }
     }
 
     @Override
-    public ResponseEntity<APIResponse> deleteItem(Item item) {
+    public ResponseEntity<APIResponse> deleteItem(Item item, String ifMatch) {
+        if (item.getId() == null) {
+            return responseUtil.wrapError("Invalid item!", "Item ID is required", HttpStatus.BAD_REQUEST);
+        }
         try {
-            inventoryRepo.delete(item);
-            log.info("Item deleted: {}", item);
+            ResponseEntity<APIResponse> rejected = resolveVersion(item, ifMatch);
+            if (rejected != null) {
+                return rejected;
+            }
+            // The tombstone and the outbox event commit with the delete, so neither can be missed, and are only
+            // written when the conditional delete removed the row.
+            Integer deleted = transactionTemplate.execute(status -> {
+                int count = inventoryRepo.deleteByIdAndVersion(item.getId(), item.getVersion());
+                if (count > 0) {
+                    itemTombstoneRepo.save(new ItemTombstone(item.getId(), LocalDateTime.now()));
+                    eventPublisher.publishEvent(InventoryChangeEvent.deleted(item.getId()));
+                }
+                return count;
+            });
+            if (deleted == null || deleted == 0) {
+                return deleteRefused(item, ifMatch);
+            }
+            itemCache.evict(item.getId());
+            evictPendingStock(item.getId());
+            log.debug("Item deleted: {}", item);
             return responseUtil.wrapSuccess(item, HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            log.error("Conflict deleting item {}: {}", item.getId(), e.getMessage());
+            return versionConflict(ifMatch, e);
         } catch (Exception e) {
             log.error("Error deleting item: {}", e.getMessage());
-            return responseUtil.wrapError("Error deleting item!", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            return failure("Error deleting item!", e);
         }
     }
 
     @Override
-    public ResponseEntity<APIResponse> getItemById(Long id) {
+    public ResponseEntity<APIResponse> getItemById(Long id, String ifNoneMatch) {
+        if (properties.getReadPath().getItem() == ReadPathType.JDBC) {
+            return getItemViewById(id, ifNoneMatch);
+        }
         try {
-            Item item = inventoryRepo.findById(id).orElse(null);
-            return responseUtil.wrapSuccess(item, HttpStatus.OK);
+            Item item = itemCache.get(id, itemBatchLoader::loadItem).orElse(null);
+            if (item != null && ETagUtils.matches(ifNoneMatch, item.getVersion())) {
+                // The client copy is current: skip serializing and sending the item again.
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETagUtils.of(item.getVersion())).build();
+            }
+            return withETag(responseUtil.wrapSuccess(item, HttpStatus.OK), item);
+        } catch (Exception e) {
+            log.error("Error getting item: {}", e.getMessage());
+            return failure("Error getting item!", e);
+        }
+    }
+
+    /**
+     * JDBC path of {@link #getItemById}. Goes to the database on every call instead of the item cache.
+     */
+    private ResponseEntity<APIResponse> getItemViewById(Long id, String ifNoneMatch) {
+        try {
+            ItemView item = itemBatchLoader.load(id).orElse(null);
+            Long version = item == null ? null : item.version();
+            if (version != null && ETagUtils.matches(ifNoneMatch, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETagUtils.of(version)).build();
+            }
+            return withETag(responseUtil.wrapSuccess(item, HttpStatus.OK), version);
         } catch (Exception e) {
             log.error("Error getting item: {}", e.getMessage());
-            return responseUtil.wrapError("Error getting item!", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            return failure("Error getting item!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> getItemsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > Constant.MAX_PAGE_SIZE || ids.stream().anyMatch(Objects::isNull)) {
+            return responseUtil.wrapError("Invalid IDs!", "Between 1 and " + Constant.MAX_PAGE_SIZE + " IDs are required",
+                    HttpStatus.BAD_REQUEST);
+        }
+        try {
+            Set<Long> distinct = new LinkedHashSet<>(ids);
+            if (properties.getReadPath().getItem() == ReadPathType.JDBC) {
+                Map<Long, ItemView> found = itemQueryRepository.findAllById(distinct).stream()
+                        .collect(Collectors.toMap(ItemView::id, Function.identity()));
+                return responseUtil.wrapSuccess(distinct.stream().map(found::get).filter(Objects::nonNull).toList(), HttpStatus.OK);
+            }
+            Map<Long, Item> found = itemCache.getAll(distinct, itemBatchLoader::loadItems);
+            return responseUtil.wrapSuccess(distinct.stream().map(found::get).filter(Objects::nonNull).toList(), HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error getting items by ID: {}", e.getMessage());
+            return failure("Error getting items!", e);
         }
     }
 
     @Override
     public ResponseEntity<APIResponse> getAllItems() {
+        if (properties.getReadPath().getList() == ReadPathType.JDBC) {
+            // Runs while the response is written, so failures past this point end the response early.
+            return responseUtil.wrapSuccess(new StreamedItems(itemQueryRepository), HttpStatus.OK);
+        }
         try {
             List<Item> items = inventoryRepo.findAll();
             return responseUtil.wrapSuccess(items, HttpStatus.OK);
         } catch (Exception e) {
             log.error("Error getting items: {}", e.getMessage());
-            return responseUtil.wrapError("Error getting items!", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            return failure("Error getting items!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> getItemsPage(String cursor, int size) {
+        long afterId;
+        try {
+            afterId = cursor == null || cursor.isBlank() ? 0L : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            return responseUtil.wrapError("Invalid cursor!", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            int pageSize = Math.min(Math.max(size, 1), Constant.MAX_PAGE_SIZE);
+            if (properties.getReadPath().getPage() == ReadPathType.JDBC) {
+                List<ItemView> items = itemQueryRepository.findPage(afterId, pageSize + 1);
+                String nextCursor = null;
+                if (items.size() > pageSize) {
+                    items = items.subList(0, pageSize);
+                    nextCursor = String.valueOf(items.get(pageSize - 1).id());
+                }
+                return responseUtil.wrapSuccess(new CursorPage<>(items, nextCursor), HttpStatus.OK);
+            }
+            List<Item> items = inventoryRepo.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+            String nextCursor = null;
+            if (items.size() > pageSize) {
+                items = items.subList(0, pageSize);
+                nextCursor = String.valueOf(items.get(pageSize - 1).getId());
+            }
+            return responseUtil.wrapSuccess(new CursorPage<>(items, nextCursor), HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error getting items page: {}", e.getMessage());
+            return failure("Error getting items!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> searchItems(ItemSearchCriteria criteria) {
+        ItemSortField sort;
+        Sort.Direction direction;
+        try {
+            sort = ItemSortField.fromProperty(criteria.getSort());
+            direction = Sort.Direction.fromString(criteria.getDirection());
+        } catch (IllegalArgumentException e) {
+            return responseUtil.wrapError("Invalid sort!", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        ItemSearchCursor cursor = null;
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            try {
+                cursor = ItemSearchCursor.decode(criteria.getCursor());
+            } catch (IllegalArgumentException e) {
+                return responseUtil.wrapError("Invalid cursor!", e.getMessage(), HttpStatus.BAD_REQUEST);
+            }
+            if (cursor.sort() != sort || cursor.direction() != direction) {
+                return responseUtil.wrapError("Invalid cursor!", "Cursor was issued for another sort", HttpStatus.BAD_REQUEST);
+            }
+        }
+        try {
+            int pageSize = Math.min(Math.max(criteria.getSize(), 1), Constant.MAX_PAGE_SIZE);
+            if (properties.getReadPath().getSearch() == ReadPathType.JDBC) {
+                List<ItemView> items = itemQueryRepository.search(criteria, sort, direction, cursor, pageSize + 1);
+                String nextCursor = null;
+                if (items.size() > pageSize) {
+                    items = items.subList(0, pageSize);
+                    nextCursor = ItemSearchCursor.of(sort, direction, items.get(pageSize - 1)).encode();
+                }
+                return responseUtil.wrapSuccess(new CursorPage<>(items, nextCursor), HttpStatus.OK);
+            }
+            Specification<Item> specification = ItemSpecifications.matching(criteria);
+            if (cursor != null) {
+                specification = specification.and(ItemSpecifications.after(cursor));
+            }
+            List<Item> items = inventoryRepo.findBy(specification, query -> query
+                    .sortBy(ItemSpecifications.order(sort, direction))
+                    .limit(pageSize + 1)
+                    .all());
+            String nextCursor = null;
+            if (items.size() > pageSize) {
+                items = items.subList(0, pageSize);
+                nextCursor = ItemSearchCursor.of(sort, direction, items.get(pageSize - 1)).encode();
+            }
+            return responseUtil.wrapSuccess(new CursorPage<>(items, nextCursor), HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error searching items: {}", e.getMessage());
+            return failure("Error searching items!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> getChanges(String cursor, LocalDateTime since, int size) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.minus(properties.getChanges().getSafetyLag());
+        ChangeFeedCursor position;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                position = ChangeFeedCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return responseUtil.wrapError("Invalid cursor!", e.getMessage(), HttpStatus.BAD_REQUEST);
+            }
+        } else if (since != null) {
+            position = new ChangeFeedCursor(since, 0L, since, 0L);
+        } else {
+            // A full sync reads every item that still exists, so only the deletes from now on matter.
+            position = new ChangeFeedCursor(null, 0L, until, 0L);
+        }
+        LocalDateTime horizon = now.minus(properties.getChanges().getTombstoneRetention());
+        if (position.deletedAfter().isBefore(horizon)) {
+            return responseUtil.wrapError("Cursor expired!", "Deletes before " + horizon
+                    + " are no longer tracked, sync again without a cursor", HttpStatus.GONE);
+        }
+        try {
+            int pageSize = Math.min(Math.max(size, 1), Constant.MAX_PAGE_SIZE);
+            Limit limit = Limit.of(pageSize + 1);
+            List<Item> items = position.itemsAfter() == null
+                    ? inventoryRepo.findByUpdatedAtBeforeOrderByUpdatedAtAscIdAsc(until, limit)
+                    : inventoryRepo.findChangedAfter(position.itemsAfter(), position.itemId(), until, limit);
+            List<ItemTombstone> deleted = itemTombstoneRepo.findDeletedAfter(position.deletedAfter(),
+                    position.deletedId(), until, limit);
+            boolean hasMore = items.size() > pageSize || deleted.size() > pageSize;
+            if (items.size() > pageSize) {
+                items = items.subList(0, pageSize);
+            }
+            if (deleted.size() > pageSize) {
+                deleted = deleted.subList(0, pageSize);
+            }
+            if (!items.isEmpty()) {
+                Item last = items.get(items.size() - 1);
+                position = position.withItems(last.getUpdatedAt(), last.getId());
+            }
+            if (!deleted.isEmpty()) {
+                ItemTombstone last = deleted.get(deleted.size() - 1);
+                position = position.withDeleted(last.getDeletedAt(), last.getItemId());
+            }
+            return responseUtil.wrapSuccess(new ChangeFeed(items, deleted, position.encode(), hasMore), HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error getting changes: {}", e.getMessage());
+            return failure("Error getting changes!", e);
+        }
+    }
+
+    @Override
+    public SseEmitter subscribeToChanges(Set<Long> itemIds) {
+        return eventBroadcaster.subscribe(itemIds == null || itemIds.isEmpty() ? null : Set.copyOf(itemIds));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllItems(OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (Stream<Item> items = inventoryRepo.streamAllByOrderByIdAsc();
+             JsonGenerator generator = itemWriter.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            Iterator<Item> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                Item item = iterator.next();
+                itemWriter.writeValue(generator, item);
+                generator.writeRaw('\n');
+                // Detach each row so the persistence context does not grow with the table.
+                entityManager.detach(item);
+                if (++count % Constant.STREAM_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        log.info("Streamed {} items", count);
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> bulkCreateItems(Iterator<Item> items) {
+        try {
+            BulkResult result = itemBulkWriter.create(items);
+            log.info("Bulk created items: {} succeeded, {} failed", result.getSucceeded(), result.getFailed());
+            return responseUtil.wrapSuccess(result, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error bulk creating items: {}", e.getMessage());
+            return failure("Error creating items!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> bulkUpdateItems(Iterator<Item> items) {
+        try {
+            BulkResult result = itemBulkWriter.update(items);
+            log.info("Bulk updated items: {} succeeded, {} failed", result.getSucceeded(), result.getFailed());
+            return responseUtil.wrapSuccess(result, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error bulk updating items: {}", e.getMessage());
+            return failure("Error updating items!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> bulkDeleteItems(Iterator<Item> items) {
+        try {
+            BulkResult result = itemBulkWriter.delete(items);
+            log.info("Bulk deleted items: {} succeeded, {} failed", result.getSucceeded(), result.getFailed());
+            return responseUtil.wrapSuccess(result, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error bulk deleting items: {}", e.getMessage());
+            return failure("Error deleting items!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> importCatalog(InputStream input, CatalogFormat format) {
+        try {
+            CatalogImportResult result = catalogImporter.importCatalog(input, format);
+            return responseUtil.wrapSuccess(result, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error importing catalog: {}", e.getMessage());
+            return failure("Error importing catalog!", e);
+        }
+    }
+
+    @Override
+    public void exportCatalog(CatalogFormat format, OutputStream outputStream) throws IOException {
+        try {
+            catalogExporter.export(format, outputStream);
+        } catch (SQLException e) {
+            throw new IOException("Error exporting catalog: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> reserveStock(Long id, int quantity) {
+        if (quantity <= 0) {
+            return responseUtil.wrapError("Invalid quantity!", "Quantity must be positive", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            if (stockWriteCoalescer != null) {
+                return coalescedStockChangeResponse(id, -quantity, stockWriteCoalescer.apply(id, -quantity), "Insufficient stock!");
+            }
+            int updated = writeStockChange(id, -quantity, () -> inventoryRepo.reserveStock(id, quantity));
+            return stockChangeResponse(id, -quantity, updated, "Insufficient stock!");
+        } catch (Exception e) {
+            log.error("Error reserving stock: {}", e.getMessage());
+            return failure("Error reserving stock!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> releaseStock(Long id, int quantity) {
+        if (quantity <= 0) {
+            return responseUtil.wrapError("Invalid quantity!", "Quantity must be positive", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            if (stockWriteCoalescer != null) {
+                return coalescedStockChangeResponse(id, quantity, stockWriteCoalescer.apply(id, quantity), "Stock limit exceeded!");
+            }
+            int updated = writeStockChange(id, quantity, () -> inventoryRepo.releaseStock(id, quantity));
+            return stockChangeResponse(id, quantity, updated, "Stock limit exceeded!");
+        } catch (Exception e) {
+            log.error("Error releasing stock: {}", e.getMessage());
+            return failure("Error releasing stock!", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<APIResponse> adjustStock(Long id, int delta) {
+        if (delta == 0) {
+            return responseUtil.wrapError("Invalid quantity!", "Quantity must not be zero", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            if (stockWriteCoalescer != null) {
+                return coalescedStockChangeResponse(id, delta, stockWriteCoalescer.apply(id, delta), "Stock out of range!");
+            }
+            int updated = writeStockChange(id, delta, () -> inventoryRepo.adjustStock(id, delta));
+            return stockChangeResponse(id, delta, updated, "Stock out of range!");
+        } catch (Exception e) {
+            log.error("Error adjusting stock: {}", e.getMessage());
+            return failure("Error adjusting stock!", e);
+        }
+    }
+
+    /**
+     * Builds the response of a request that failed unexpectedly: 400 for data the entity or database constraints
+     * refused, 503 for the overload failures of {@link OverloadSignals}, 500 for the rest. Only 503 counts as
+     * congestion for the concurrency limit.
+     */
+    private ResponseEntity<APIResponse> failure(String title, Exception e) {
+        if (OverloadSignals.isOverload(e)) {
+            return responseUtil.wrapError(title, e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException) {
+                return responseUtil.wrapError(title, cause.getMessage(), HttpStatus.BAD_REQUEST);
+            }
+        }
+        return responseUtil.wrapError(title, e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Saves an item and publishes its change event in one transaction, so the outbox row commits with it.
+     * The item is flushed first so the event carries its new version.
+     */
+    private Item saveAndPublish(Item item, Function<Item, InventoryChangeEvent> event) {
+        return transactionTemplate.execute(status -> {
+            Item save = inventoryRepo.saveAndFlush(item);
+            eventPublisher.publishEvent(event.apply(save));
+            return save;
+        });
+    }
+
+    /**
+     * Runs a conditional stock update and publishes its change event in one transaction.
+     *
+     * @return the number of rows updated
+     */
+    private int writeStockChange(Long id, int delta, IntSupplier update) {
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = update.getAsInt();
+            if (count > 0) {
+                eventPublisher.publishEvent(InventoryChangeEvent.stockChanged(id, delta));
+            }
+            return count;
+        });
+        return updated == null ? 0 : updated;
+    }
+
+    /**
+     * Builds the response of a conditional stock update. The existence check only runs when no row matched,
+     * so the successful path stays a single statement.
+     */
+    private ResponseEntity<APIResponse> stockChangeResponse(Long id, int delta, int updated, String rejection) {
+        if (updated > 0) {
+            itemCache.evict(id);
+            log.debug("Stock of item {} changed by {}", id, delta);
+            return responseUtil.wrapSuccess(new StockChange(id, delta), HttpStatus.OK);
+        }
+        if (!inventoryRepo.existsById(id)) {
+            return responseUtil.wrapError("Item not found!", "No item with ID " + id, HttpStatus.NOT_FOUND);
+        }
+        return responseUtil.wrapError(rejection, "Quantity must stay between " + Constant.MIN_QUANTITY + " and "
+                + Constant.MAX_QUANTITY, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Builds the response of a stock change written by a flush of the coalescer.
+     */
+    private ResponseEntity<APIResponse> coalescedStockChangeResponse(Long id, int delta, StockWriteCoalescer.Outcome outcome,
+                                                                     String rejection) {
+        return switch (outcome) {
+            case APPLIED -> responseUtil.wrapSuccess(new StockChange(id, delta), HttpStatus.OK);
+            case NOT_FOUND -> responseUtil.wrapError("Item not found!", "No item with ID " + id, HttpStatus.NOT_FOUND);
+            case REJECTED -> responseUtil.wrapError(rejection, "Quantity must stay between " + Constant.MIN_QUANTITY
+                    + " and " + Constant.MAX_QUANTITY, HttpStatus.CONFLICT);
+        };
+    }
+
+    /**
+     * Sets the version a write is checked against: the If-Match version, else the one sent in the body, else
+     * the current one. A write without any version therefore still takes the optimistic check of a merge
+     * instead of being treated as a new item. When If-Match lists several versions, the current one is looked
+     * up and used if it is among them.
+     *
+     * @return an error response if the header is malformed, names none of the current version or the item does
+     * not exist, null otherwise
+     */
+    private ResponseEntity<APIResponse> resolveVersion(Item item, String ifMatch) {
+        List<Long> accepted;
+        try {
+            accepted = ETagUtils.parseVersions(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return responseUtil.wrapError("Invalid If-Match header!", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        if (accepted.size() == 1) {
+            item.setVersion(accepted.getFirst());
+        }
+        boolean severalAccepted = accepted.size() > 1;
+        if ((item.getVersion() != null && !severalAccepted) || item.getId() == null) {
+            return null;
+        }
+        Optional<Long> current = inventoryRepo.findVersionById(item.getId());
+        if (current.isEmpty()) {
+            return ifMatch != null
+                    ? responseUtil.wrapError("Item was modified!", "No item with ID " + item.getId(), HttpStatus.PRECONDITION_FAILED)
+                    : responseUtil.wrapError("Item not found!", "No item with ID " + item.getId(), HttpStatus.NOT_FOUND);
+        }
+        if (severalAccepted && !accepted.contains(current.get())) {
+            return responseUtil.wrapError("Item was modified!", "Item " + item.getId() + " has version " + current.get()
+                    + ", which If-Match does not list", HttpStatus.PRECONDITION_FAILED);
+        }
+        // Checked again by the write itself, so a change in between still fails it.
+        item.setVersion(current.get());
+        return null;
+    }
+
+    /**
+     * Builds the response of a conditional delete that matched no row. The lookup only runs on that path, so a
+     * successful delete stays a single statement.
+     */
+    private ResponseEntity<APIResponse> deleteRefused(Item item, String ifMatch) {
+        Optional<Long> current = inventoryRepo.findVersionById(item.getId());
+        if (current.isEmpty()) {
+            return ifMatch != null
+                    ? responseUtil.wrapError("Item was modified!", "No item with ID " + item.getId(), HttpStatus.PRECONDITION_FAILED)
+                    : responseUtil.wrapError("Item not found!", "No item with ID " + item.getId(), HttpStatus.NOT_FOUND);
+        }
+        log.error("Conflict deleting item {}: version {} is not the current {}", item.getId(), item.getVersion(), current.get());
+        return versionConflict(ifMatch, new OptimisticLockingFailureException("Item " + item.getId() + " has version "
+                + current.get() + ", not " + item.getVersion()));
+    }
+
+    /**
+     * A stale version is a failed precondition when the client sent If-Match, and a plain conflict otherwise.
+     */
+    private ResponseEntity<APIResponse> versionConflict(String ifMatch, OptimisticLockingFailureException e) {
+        return ifMatch != null
+                ? responseUtil.wrapError("Item was modified!", e.getMessage(), HttpStatus.PRECONDITION_FAILED)
+                : responseUtil.wrapError("Item was modified!", e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    private static ResponseEntity<APIResponse> withETag(ResponseEntity<APIResponse> response, Item item) {
+        return withETag(response, item == null ? null : item.getVersion());
+    }
+
+    private static ResponseEntity<APIResponse> withETag(ResponseEntity<APIResponse> response, Long version) {
+        if (version == null) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders())
+                .eTag(ETagUtils.of(version)).body(response.getBody());
+    }
+
+    private void evictPendingStock(Long id) {
+        if (stockWriteCoalescer != null && id != null) {
+            stockWriteCoalescer.evict(id);
         }
     }
 }
@@ -0,0 +1,265 @@
+package com.univiser.inventory.inventory_management.service.impl;
+
+import com.univiser.inventory.cache.ItemCache;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.dto.BulkItemResult;
+import com.univiser.inventory.domain.dto.BulkResult;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.entity.ItemTombstone;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import com.univiser.inventory.stock.StockWriteCoalescer;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes large sets of items in fixed size chunks, one transaction per chunk, so Hibernate can
+ * send each chunk as JDBC batches. A chunk that fails as a whole is replayed row by row so that
+ * one bad record only fails itself.
+ */
+@Slf4j
+@Component
+public class ItemBulkWriter {
+
+    private final InventoryRepo inventoryRepo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ItemCache itemCache;
+    private final InventoryProperties properties;
+    private final ObjectProvider<StockWriteCoalescer> stockWriteCoalescer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ItemBulkWriter(@NonNull InventoryRepo inventoryRepo, @NonNull EntityManager entityManager,
+                          @NonNull TransactionTemplate transactionTemplate, @NonNull Validator validator,
+                          @NonNull ItemCache itemCache, @NonNull InventoryProperties properties,
+                          @NonNull ObjectProvider<StockWriteCoalescer> stockWriteCoalescer,
+                          @NonNull ApplicationEventPublisher eventPublisher) {
+        this.inventoryRepo = inventoryRepo;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.itemCache = itemCache;
+        this.properties = properties;
+        this.stockWriteCoalescer = stockWriteCoalescer;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Inserts every valid item. Client supplied IDs are ignored.
+     */
+    public BulkResult create(Iterator<Item> items) {
+        return process(items, Mode.CREATE, this::insertChunk);
+    }
+
+    /**
+     * Updates the name, description, quantity and price of every existing item.
+     */
+    public BulkResult update(Iterator<Item> items) {
+        return process(items, Mode.UPDATE, this::updateChunk);
+    }
+
+    /**
+     * Deletes every item whose ID is present in the input, leaving a tombstone for the change feed.
+     */
+    public BulkResult delete(Iterator<Item> items) {
+        return process(items, Mode.DELETE, this::deleteChunk);
+    }
+
+    private BulkResult process(Iterator<Item> items, Mode mode, Function<List<Entry>, List<BulkItemResult>> operation) {
+        int chunkSize = Math.max(1, properties.getBulk().getChunkSize());
+        List<BulkItemResult> results = new ArrayList<>();
+        List<Entry> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        try {
+            while (items.hasNext()) {
+                // Read before counting, so a record that fails to parse is reported at its own position.
+                Item item = items.next();
+                Entry entry = new Entry(index++, item);
+                String violation = validate(entry.item(), mode);
+                if (violation != null) {
+                    results.add(BulkItemResult.failure(entry.index(), entry.item().getId(), violation));
+                    continue;
+                }
+                chunk.add(entry);
+                if (chunk.size() == chunkSize) {
+                    results.addAll(commitChunk(chunk, mode, operation));
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Stopped reading bulk input at record {}: {}", index, e.getMessage());
+            results.add(BulkItemResult.failure(index, null, "Malformed record: " + e.getMessage()));
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(commitChunk(chunk, mode, operation));
+        }
+        results.sort(Comparator.comparingInt(BulkItemResult::getIndex));
+        return BulkResult.of(results);
+    }
+
+    private List<BulkItemResult> commitChunk(List<Entry> chunk, Mode mode,
+                                             Function<List<Entry>, List<BulkItemResult>> operation) {
+        List<BulkItemResult> results = writeChunk(chunk, operation);
+        if (mode != Mode.CREATE) {
+            StockWriteCoalescer coalescer = stockWriteCoalescer.getIfAvailable();
+            for (BulkItemResult result : results) {
+                if (result.isSuccess()) {
+                    itemCache.evict(result.getId());
+                    if (coalescer != null) {
+                        coalescer.evict(result.getId());
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<BulkItemResult> writeChunk(List<Entry> chunk, Function<List<Entry>, List<BulkItemResult>> operation) {
+        try {
+            return transactionTemplate.execute(status -> operation.apply(chunk));
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                Entry entry = chunk.get(0);
+                return List.of(BulkItemResult.failure(entry.index(), entry.item().getId(), rootMessage(e)));
+            }
+            log.warn("Bulk chunk of {} records failed, retrying one by one: {}", chunk.size(), rootMessage(e));
+            List<BulkItemResult> results = new ArrayList<>(chunk.size());
+            for (Entry entry : chunk) {
+                results.addAll(writeChunk(List.of(entry), operation));
+            }
+            return results;
+        }
+    }
+
+    private List<BulkItemResult> insertChunk(List<Entry> chunk) {
+        for (Entry entry : chunk) {
+            // IDs come from the pooled sequence; a retried row must not keep the ID of a rolled back attempt.
+            entry.item().setId(null);
+            entityManager.persist(entry.item());
+        }
+        flushAndClear();
+        // Events published inside the chunk transaction are only delivered if it commits.
+        chunk.forEach(entry -> eventPublisher.publishEvent(InventoryChangeEvent.created(entry.item())));
+        return chunk.stream().map(entry -> BulkItemResult.success(entry.index(), entry.item().getId())).toList();
+    }
+
+    private List<BulkItemResult> updateChunk(List<Entry> chunk) {
+        Map<Long, Item> existing = findAllById(chunk);
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        for (Entry entry : chunk) {
+            Item source = entry.item();
+            Item target = existing.get(source.getId());
+            if (target == null) {
+                results.add(BulkItemResult.failure(entry.index(), source.getId(), "Item not found"));
+                continue;
+            }
+            if (isStale(source, target)) {
+                results.add(BulkItemResult.failure(entry.index(), source.getId(), "Version conflict"));
+                continue;
+            }
+            target.setName(source.getName());
+            target.setDescription(source.getDescription());
+            target.setQuantity(source.getQuantity());
+            target.setPrice(source.getPrice());
+            results.add(BulkItemResult.success(entry.index(), source.getId()));
+        }
+        flushAndClear();
+        results.stream().filter(BulkItemResult::isSuccess)
+                .forEach(result -> eventPublisher.publishEvent(InventoryChangeEvent.updated(existing.get(result.getId()))));
+        return results;
+    }
+
+    private List<BulkItemResult> deleteChunk(List<Entry> chunk) {
+        Map<Long, Item> existing = findAllById(chunk);
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (Entry entry : chunk) {
+            Item target = existing.remove(entry.item().getId());
+            if (target == null) {
+                results.add(BulkItemResult.failure(entry.index(), entry.item().getId(), "Item not found"));
+                continue;
+            }
+            if (isStale(entry.item(), target)) {
+                results.add(BulkItemResult.failure(entry.index(), target.getId(), "Version conflict"));
+                continue;
+            }
+            entityManager.remove(target);
+            entityManager.persist(new ItemTombstone(target.getId(), now));
+            eventPublisher.publishEvent(InventoryChangeEvent.deleted(target.getId()));
+            results.add(BulkItemResult.success(entry.index(), target.getId()));
+        }
+        flushAndClear();
+        return results;
+    }
+
+    /**
+     * A record that carries a version is only applied to the row it was read from.
+     */
+    private static boolean isStale(Item source, Item target) {
+        return source.getVersion() != null && !source.getVersion().equals(target.getVersion());
+    }
+
+    /**
+     * Loads the targets of a chunk with a single IN query instead of one select per merge.
+     */
+    private Map<Long, Item> findAllById(List<Entry> chunk) {
+        Set<Long> ids = chunk.stream().map(entry -> entry.item().getId()).collect(Collectors.toSet());
+        return inventoryRepo.findAllById(ids).stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String validate(Item item, Mode mode) {
+        if (item == null) {
+            return "Record is empty";
+        }
+        if (mode != Mode.CREATE && item.getId() == null) {
+            return "id: ID is required";
+        }
+        if (mode == Mode.DELETE) {
+            return null;
+        }
+        Set<ConstraintViolation<Item>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String rootMessage(Throwable throwable) {
+        Throwable root = throwable;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private enum Mode {CREATE, UPDATE, DELETE}
+
+    private record Entry(int index, Item item) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.univiser.inventory.inventory_management.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.univiser.inventory.domain.dto.ItemStream;
+import com.univiser.inventory.inventory_management.repository.ItemQueryRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Result of the JDBC path of the list endpoint. The query only runs when the response body is written: each
+ * row is copied from the result set into the JSON generator as it is fetched, so neither entities nor the
+ * full list are ever held in memory. Writes the same JSON array as a list of items.
+ */
+class StreamedItems implements ItemStream {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    private final ItemQueryRepository itemQueryRepository;
+
+    StreamedItems(ItemQueryRepository itemQueryRepository) {
+        this.itemQueryRepository = itemQueryRepository;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartArray();
+        try {
+            itemQueryRepository.streamAll(rs -> writeRow(rs, generator, provider));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException {
+        serialize(generator, provider);
+    }
+
+    private static void writeRow(ResultSet rs, JsonGenerator generator, SerializerProvider provider) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            generator.writeNumber(rs.getLong(1));
+            generator.writeFieldName(NAME);
+            generator.writeString(rs.getString(2));
+            generator.writeFieldName(DESCRIPTION);
+            generator.writeString(rs.getString(3));
+            generator.writeFieldName(QUANTITY);
+            generator.writeNumber(rs.getInt(4));
+            generator.writeFieldName(PRICE);
+            BigDecimal price = rs.getBigDecimal(5);
+            if (price == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(price);
+            }
+            // Dates go through the configured serializer so their format matches the JPA path.
+            generator.writeFieldName(CREATED_AT);
+            provider.defaultSerializeValue(rs.getObject(6, LocalDateTime.class), generator);
+            generator.writeFieldName(UPDATED_AT);
+            provider.defaultSerializeValue(rs.getObject(7, LocalDateTime.class), generator);
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(rs.getLong(8));
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
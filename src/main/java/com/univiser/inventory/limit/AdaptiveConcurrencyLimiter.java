@@ -0,0 +1,223 @@
+package com.univiser.inventory.limit;
+
+import com.univiser.inventory.config.InventoryProperties;
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows the latency of completed requests.
+ * <p>
+ * Latencies are averaged over windows of {@code window-size} samples and compared with a long running average,
+ * the latency without load. While a window stays within {@code rtt-tolerance} times that average the limit grows
+ * by about its square root; beyond it the limit shrinks in proportion, down to half per window. A window in which
+ * a request failed from overload, such as a connection pool or statement timeout (see {@link OverloadSignals}),
+ * shrinks the limit by {@code backoff-ratio} whatever the latency. Windows in which less than half the limit was used leave it alone,
+ * since they say nothing about what more load would do.
+ * <p>
+ * A database that stops answering completes no requests, so no window would ever close. While at least
+ * {@code min-limit} requests of the measured priorities are in flight and none has completed for
+ * {@code stall-timeout}, counted from when that many were first in flight, nothing more is let in and the limit
+ * backs off once per stall-timeout.
+ * <p>
+ * Admission is lock free; the limit is adjusted under a lock once per window.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final int longWindow;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final double normalShare;
+    private final double bulkShare;
+    private final long stallTimeoutNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /**
+     * Requests in flight whose latency is measured, all but bulk ones.
+     */
+    private final AtomicInteger measuredInFlight = new AtomicInteger();
+    /**
+     * Last completion of a measured request, or when min-limit of them were in flight if that came later.
+     */
+    private volatile long lastProgress = System.nanoTime();
+    private volatile int limit;
+    private volatile double shortRtt;
+    private volatile double longRtt;
+
+    private double estimatedLimit;
+    private long windowRttSum;
+    private int windowRttSamples;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowOverloaded;
+    private long lastStallBackoff;
+
+    public AdaptiveConcurrencyLimiter(@NonNull InventoryProperties.ConcurrencyLimit properties) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.windowSize = Math.max(1, properties.getWindowSize());
+        this.longWindow = Math.max(windowSize, properties.getLongWindow());
+        this.rttTolerance = properties.getRttTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.normalShare = properties.getNormalShare();
+        this.bulkShare = properties.getBulkShare();
+        this.stallTimeoutNanos = properties.getStallTimeout().toNanos();
+        this.estimatedLimit = Math.clamp(properties.getInitialLimit(), minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+        this.lastStallBackoff = lastProgress - stallTimeoutNanos;
+    }
+
+    /**
+     * Takes a slot if requests of this priority are still admitted. Every slot taken must be given back through
+     * exactly one of {@link #onSuccess(long)}, {@link #onOverload(RequestPriority)} or
+     * {@link #release(RequestPriority)}; only requests of a priority other than bulk may report their latency.
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        if (isStalled()) {
+            return false;
+        }
+        int admitted = admitted(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= admitted) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (priority != RequestPriority.BULK && measuredInFlight.incrementAndGet() == minLimit) {
+                    lastProgress = System.nanoTime();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot and counts the latency of its request.
+     */
+    public void onSuccess(long rttNanos) {
+        int current = completed(RequestPriority.NORMAL);
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowRttSamples++;
+            sampled(current);
+        }
+    }
+
+    /**
+     * Gives back the slot of a request that failed in a way that points at overload.
+     */
+    public void onOverload(RequestPriority priority) {
+        int current = completed(priority);
+        synchronized (this) {
+            windowOverloaded = true;
+            sampled(current);
+        }
+    }
+
+    /**
+     * Gives back a slot without a sample, for requests whose latency says nothing about load.
+     */
+    public void release(RequestPriority priority) {
+        completed(priority);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the average latency of the last window, in seconds
+     */
+    public double getShortRtt() {
+        return shortRtt / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the long running average latency, in seconds
+     */
+    public double getLongRtt() {
+        return longRtt / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    int admitted(RequestPriority priority) {
+        int current = limit;
+        return switch (priority) {
+            case CRITICAL -> current;
+            case NORMAL -> Math.max(1, (int) (current * normalShare));
+            case BULK -> Math.max(1, (int) (current * bulkShare));
+        };
+    }
+
+    /**
+     * @return the requests in flight before this one completed
+     */
+    private int completed(RequestPriority priority) {
+        if (priority != RequestPriority.BULK) {
+            lastProgress = System.nanoTime();
+            measuredInFlight.decrementAndGet();
+        }
+        return inFlight.getAndDecrement();
+    }
+
+    private boolean isStalled() {
+        if (measuredInFlight.get() < minLimit) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - lastProgress < stallTimeoutNanos) {
+            return false;
+        }
+        synchronized (this) {
+            if (now - lastStallBackoff >= stallTimeoutNanos) {
+                lastStallBackoff = now;
+                estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+                limit = (int) estimatedLimit;
+            }
+        }
+        return true;
+    }
+
+    private void sampled(int inFlightAtCompletion) {
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+        if (windowSamples < windowSize) {
+            return;
+        }
+        if (windowOverloaded) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+        } else if (windowRttSamples > 0) {
+            adjust((double) windowRttSum / windowRttSamples);
+        }
+        limit = (int) estimatedLimit;
+        windowRttSum = 0;
+        windowRttSamples = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowOverloaded = false;
+    }
+
+    private void adjust(double rtt) {
+        double average = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) * windowRttSamples / longWindow;
+        if (average / rtt > 2) {
+            // Load went away: forget the latency of the congested period sooner than the average would.
+            average *= 0.95;
+        }
+        shortRtt = rtt;
+        longRtt = average;
+        if (windowMaxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.clamp(rttTolerance * average / rtt, 0.5, 1.0);
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.clamp(estimatedLimit * (1 - smoothing) + target * smoothing, minLimit, maxLimit);
+    }
+}
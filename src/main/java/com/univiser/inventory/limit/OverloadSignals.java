@@ -0,0 +1,50 @@
+package com.univiser.inventory.limit;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+
+/**
+ * Tells failures caused by overload apart from the others, so that only they shrink the concurrency limit and
+ * are answered with 503. A constraint violation or a bug says nothing about load.
+ */
+public final class OverloadSignals {
+
+    /**
+     * Postgres SQLSTATEs of a server that cannot keep up: too many connections, lock not available within
+     * lock_timeout, and statements canceled by statement_timeout. Class 08, connection exceptions, counts as well.
+     */
+    private static final Set<String> OVERLOAD_SQL_STATES = Set.of("53300", "55P03", "57014");
+
+    private static final int MAX_CAUSE_DEPTH = 20;
+
+    private OverloadSignals() {
+    }
+
+    /**
+     * @param failure an exception, possibly wrapped by Spring, Hibernate or the servlet container
+     * @return true if it or one of its causes is a connection pool acquire timeout, a statement or lock timeout,
+     * or a connection failure
+     */
+    public static boolean isOverload(Throwable failure) {
+        Throwable cause = failure;
+        for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLTimeoutException
+                    || cause instanceof org.springframework.dao.QueryTimeoutException
+                    || cause instanceof jakarta.persistence.QueryTimeoutException
+                    || cause instanceof jakarta.persistence.LockTimeoutException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                String state = sqlException.getSQLState();
+                if (OVERLOAD_SQL_STATES.contains(state) || state.startsWith("08")) {
+                    return true;
+                }
+            }
+            cause = cause.getCause() == cause ? null : cause.getCause();
+        }
+        return false;
+    }
+}
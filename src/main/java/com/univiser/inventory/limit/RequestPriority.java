@@ -0,0 +1,41 @@
+package com.univiser.inventory.limit;
+
+import java.util.regex.Pattern;
+
+/**
+ * How late a request is shed when the service is overloaded. Each priority may use its share of the concurrency
+ * limit, so requests of a lower priority are rejected while higher ones still get through.
+ */
+public enum RequestPriority {
+    /**
+     * Single item reads and stock operations: cheap, and what callers wait on.
+     */
+    CRITICAL,
+    /**
+     * Single item writes, pages, searches and the change feed.
+     */
+    NORMAL,
+    /**
+     * Requests over the whole catalog or many items, which hold a connection for long.
+     */
+    BULK;
+
+    private static final Pattern ITEM = Pattern.compile(".*/\\d+");
+    private static final Pattern STOCK = Pattern.compile(".*/\\d+/(reserve|release|adjust)");
+
+    /**
+     * @param method the HTTP method
+     * @param path   the request path without the context path
+     */
+    public static RequestPriority of(String method, String path) {
+        if (path.endsWith("/fetch-all") || path.endsWith("/stream") || path.endsWith("/bulk")
+                || path.contains("/catalog/")) {
+            return BULK;
+        }
+        if ("GET".equals(method) && ITEM.matcher(path).matches()
+                || "POST".equals(method) && STOCK.matcher(path).matches()) {
+            return CRITICAL;
+        }
+        return NORMAL;
+    }
+}
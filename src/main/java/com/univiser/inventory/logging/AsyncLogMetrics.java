@@ -0,0 +1,34 @@
+package com.univiser.inventory.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the fill level of the asynchronous console appender declared in logback-spring.xml. A queue that
+ * stays near its capacity means log events are being dropped.
+ */
+@Component
+public class AsyncLogMetrics {
+
+    static final String APPENDER_NAME = "ASYNC_CONSOLE";
+
+    public AsyncLogMetrics(@NonNull MeterRegistry meterRegistry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        if (context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender(APPENDER_NAME) instanceof AsyncAppender appender) {
+            Gauge.builder("inventory.logging.queue", appender, AsyncAppender::getNumberOfElementsInQueue)
+                    .description("Log events waiting to be written")
+                    .register(meterRegistry);
+            Gauge.builder("inventory.logging.queue.remaining", appender, AsyncAppender::getRemainingCapacity)
+                    .description("Free slots in the log event queue")
+                    .register(meterRegistry);
+        }
+    }
+}
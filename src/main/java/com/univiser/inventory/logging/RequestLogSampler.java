@@ -0,0 +1,33 @@
+package com.univiser.inventory.logging;
+
+import com.univiser.inventory.config.InventoryProperties;
+import lombok.NonNull;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which completed requests are logged at INFO. Requests that ended in a 4xx or 5xx always are, others at the
+ * configured sample rate, so a busy instance does not spend its request threads on success lines.
+ */
+@Component
+public class RequestLogSampler {
+
+    private final double successSampleRate;
+
+    public RequestLogSampler(@NonNull InventoryProperties properties) {
+        this.successSampleRate = properties.getLogging().getSuccessSampleRate();
+    }
+
+    /**
+     * @param response the response the request completed with
+     * @return true if the completion of the request should be logged
+     */
+    public boolean shouldLog(ResponseEntity<?> response) {
+        if (response == null || response.getStatusCode().isError()) {
+            return true;
+        }
+        return successSampleRate >= 1 || (successSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < successSampleRate);
+    }
+}
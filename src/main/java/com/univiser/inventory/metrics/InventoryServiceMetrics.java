@@ -0,0 +1,72 @@
+package com.univiser.inventory.metrics;
+
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.enums.StatusCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call to the inventory service as inventory.service, tagged with the method and the
+ * {@link StatusCode} of its response. A method that throws is tagged FAILURE with the exception class.
+ * <p>
+ * Service methods report errors as wrapped responses rather than exceptions, so the status is read from the
+ * returned {@link APIResponse}. Responses without a body, such as 304, count as SUCCESS.
+ */
+@Aspect
+@Component
+public class InventoryServiceMetrics {
+
+    static final String TIMER_NAME = "inventory.service";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public InventoryServiceMetrics(@NonNull MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.univiser.inventory.inventory_management.service.InventoryService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timer(method, statusOf(result), NONE).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(method, StatusCode.FAILURE, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static StatusCode statusOf(Object result) {
+        if (result instanceof ResponseEntity<?> response && response.getBody() instanceof APIResponse body) {
+            return StatusCode.SUCCESS.valueOf().equals(body.getStatusCode()) ? StatusCode.SUCCESS : StatusCode.FAILURE;
+        }
+        return StatusCode.SUCCESS;
+    }
+
+    /**
+     * Looks timers up by a plain string key, so the hot path does not build tags on every call.
+     */
+    private Timer timer(String method, StatusCode status, String exception) {
+        return timers.computeIfAbsent(method + '|' + status + '|' + exception, key -> Timer.builder(TIMER_NAME)
+                .description("Time spent in inventory service calls")
+                .tag("method", method)
+                .tag("status", status.name())
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,55 @@
+package com.univiser.inventory.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.univiser.inventory.config.InventoryProperties;
+import lombok.NonNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published events to a local file, one JSON object per line. The file is synced before a batch is
+ * reported as published, so a crash right after cannot lose it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.outbox", name = "publisher", havingValue = "file", matchIfMissing = true)
+public class FileOutboxPublisher implements OutboxPublisher {
+
+    private final Path file;
+    private final ObjectWriter messageWriter;
+
+    public FileOutboxPublisher(@NonNull InventoryProperties properties, @NonNull ObjectMapper objectMapper) {
+        this.file = properties.getOutbox().getFile();
+        this.messageWriter = objectMapper.writerFor(OutboxMessage.class);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> batch) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(batch.size() * 256);
+        for (OutboxMessage message : batch) {
+            messageWriter.writeValue(buffer, message);
+            buffer.write('\n');
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.univiser.inventory.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps published events in memory so tests can assert on them. Nothing is ever discarded.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.outbox", name = "publisher", havingValue = "memory")
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+    private final List<OutboxMessage> published = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        published.addAll(batch);
+    }
+
+    /**
+     * @return the events published so far, oldest first
+     */
+    public List<OutboxMessage> getPublished() {
+        return List.copyOf(published);
+    }
+
+    public void clear() {
+        published.clear();
+    }
+}
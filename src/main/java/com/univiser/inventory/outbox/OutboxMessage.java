@@ -0,0 +1,14 @@
+package com.univiser.inventory.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox row handed to the {@link OutboxPublisher}. The id is stable across retries, so consumers can use it
+ * to drop duplicates. It says nothing about commit order: ids are drawn from a pooled sequence when the event is
+ * persisted, so a transaction that commits later can hold a lower one.
+ */
+public record OutboxMessage(Long id, Long aggregateId, String eventType, @JsonRawValue String payload,
+                            LocalDateTime createdAt, int attempts) {
+}
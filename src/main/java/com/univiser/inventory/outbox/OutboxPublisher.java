@@ -0,0 +1,20 @@
+package com.univiser.inventory.outbox;
+
+import java.util.List;
+
+/**
+ * Sends outbox events to other services. Implementations are selected with inventory.outbox.publisher.
+ * <p>
+ * Delivery is at least once: a batch that throws is retried as a whole, so messages that did get through
+ * before the failure are sent again.
+ */
+public interface OutboxPublisher {
+
+    /**
+     * Publishes a batch of events, oldest first. Must only return once the events are stored by the receiver.
+     *
+     * @param batch the events to publish
+     * @throws Exception if any event of the batch may not have been published
+     */
+    void publish(List<OutboxMessage> batch) throws Exception;
+}
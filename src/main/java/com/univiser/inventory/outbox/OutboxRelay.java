@@ -0,0 +1,140 @@
+package com.univiser.inventory.outbox;
+
+import com.univiser.inventory.config.InventoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the outbox in the background and hands the events to the {@link OutboxPublisher}.
+ * <p>
+ * Each batch is claimed with {@code for update skip locked} and deleted in the transaction that published it,
+ * so several instances can relay side by side without publishing a row twice, and a crash before the commit
+ * only leads to the batch being published again. A batch that fails to publish stays at the head of the outbox
+ * and the relay stops polling until an exponential backoff, set by the failures of the oldest event, has
+ * passed. The failed events are then claimed first again, so newer events never overtake them, and events are
+ * never dropped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "inventory.outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    static final String CLAIM_SQL = "select id, aggregate_id, event_type, payload, created_at, attempts from outbox_event "
+            + "order by id fetch first ? rows only for update skip locked";
+
+    static final String DELETE_SQL = "delete from outbox_event where id = ?";
+
+    static final String FAILED_SQL = "update outbox_event set attempts = attempts + 1 where id = ?";
+
+    private static final RowMapper<OutboxMessage> MESSAGE_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"), rs.getLong("aggregate_id"), rs.getString("event_type"), rs.getString("payload"),
+            rs.getObject("created_at", LocalDateTime.class), rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxPublisher publisher;
+    private final InventoryProperties.Outbox settings;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer lag;
+
+    /**
+     * When the relay polls again after a failed batch, or null while it is not backing off.
+     */
+    private volatile LocalDateTime pausedUntil;
+
+    public OutboxRelay(@NonNull JdbcTemplate jdbcTemplate, @NonNull TransactionTemplate transactionTemplate,
+                       @NonNull OutboxPublisher publisher, @NonNull InventoryProperties properties,
+                       @NonNull MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.publisher = publisher;
+        this.settings = properties.getOutbox();
+        this.published = Counter.builder("inventory.outbox.published")
+                .description("Outbox events handed to the publisher")
+                .register(meterRegistry);
+        this.failures = Counter.builder("inventory.outbox.failures")
+                .description("Outbox batches the publisher failed to take")
+                .register(meterRegistry);
+        this.lag = Timer.builder("inventory.outbox.lag")
+                .description("Time from an item change to the publication of its event")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes batches until the outbox is empty, or a batch fails. Does nothing while backing off.
+     */
+    @Scheduled(fixedDelayString = "${inventory.outbox.poll-interval-ms:500}")
+    public void relay() {
+        LocalDateTime until = pausedUntil;
+        if (until != null && LocalDateTime.now().isBefore(until)) {
+            return;
+        }
+        int batchSize = Math.max(1, settings.getBatchSize());
+        try {
+            while (relayBatch(batchSize) == batchSize) {
+                log.debug("Outbox batch of {} events published, polling again", batchSize);
+            }
+        } catch (Exception e) {
+            log.error("Error relaying outbox events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claims, publishes and deletes one batch of the oldest events.
+     *
+     * @return the number of events published
+     */
+    int relayBatch(int batchSize) {
+        Integer count = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxMessage> batch = jdbcTemplate.query(CLAIM_SQL, MESSAGE_MAPPER, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                publisher.publish(batch);
+            } catch (Exception e) {
+                failures.increment();
+                log.error("Error publishing {} outbox events from id {}, retrying later: {}", batch.size(),
+                        batch.get(0).id(), e.getMessage());
+                jdbcTemplate.batchUpdate(FAILED_SQL, batch, batch.size(), (ps, message) -> ps.setLong(1, message.id()));
+                pausedUntil = now.plus(backoff(batch.get(0).attempts()));
+                return 0;
+            }
+            pausedUntil = null;
+            jdbcTemplate.batchUpdate(DELETE_SQL, batch, batch.size(), (ps, message) -> ps.setLong(1, message.id()));
+            published.increment(batch.size());
+            batch.forEach(message -> lag.record(Duration.between(message.createdAt(), now)));
+            return batch.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * How long the relay backs off after a batch whose oldest event had failed the given number of times before.
+     */
+    Duration backoff(int previousAttempts) {
+        Duration max = settings.getMaxBackoff();
+        Duration delay = settings.getInitialBackoff();
+        for (int i = 0; i < previousAttempts && delay.compareTo(max) < 0; i++) {
+            delay = delay.multipliedBy(2);
+        }
+        return delay.compareTo(max) < 0 ? delay : max;
+    }
+}
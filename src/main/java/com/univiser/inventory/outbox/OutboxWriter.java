@@ -0,0 +1,44 @@
+package com.univiser.inventory.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.univiser.inventory.domain.entity.OutboxEvent;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import jakarta.persistence.EntityManager;
+import lombok.NonNull;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes every item change to the outbox in the transaction of the change, so the event commits or rolls
+ * back with it. Rows are flushed with the rest of the transaction and batched by Hibernate.
+ */
+@Component
+public class OutboxWriter {
+
+    private final EntityManager entityManager;
+    private final ObjectWriter eventWriter;
+
+    public OutboxWriter(@NonNull EntityManager entityManager, @NonNull ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.eventWriter = objectMapper.writerFor(InventoryChangeEvent.class);
+    }
+
+    /**
+     * Joins the transaction that published the event. An event published outside a transaction is written
+     * in its own one, after the change it describes.
+     */
+    @EventListener
+    @Transactional
+    public void onChange(InventoryChangeEvent event) {
+        String payload;
+        try {
+            payload = eventWriter.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event.type() + " event of item " + event.itemId(), e);
+        }
+        entityManager.persist(new OutboxEvent(null, event.itemId(), event.type().name(), payload, event.at(), 0));
+    }
+}
@@ -0,0 +1,76 @@
+package com.univiser.inventory.sql;
+
+import com.univiser.inventory.config.InventoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Times every JDBC execution of the primary DataSource. Each execution counts as one statement towards the
+ * {@link SqlStats} of the current request, a batch included, since it is one round trip.
+ * <p>
+ * Executions slower than inventory.sql.slow-query-threshold are logged with the shape of their bind
+ * parameters (the JDBC setter of each one) but never their values, which may hold customer data.
+ */
+@Slf4j
+@Component
+public class SqlAccountingListener implements QueryExecutionListener {
+
+    private static final String START_NANOS = "startNanos";
+
+    private final long slowQueryNanos;
+    private final Counter slowQueries;
+
+    public SqlAccountingListener(@NonNull InventoryProperties properties, @NonNull MeterRegistry meterRegistry) {
+        this.slowQueryNanos = properties.getSql().getSlowQueryThreshold().toNanos();
+        this.slowQueries = Counter.builder("inventory.sql.slow")
+                .description("Statements slower than the slow query threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsed = start == null ? 0 : System.nanoTime() - start;
+        SqlStats stats = SqlStats.current();
+        if (stats != null) {
+            stats.record(elapsed);
+        }
+        if (elapsed >= slowQueryNanos) {
+            slowQueries.increment();
+            log.warn("Slow SQL took {} ms{}: {}", elapsed / 1_000_000, execInfo.isBatch() ? " for a batch of " + execInfo.getBatchSize() : "",
+                    describe(queryInfoList));
+        }
+    }
+
+    /**
+     * Renders each query with the setters of its first parameter set, e.g. {@code select ... [Long, Int]}.
+     */
+    static String describe(List<QueryInfo> queryInfoList) {
+        StringJoiner description = new StringJoiner("; ");
+        for (QueryInfo query : queryInfoList) {
+            StringJoiner shape = new StringJoiner(", ", "[", "]");
+            if (!query.getParametersList().isEmpty()) {
+                for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+                    shape.add(operation.getMethod().getName().replaceFirst("^set", ""));
+                }
+            }
+            description.add(query.getQuery().replaceAll("\\s+", " ").trim() + " " + shape);
+        }
+        return description.toString();
+    }
+}
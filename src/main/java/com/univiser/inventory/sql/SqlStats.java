@@ -0,0 +1,53 @@
+package com.univiser.inventory.sql;
+
+/**
+ * Statements run on behalf of the current request and the JDBC time they took. Bound to the request thread
+ * by {@link com.univiser.inventory.filter.SqlAccountingFilter}; work handed to other threads, such as the body
+ * of a streaming response, is not counted.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    private SqlStats() {
+    }
+
+    /**
+     * Starts counting for the calling thread.
+     */
+    public static SqlStats start() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return the counts of the calling thread, or null outside a request
+     */
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds one statement that took the given time.
+     */
+    public void record(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,41 @@
+package com.univiser.inventory.sql;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Adds the SQL work of the request to its response as a Server-Timing entry, for example
+ * {@code sql;desc="statements=3";dur=1.250}. Set right before the body is written, by which point the
+ * handler has run every statement of the request.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "inventory.sql", name = "timing-header", havingValue = "true", matchIfMissing = true)
+public class SqlTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStats stats = SqlStats.current();
+        if (stats != null) {
+            response.getHeaders().add(SERVER_TIMING, String.format(Locale.ROOT, "sql;desc=\"statements=%d\";dur=%.3f",
+                    stats.getStatements(), stats.getNanos() / 1_000_000.0));
+        }
+        return body;
+    }
+}
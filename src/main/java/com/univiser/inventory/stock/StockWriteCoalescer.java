@@ -0,0 +1,412 @@
+package com.univiser.inventory.stock;
+
+import com.univiser.inventory.cache.ItemCache;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import com.univiser.inventory.util.Constant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Absorbs bursts of stock changes on hot items in memory and writes them to the item table in batches.
+ * <p>
+ * Each tracked item keeps its effective quantity (database quantity plus pending changes) in an atomic
+ * integer, so a change the stock can take is accepted with one compare-and-set. Accepted changes
+ * are queued, and a scheduled flush writes the net change of every item in one batched update per tick. The
+ * caller of {@link #apply(Long, int)} waits for the flush that writes its change, so a change is only ever
+ * reported as applied once it is committed; a flush that fails reports it as failed instead.
+ * <p>
+ * The in-memory quantity is a hint, the database has the last word. A change the counter cannot take is
+ * checked against the committed quantity before it is rejected, since another instance may have freed stock
+ * the counter does not know about; if the row can take it, the pending changes are written, the counter is
+ * dropped and the change is applied directly. When the database refuses the net change of an item, because
+ * another instance or another path changed the row, the changes of that item are replayed one by one in the
+ * same transaction and each gets its own outcome. Several instances may therefore coalesce the same items;
+ * they only lose the batching on the items they contend for.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "inventory.stock.coalescing", name = "enabled", havingValue = "true")
+public class StockWriteCoalescer {
+
+    static final String FLUSH_SQL = "update item set quantity = quantity + ?, updated_at = cast(statement_timestamp() as timestamp), "
+            + "version = version + 1 where id = ? and quantity + ? between " + Constant.MIN_QUANTITY + " and " + Constant.MAX_QUANTITY;
+
+    static final String QUANTITY_SQL = "select quantity from item where id = ?";
+
+    /**
+     * How long a retired counter keeps being swept for changes that raced with its retirement.
+     */
+    private static final long RETIRED_GRACE_NANOS = 1_000_000_000L;
+
+    public enum Outcome {APPLIED, REJECTED, NOT_FOUND}
+
+    private final ConcurrentMap<Long, PendingStock> tracked = new ConcurrentHashMap<>();
+    private final Queue<PendingStock> retired = new ConcurrentLinkedQueue<>();
+
+    private final InventoryRepo inventoryRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemCache itemCache;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long idleTimeoutNanos;
+    private final long maxWaitNanos;
+
+    private final Timer flushTimer;
+    private final DistributionSummary flushBatchSize;
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter refused;
+    private final Counter flushConflicts;
+
+    public StockWriteCoalescer(@NonNull InventoryRepo inventoryRepo, @NonNull JdbcTemplate jdbcTemplate,
+                               @NonNull TransactionTemplate transactionTemplate, @NonNull ItemCache itemCache,
+                               @NonNull MeterRegistry meterRegistry, @NonNull InventoryProperties properties,
+                               @NonNull ApplicationEventPublisher eventPublisher) {
+        this.inventoryRepo = inventoryRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemCache = itemCache;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.idleTimeoutNanos = properties.getStock().getCoalescing().getIdleTimeout().toNanos();
+        this.maxWaitNanos = properties.getStock().getCoalescing().getMaxWait().toNanos();
+        this.flushTimer = Timer.builder("inventory.stock.flush")
+                .description("Time spent writing coalesced stock changes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushBatchSize = DistributionSummary.builder("inventory.stock.flush.batch.size")
+                .description("Number of items written per flush")
+                .register(meterRegistry);
+        this.accepted = Counter.builder("inventory.stock.changes").tag("result", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("inventory.stock.changes").tag("result", "rejected").register(meterRegistry);
+        this.refused = Counter.builder("inventory.stock.changes").tag("result", "refused").register(meterRegistry);
+        this.flushConflicts = Counter.builder("inventory.stock.flush.conflicts")
+                .description("Net changes the database refused because the row changed underneath, replayed change by change")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.tracked", tracked, ConcurrentMap::size)
+                .description("Number of items with an in-memory stock counter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies a stock change and waits for the flush that writes it.
+     *
+     * @param id    the ID of the item
+     * @param delta the quantity to add, negative to take stock
+     * @return whether the change was written
+     * @throws IllegalStateException if the flush failed, or did not complete within max-wait
+     */
+    public Outcome apply(Long id, int delta) {
+        CompletableFuture<Outcome> outcome = submit(id, delta);
+        try {
+            return outcome.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Stock change of item " + id + " was not written: "
+                    + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Stock change of item " + id + " was not flushed in time, its outcome is unknown");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the stock change of item " + id, e);
+        }
+    }
+
+    /**
+     * Applies a stock change against the in-memory quantity of the item without waiting for its write.
+     *
+     * @param id    the ID of the item
+     * @param delta the quantity to add, negative to take stock
+     * @return the outcome, completed at once if the change was settled without the flush and by the flush otherwise
+     */
+    public CompletableFuture<Outcome> submit(Long id, int delta) {
+        PendingStock stock = tracked.get(id);
+        if (stock == null) {
+            // Read outside any transaction, so from the primary even when read-only transactions go to replicas,
+            // and through JDBC so the request's open EntityManager does not hold a connection while it waits.
+            Optional<Integer> quantity = jdbcTemplate.queryForList(QUANTITY_SQL, Integer.class, id).stream().findFirst();
+            if (quantity.isEmpty()) {
+                return CompletableFuture.completedFuture(Outcome.NOT_FOUND);
+            }
+            stock = tracked.computeIfAbsent(id, key -> track(key, quantity.get()));
+        }
+        if (stock.retired) {
+            // The counter is being flushed and dropped; fall back to a direct conditional update.
+            return CompletableFuture.completedFuture(applyDirectly(id, delta));
+        }
+        CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+        if (!stock.tryApply(delta, outcome)) {
+            return CompletableFuture.completedFuture(recheck(stock, delta));
+        }
+        accepted.increment();
+        return outcome;
+    }
+
+    /**
+     * Settles a change the in-memory quantity cannot take against the committed quantity. The counter only
+     * reloads once its item goes idle, which a hot item never does, so stock freed by another instance would
+     * otherwise go unseen.
+     */
+    private Outcome recheck(PendingStock stock, int delta) {
+        Optional<Integer> quantity = jdbcTemplate.queryForList(QUANTITY_SQL, Integer.class, stock.id).stream().findFirst();
+        if (quantity.isEmpty()) {
+            return Outcome.NOT_FOUND;
+        }
+        // Read after the quantity: a flush drains its changes from pending before it commits them, so the sum can
+        // miss a change in flight but never counts one twice.
+        long next = quantity.get() + stock.pending.get() + delta;
+        if (next < Constant.MIN_QUANTITY || next > Constant.MAX_QUANTITY) {
+            rejected.increment();
+            return Outcome.REJECTED;
+        }
+        evict(stock.id);
+        return applyDirectly(stock.id, delta);
+    }
+
+    /**
+     * Writes the pending changes of an item and stops tracking it, so the next change reloads its quantity.
+     * Called after the item was written through another path.
+     *
+     * @param id the ID of the item
+     */
+    public void evict(Long id) {
+        PendingStock stock = tracked.get(id);
+        if (stock != null) {
+            retire(stock);
+            write(drain(List.of(stock)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stock.coalescing.flush-interval-ms:50}")
+    public void flush() {
+        long now = System.nanoTime();
+        List<PendingStock> candidates = new ArrayList<>(tracked.values());
+        List<PendingStock> stillRetiring = new ArrayList<>();
+        // Retired counters are swept for a grace period to pick up changes that raced with their retirement.
+        for (PendingStock stock = retired.poll(); stock != null; stock = retired.poll()) {
+            candidates.add(stock);
+            if (now - stock.retiredAt < RETIRED_GRACE_NANOS) {
+                stillRetiring.add(stock);
+            }
+        }
+        retired.addAll(stillRetiring);
+        write(drain(candidates));
+
+        for (PendingStock stock : tracked.values()) {
+            if (stock.changes.isEmpty() && now - stock.lastTouched > idleTimeoutNanos) {
+                retire(stock);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        List<PendingStock> candidates = new ArrayList<>(tracked.values());
+        candidates.addAll(retired);
+        write(drain(candidates));
+    }
+
+    private List<Delta> drain(List<PendingStock> candidates) {
+        List<Delta> batch = new ArrayList<>();
+        for (PendingStock stock : candidates) {
+            List<Change> changes = new ArrayList<>();
+            int delta = 0;
+            for (Change change = stock.changes.poll(); change != null; change = stock.changes.poll()) {
+                changes.add(change);
+                delta += change.delta();
+            }
+            if (!changes.isEmpty()) {
+                stock.pending.addAndGet(-delta);
+                batch.add(new Delta(stock, delta, changes));
+            }
+        }
+        return batch;
+    }
+
+    private void write(List<Delta> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        flushBatchSize.record(batch.size());
+        List<Delta> conflicts = new ArrayList<>();
+        try {
+            List<Outcome> outcomes = flushTimer.recordCallable(() -> transactionTemplate.execute(status -> {
+                conflicts.clear();
+                int[][] written = jdbcTemplate.batchUpdate(FLUSH_SQL, batch, batch.size(), (ps, change) -> {
+                    ps.setInt(1, change.delta());
+                    ps.setLong(2, change.stock().id);
+                    ps.setInt(3, change.delta());
+                });
+                List<Outcome> results = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    Delta change = batch.get(i);
+                    if (written[0][i] == 0) {
+                        conflicts.add(change);
+                        results.addAll(replay(change));
+                        continue;
+                    }
+                    // Written to the outbox with the flush, and delivered to event stream subscribers once it commits.
+                    if (change.delta() != 0) {
+                        eventPublisher.publishEvent(InventoryChangeEvent.stockChanged(change.stock().id, change.delta()));
+                    }
+                    change.changes().forEach(c -> results.add(Outcome.APPLIED));
+                }
+                return results;
+            }));
+            for (Delta change : conflicts) {
+                flushConflicts.increment();
+                log.warn("Database refused coalesced stock change {} for item {}, replayed its {} changes one by one",
+                        change.delta(), change.stock().id, change.changes().size());
+                retire(change.stock());
+            }
+            int next = 0;
+            for (Delta change : batch) {
+                for (Change c : change.changes()) {
+                    c.outcome().complete(outcomes.get(next++));
+                }
+                itemCache.evict(change.stock().id);
+            }
+        } catch (Exception e) {
+            // Nothing was written: report every change as failed and reload the quantities that counted them.
+            log.error("Error flushing {} coalesced stock changes: {}", batch.size(), e.getMessage());
+            for (Delta change : batch) {
+                retire(change.stock());
+                change.changes().forEach(c -> c.outcome().completeExceptionally(e));
+            }
+        }
+    }
+
+    /**
+     * Writes the changes of a refused net change one by one, in the order they were accepted.
+     *
+     * @return the outcome of each change
+     */
+    private List<Outcome> replay(Delta refusedDelta) {
+        Long id = refusedDelta.stock().id;
+        List<Outcome> results = new ArrayList<>();
+        Boolean exists = null;
+        int applied = 0;
+        for (Change change : refusedDelta.changes()) {
+            if (jdbcTemplate.update(FLUSH_SQL, change.delta(), id, change.delta()) > 0) {
+                applied += change.delta();
+                results.add(Outcome.APPLIED);
+                continue;
+            }
+            if (exists == null) {
+                exists = inventoryRepo.existsById(id);
+            }
+            if (exists) {
+                refused.increment();
+            }
+            results.add(exists ? Outcome.REJECTED : Outcome.NOT_FOUND);
+        }
+        if (applied != 0) {
+            eventPublisher.publishEvent(InventoryChangeEvent.stockChanged(id, applied));
+        }
+        return results;
+    }
+
+    private Outcome applyDirectly(Long id, int delta) {
+        Boolean applied = transactionTemplate.execute(status -> {
+            if (inventoryRepo.adjustStock(id, delta) == 0) {
+                return false;
+            }
+            eventPublisher.publishEvent(InventoryChangeEvent.stockChanged(id, delta));
+            return true;
+        });
+        if (Boolean.TRUE.equals(applied)) {
+            accepted.increment();
+            itemCache.evict(id);
+            return Outcome.APPLIED;
+        }
+        if (!inventoryRepo.existsById(id)) {
+            return Outcome.NOT_FOUND;
+        }
+        rejected.increment();
+        return Outcome.REJECTED;
+    }
+
+    private PendingStock track(Long id, int quantity) {
+        PendingStock stock = new PendingStock(id, quantity);
+        stock.gauge = Gauge.builder("inventory.stock.pending", stock, pending -> pending.pending.get())
+                .description("Net of the accepted stock changes not written to the database yet")
+                .tag("item", String.valueOf(id))
+                .register(meterRegistry);
+        return stock;
+    }
+
+    private void retire(PendingStock stock) {
+        stock.retiredAt = System.nanoTime();
+        stock.retired = true;
+        if (tracked.remove(stock.id, stock)) {
+            meterRegistry.remove(stock.gauge);
+            retired.add(stock);
+        }
+    }
+
+    private static final class PendingStock {
+        private final Long id;
+        private final AtomicInteger available;
+        private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+        private final AtomicLong pending = new AtomicLong();
+        private volatile boolean retired;
+        private volatile long retiredAt;
+        private volatile long lastTouched = System.nanoTime();
+        private Gauge gauge;
+
+        private PendingStock(Long id, int quantity) {
+            this.id = id;
+            this.available = new AtomicInteger(quantity);
+        }
+
+        private boolean tryApply(int delta, CompletableFuture<Outcome> outcome) {
+            int current;
+            int next;
+            do {
+                current = available.get();
+                next = current + delta;
+                if (next < Constant.MIN_QUANTITY || next > Constant.MAX_QUANTITY) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, next));
+            pending.addAndGet(delta);
+            changes.add(new Change(delta, outcome));
+            lastTouched = System.nanoTime();
+            return true;
+        }
+    }
+
+    private record Change(int delta, CompletableFuture<Outcome> outcome) {
+    }
+
+    private record Delta(PendingStock stock, int delta, List<Change> changes) {
+    }
+}
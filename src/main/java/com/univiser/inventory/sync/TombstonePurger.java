@@ -0,0 +1,39 @@
+package com.univiser.inventory.sync;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.inventory_management.repository.ItemTombstoneRepo;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Drops the tombstones of deleted items once the retention period of the change feed has passed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TombstonePurger {
+
+    @NonNull
+    private final ItemTombstoneRepo itemTombstoneRepo;
+
+    @NonNull
+    private final InventoryProperties properties;
+
+    @Scheduled(fixedDelayString = "${inventory.changes.purge-interval-ms:3600000}", initialDelayString = "${inventory.changes.purge-interval-ms:3600000}")
+    public void purge() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(properties.getChanges().getTombstoneRetention());
+            int purged = itemTombstoneRepo.deleteDeletedBefore(cutoff);
+            if (purged > 0) {
+                log.info("Purged {} tombstones older than {}", purged, cutoff);
+            }
+        } catch (Exception e) {
+            log.error("Error purging tombstones: {}", e.getMessage());
+        }
+    }
+}
@@ -6,4 +6,17 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class Constant {
     public static final String ERROR = "error";
+
+    public static final int MIN_QUANTITY = 0;
+    public static final int MAX_QUANTITY = 10000;
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final String STREAM_FETCH_SIZE = "500";
+    public static final int STREAM_FLUSH_INTERVAL = 500;
+
+    /**
+     * Number of IDs the pooled sequence generators take per nextval: a sequence value V stands for the IDs V-49..V.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
 }
@@ -1,7 +1,8 @@
 package com.univiser.inventory.util;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 
 /**
@@ -9,6 +10,14 @@ import java.util.Date;
  */
 public class DateTimeUtils {
 
+    /**
+     * Immutable and thread-safe, unlike SimpleDateFormat, so one instance serves every caller.
+     */
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private static volatile FormattedSecond current = new FormattedSecond(Long.MIN_VALUE, null);
+
     /**
      * Formats a given Date object into a string with the pattern "yyyy-MM-dd HH:mm:ss".
      *
@@ -16,7 +25,26 @@ public class DateTimeUtils {
      * @return a formatted date string in the pattern "yyyy-MM-dd HH:mm:ss"
      */
     public static String format(Date date) {
-        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        return dateFormat.format(date);
+        return FORMATTER.format(date.toInstant());
+    }
+
+    /**
+     * Returns the current time with the pattern "yyyy-MM-dd HH:mm:ss". The pattern has a resolution of one
+     * second, so the string is formatted once per second and shared by every call within it.
+     *
+     * @return the current time as a formatted string
+     */
+    public static String now() {
+        long second = Math.floorDiv(System.currentTimeMillis(), 1000L);
+        FormattedSecond formatted = current;
+        if (formatted.second() != second) {
+            // Racing threads may format the same second twice; either result is correct.
+            formatted = new FormattedSecond(second, FORMATTER.format(Instant.ofEpochSecond(second)));
+            current = formatted;
+        }
+        return formatted.text();
+    }
+
+    private record FormattedSecond(long second, String text) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.univiser.inventory.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for the entity tags of items, which are their quoted version.
+ */
+public class ETagUtils {
+
+    private static final String ANY = "*";
+
+    /**
+     * Builds the strong entity tag of a version.
+     *
+     * @param version the version of the item
+     * @return the quoted version, or null if the item has no version yet
+     */
+    public static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Checks an If-None-Match header against the current version. Weak tags compare equal to strong ones.
+     *
+     * @param header  the raw header value, possibly a comma separated list
+     * @param version the current version of the item
+     * @return true if the header names the current version or is "*"
+     */
+    public static boolean matches(String header, Long version) {
+        if (header == null || version == null) {
+            return false;
+        }
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+            if (ANY.equals(trimmed) || version.equals(parseTag(trimmed))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the versions an If-Match header accepts. If-Match uses the strong comparison, so weak tags are
+     * refused rather than ignored.
+     *
+     * @param header the raw header value, possibly a comma separated list
+     * @return the listed versions, or an empty list if the header is absent or "*"
+     * @throws IllegalArgumentException if a tag is weak or not a version tag
+     */
+    public static List<Long> parseVersions(String header) {
+        if (header == null || header.isBlank()) {
+            return List.of();
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+            if (ANY.equals(trimmed)) {
+                return List.of();
+            }
+            if (trimmed.startsWith("W/")) {
+                throw new IllegalArgumentException("Weak entity tag " + trimmed + " cannot be used with If-Match");
+            }
+            Long version = parseTag(trimmed);
+            if (version == null) {
+                throw new IllegalArgumentException("Malformed entity tag " + trimmed);
+            }
+            versions.add(version);
+        }
+        return versions;
+    }
+
+    private static Long parseTag(String tag) {
+        String value = tag.startsWith("W/") ? tag.substring(2) : tag;
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.univiser.inventory.util;
+
+import com.univiser.inventory.domain.entity.Item;
+
+/**
+ * Utility class for the short forms of items written at INFO. The full item goes to DEBUG only.
+ */
+public class LogUtils {
+
+    /**
+     * Summarises an item by its identity and stock, leaving out the free text fields.
+     *
+     * @param item the item to summarise
+     * @return a summary such as {@code Item[id=12, version=3, quantity=40]}
+     */
+    public static String summary(Item item) {
+        if (item == null) {
+            return "Item[null]";
+        }
+        return "Item[id=" + item.getId() + ", version=" + item.getVersion() + ", quantity=" + item.getQuantity() + "]";
+    }
+}
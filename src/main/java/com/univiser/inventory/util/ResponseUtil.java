@@ -1,16 +1,11 @@
 package com.univiser.inventory.util;
 
 import com.univiser.inventory.domain.APIResponse;
-import com.univiser.inventory.domain.enums.StatusCode;
-import com.univiser.inventory.domain.enums.StatusMessage;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
-import java.util.Date;
-
 /**
  * Utility class for wrapping API responses in a standardized format.
  * Provides methods to create success and error responses with consistent structure.
@@ -38,8 +33,8 @@ public class ResponseUtil {
      * @return a {@link ResponseEntity} containing the constructed {@link APIResponse} with success details
      */
     public ResponseEntity<APIResponse> wrapSuccess(Object value, HttpStatus httpStatus) {
-        APIResponse apiResponse = APIResponse.builder().statusCode(StatusCode.SUCCESS.valueOf()).origin(servletRequest.getRequestURI()).statusMessage(StatusMessage.SUCCESS.valueOf()).responseTime(DateTimeUtils.format(new Date())).result(value).build();
-        return ResponseEntity.status(httpStatus).body(apiResponse);
+        APIResponse apiResponse = APIResponse.success(servletRequest.getRequestURI(), DateTimeUtils.now(), value);
+        return new ResponseEntity<>(apiResponse, httpStatus);
     }
 
     /**
@@ -51,7 +46,7 @@ public class ResponseUtil {
      * @return a {@link ResponseEntity} containing the constructed {@link APIResponse} with error details
      */
     public ResponseEntity<APIResponse> wrapError(Object value, String errorType, HttpStatus httpStatus) {
-        APIResponse apiResponse = APIResponse.builder().statusCode(StatusCode.FAILURE.valueOf()).statusMessage(StatusMessage.FAILURE.valueOf()).errorType(errorType).origin(servletRequest.getRequestURI()).responseTime(DateTimeUtils.format(new Date())).result(Collections.singletonMap(Constant.ERROR, value)).build();
-        return ResponseEntity.status(httpStatus).body(apiResponse);
+        APIResponse apiResponse = APIResponse.failure(servletRequest.getRequestURI(), DateTimeUtils.now(), errorType, value);
+        return new ResponseEntity<>(apiResponse, httpStatus);
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+-- Schema as generated by Hibernate before migrations were introduced. Existing databases are baselined at
+-- this version and skip it.
+create sequence item_seq start with 1 increment by 50;
+
+create table item (
+    id          bigint         not null,
+    name        varchar(100)   not null,
+    description varchar(500),
+    quantity    integer        not null,
+    price       numeric(12, 2) not null,
+    created_at  timestamp(6),
+    updated_at  timestamp(6),
+    version     bigint         default 0 not null,
+    constraint item_pkey primary key (id),
+    constraint item_quantity_check check (quantity >= 0 and quantity <= 10000)
+);
@@ -0,0 +1,32 @@
+-- Brings databases created by ddl-auto=update in line with the entity. Hibernate never altered existing
+-- columns or constraints, so older databases may still have an identity id, no version column and no checks.
+
+create sequence if not exists item_seq start with 1 increment by 50;
+alter sequence item_seq increment by 50;
+alter table item alter column id drop identity if exists;
+alter table item add column if not exists version bigint default 0 not null;
+
+-- The pooled optimizer hands out the 50 ids ending at each sequence value. A sequence created after rows
+-- were inserted starts below max(id), so move it past them unless it is already ahead.
+do $$
+declare
+    next_block bigint := (select coalesce(max(id), 0) + 50 from item);
+begin
+    if next_block > (select last_value from item_seq) then
+        perform setval('item_seq', next_block, false);
+    end if;
+end $$;
+
+update item set created_at = coalesce(updated_at, localtimestamp) where created_at is null;
+update item set updated_at = created_at where updated_at is null;
+alter table item alter column created_at set not null, alter column updated_at set not null;
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conrelid = 'item'::regclass and conname = 'item_quantity_check') then
+        alter table item add constraint item_quantity_check check (quantity >= 0 and quantity <= 10000);
+    end if;
+    if not exists (select 1 from pg_constraint where conrelid = 'item'::regclass and conname = 'item_price_check') then
+        alter table item add constraint item_price_check check (price >= 0);
+    end if;
+end $$;
@@ -0,0 +1,21 @@
+-- Indexes behind GET /search. Built concurrently so writes to a large catalog are not blocked meanwhile,
+-- which is why this script runs outside a transaction (see the .conf file next to it).
+
+-- Name prefix: lower(name) like 'abc%' regardless of the database collation.
+create index concurrently if not exists item_name_prefix_idx on item (lower(name) text_pattern_ops);
+
+-- Full-text match on name and description. The expression must stay identical to the one rendered by
+-- the fts_match function registered in SearchFunctionContributor.
+create index concurrently if not exists item_search_text_idx
+    on item using gin (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, '')));
+-- With the default statistics every lexeme outside the most common ones is assumed to match ~0.2% of the
+-- rows, so a search for rare words sorted by id walks the primary key and evaluates to_tsvector on every
+-- row instead of using the index above. A larger sample keeps rare lexemes rare.
+alter index item_search_text_idx alter column 1 set statistics 1000;
+
+-- Range filters and keyset pagination: each sort key is paired with id, the tie breaker of the cursor.
+create index concurrently if not exists item_name_id_idx on item (name, id);
+create index concurrently if not exists item_price_id_idx on item (price, id);
+create index concurrently if not exists item_quantity_id_idx on item (quantity, id);
+create index concurrently if not exists item_created_at_id_idx on item (created_at, id);
+create index concurrently if not exists item_updated_at_id_idx on item (updated_at, id);
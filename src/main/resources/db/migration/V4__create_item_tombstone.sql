@@ -0,0 +1,10 @@
+-- Hard deletes leave a tombstone so the change feed can tell mirrors which items disappeared.
+-- Item ids come from a sequence and are never reused, so one row per item is enough.
+create table item_tombstone (
+    item_id    bigint       not null,
+    deleted_at timestamp(6) not null,
+    constraint item_tombstone_pkey primary key (item_id)
+);
+
+-- Keyset order of the change feed and range of the retention purge.
+create index item_tombstone_deleted_at_id_idx on item_tombstone (deleted_at, item_id);
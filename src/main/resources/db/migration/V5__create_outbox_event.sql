@@ -0,0 +1,14 @@
+-- Transactional outbox: every item change is written here in the transaction of the change and relayed to
+-- the outbox publisher afterwards. Rows are deleted once published, so the table only holds the backlog.
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event (
+    id              bigint       not null,
+    aggregate_id    bigint       not null,
+    event_type      varchar(32)  not null,
+    payload         text         not null,
+    created_at      timestamp(6) not null,
+    attempts        integer      default 0 not null,
+    next_attempt_at timestamp(6) not null,
+    constraint outbox_event_pkey primary key (id)
+);
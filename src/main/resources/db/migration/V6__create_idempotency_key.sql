@@ -0,0 +1,17 @@
+-- Durable side of the idempotency store. A key is inserted in the transaction of the write it guards, so a
+-- retry that reaches another instance, or this one after a restart, cannot apply the write twice. The
+-- response is filled in shortly after the request completes.
+create table idempotency_key (
+    idempotency_key varchar(255) not null,
+    fingerprint     varchar(64)  not null,
+    status          integer,
+    content_type    varchar(255),
+    etag            varchar(64),
+    body            text,
+    created_at      timestamp(6) not null,
+    expires_at      timestamp(6) not null,
+    constraint idempotency_key_pkey primary key (idempotency_key)
+);
+
+-- Range of the expiry purge.
+create index idempotency_key_expires_at_idx on idempotency_key (expires_at);
@@ -0,0 +1,3 @@
+-- The relay backs off as a whole when a batch fails to publish, instead of deferring the failed rows, so that
+-- newer events never overtake them. Rows no longer carry a time of their own before which they are skipped.
+alter table outbox_event drop column next_attempt_at;
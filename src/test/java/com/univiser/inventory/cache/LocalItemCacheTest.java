@@ -0,0 +1,179 @@
+package com.univiser.inventory.cache;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.entity.Item;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocalItemCacheTest {
+
+    @Mock
+    private ObjectProvider<DistributedItemCacheBackend> backendProvider;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryProperties properties;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new InventoryProperties();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGet_LoadsOnceAndCountsHitsAndMisses() {
+        LocalItemCache cache = new LocalItemCache(properties, meterRegistry, backendProvider);
+
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "items").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "items").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testGet_ReturnsCopies() {
+        LocalItemCache cache = new LocalItemCache(properties, meterRegistry, backendProvider);
+
+        cache.get(1L, this::load).orElseThrow().setQuantity(0);
+
+        assertEquals(5, cache.get(1L, this::load).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testGet_MissingItemIsNotCached() {
+        LocalItemCache cache = new LocalItemCache(properties, meterRegistry, backendProvider);
+
+        assertTrue(cache.get(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+        cache.get(2L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testPutAndEvict_RefreshAndInvalidateEntry() {
+        LocalItemCache cache = new LocalItemCache(properties, meterRegistry, backendProvider);
+        cache.get(1L, this::load);
+
+        Item updated = item(1L);
+        updated.setQuantity(7);
+        cache.put(updated);
+        assertEquals(7, cache.get(1L, this::load).orElseThrow().getQuantity());
+
+        cache.evict(1L);
+        assertEquals(5, cache.get(1L, this::load).orElseThrow().getQuantity());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testPut_DoesNotWaitForInFlightLoad() throws Exception {
+        LocalItemCache cache = new LocalItemCache(properties, meterRegistry, backendProvider);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Optional<Item>> reader = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+            loading.countDown();
+            awaitQuietly(release);
+            return load(id);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        Item updated = item(1L);
+        updated.setQuantity(7);
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> cache.put(updated));
+        release.countDown();
+
+        assertEquals(5, reader.get(5, TimeUnit.SECONDS).orElseThrow().getQuantity());
+        assertEquals(7, cache.get(1L, this::load).orElseThrow().getQuantity());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBackend_RemoteEvictionInvalidatesLocalEntry() {
+        DistributedItemCacheBackend backend = mock(DistributedItemCacheBackend.class);
+        when(backendProvider.getIfAvailable()).thenReturn(backend);
+        when(backend.get(1L)).thenReturn(Optional.empty());
+        LocalItemCache cache = new LocalItemCache(properties, meterRegistry, backendProvider);
+        ArgumentCaptor<Consumer<Long>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(backend).subscribeToEvictions(listener.capture());
+
+        cache.get(1L, this::load);
+        listener.getValue().accept(1L);
+        cache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+        verify(backend, times(2)).put(any(Item.class), eq(properties.getCache().getExpireAfterWrite()));
+    }
+
+    @Test
+    void testGetAll_LoadsOnlyMissingItemsInOneCall() {
+        LocalItemCache cache = new LocalItemCache(properties, meterRegistry, backendProvider);
+        cache.get(1L, this::load);
+        List<Set<Long>> requested = new ArrayList<>();
+
+        Map<Long, Item> items = cache.getAll(List.of(1L, 2L, 3L), ids -> {
+            requested.add(Set.copyOf(ids));
+            return Map.of(2L, item(2L));
+        });
+
+        assertEquals(List.of(Set.of(2L, 3L)), requested);
+        assertEquals(Set.of(1L, 2L), items.keySet());
+        items.get(2L).setName("changed");
+        assertEquals(Map.of(2L, item(2L)), cache.getAll(List.of(2L), ids -> {
+            throw new AssertionError("Loaded " + ids);
+        }));
+    }
+
+    private Optional<Item> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of(item(id));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Item item(Long id) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Cached");
+        item.setQuantity(5);
+        item.setPrice(BigDecimal.ONE);
+        return item;
+    }
+}
@@ -0,0 +1,38 @@
+package com.univiser.inventory.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CatalogImporterTest {
+
+    @Test
+    void testIds_ExpandsPooledSequenceValues() {
+        assertArrayEquals(new Long[]{51L, 52L, 53L}, CatalogImporter.ids(List.of(100L), 3));
+        assertArrayEquals(new Long[]{1L, 2L, 3L}, CatalogImporter.ids(List.of(1L, 51L), 3));
+        assertEquals(100, CatalogImporter.ids(List.of(150L, 300L), 100).length);
+        assertEquals(300L, CatalogImporter.ids(List.of(150L, 300L), 100)[99]);
+    }
+
+    @Test
+    void testIds_ReturnsNullWhenValuesAreShort() {
+        assertNull(CatalogImporter.ids(List.of(1L), 2));
+        assertNull(CatalogImporter.ids(List.of(), 1));
+        assertArrayEquals(new Long[0], CatalogImporter.ids(List.of(), 0));
+    }
+
+    @Test
+    void testAppendRow_EscapesCopyText() {
+        StringBuilder line = new StringBuilder();
+
+        CatalogImporter.appendRow(line, 7, new CatalogRow(9, null, "Tab\there", "Back\\slash\r\nnext", 3,
+                new BigDecimal("1E+1")));
+
+        assertEquals("7\t9\t\\N\tTab\\there\tBack\\\\slash\\r\\nnext\t3\t10\n", line.toString());
+    }
+}
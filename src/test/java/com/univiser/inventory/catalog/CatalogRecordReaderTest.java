@@ -0,0 +1,90 @@
+package com.univiser.inventory.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogRecordReaderTest {
+
+    @Test
+    void testNext_ReadsCsvByHeader() throws IOException {
+        List<CatalogRecord> records = read(CatalogFormat.CSV, """
+                name,price,quantity,description
+                Widget,9.99,3,"Blue, large"
+
+                "Multi
+                line",1.50,,
+                """);
+
+        assertEquals(2, records.size());
+        assertEquals("Widget", records.get(0).fields().get("name"));
+        assertEquals("Blue, large", records.get(0).fields().get("description"));
+        assertEquals(2, records.get(0).line());
+        assertEquals("Multi\nline", records.get(1).fields().get("name"));
+        assertNull(records.get(1).fields().get("quantity"));
+        assertEquals(4, records.get(1).line());
+    }
+
+    @Test
+    void testNext_RejectsCsvRowWithWrongColumnCount() throws IOException {
+        List<CatalogRecord> records = read(CatalogFormat.CSV, "name,price\nWidget,9.99,extra\nGadget,1\n");
+
+        assertEquals(2, records.size());
+        assertEquals("Expected 2 columns, found 3", records.get(0).error());
+        assertNull(records.get(1).error());
+    }
+
+    @Test
+    void testNext_ReadsNdjsonAndSkipsBadLines() throws IOException {
+        List<CatalogRecord> records = read(CatalogFormat.NDJSON, """
+                {"name":"Widget","price":9.99,"quantity":3,"description":null}
+
+                {"name":
+                [1,2]
+                {"id":7,"name":"Gadget","price":"1.50"}\r
+                """);
+
+        assertEquals(4, records.size());
+        assertEquals("9.99", records.get(0).fields().get("price"));
+        assertTrue(records.get(0).fields().containsKey("description"));
+        assertNull(records.get(0).fields().get("description"));
+        assertTrue(records.get(1).error().startsWith("Malformed JSON"));
+        assertEquals(3, records.get(1).line());
+        assertEquals("Record is not a JSON object", records.get(2).error());
+        assertEquals("7", records.get(3).fields().get("id"));
+        assertEquals(5, records.get(3).line());
+    }
+
+    @Test
+    void testNext_SkipsOverlongNdjsonLine() throws IOException {
+        String longName = "x".repeat(CatalogRecordReader.MAX_LINE_LENGTH);
+        List<CatalogRecord> records = read(CatalogFormat.NDJSON,
+                "{\"name\":\"" + longName + "\"}\n{\"name\":\"Widget\"}");
+
+        assertEquals(2, records.size());
+        assertTrue(records.get(0).error().startsWith("Record is longer than"));
+        assertEquals("Widget", records.get(1).fields().get("name"));
+        assertEquals(2, records.get(1).line());
+    }
+
+    private static List<CatalogRecord> read(CatalogFormat format, String content) throws IOException {
+        List<CatalogRecord> records = new ArrayList<>();
+        try (CatalogRecordReader reader = CatalogRecordReader.open(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format, new ObjectMapper())) {
+            CatalogRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,90 @@
+package com.univiser.inventory.catalog;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CatalogValidatorTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static CatalogValidator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = new CatalogValidator(validatorFactory.getValidator());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testValidate_ConvertsValidRecord() {
+        CatalogValidator.Result result = validator.validate(record(Map.of("id", "12", "name", "Widget",
+                "quantity", " 4 ", "price", "9.90")));
+
+        assertNull(result.error());
+        assertEquals(new CatalogRow(3, 12L, "Widget", null, 4, new BigDecimal("9.90")), result.row());
+    }
+
+    @Test
+    void testValidate_DefaultsQuantityToZero() {
+        CatalogValidator.Result result = validator.validate(record(Map.of("name", "Widget", "price", "1")));
+
+        assertNull(result.row().id());
+        assertEquals(0, result.row().quantity());
+    }
+
+    @Test
+    void testValidate_AppliesItemConstraints() {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("name", "W");
+        fields.put("quantity", "10001");
+        fields.put("price", "1.999");
+
+        CatalogValidator.Result result = validator.validate(record(fields));
+
+        assertNull(result.row());
+        assertEquals("name: Name must be between 2 and 100 characters, "
+                + "price: Price must have up to 10 digits and 2 decimal places, "
+                + "quantity: Quantity cannot exceed 10,000", result.error());
+    }
+
+    @Test
+    void testValidate_RejectsUnparsableValues() {
+        CatalogValidator.Result result = validator.validate(record(Map.of("id", "abc", "name", "Widget",
+                "quantity", "many", "price", "free")));
+
+        assertEquals("id: must be a positive integer, price: must be a number, quantity: must be an integer",
+                result.error());
+    }
+
+    @Test
+    void testValidate_RequiresNameAndPrice() {
+        CatalogValidator.Result result = validator.validate(record(Map.of()));
+
+        assertEquals("name: Name cannot be blank, price: Price cannot be null", result.error());
+    }
+
+    @Test
+    void testValidate_KeepsReaderError() {
+        CatalogValidator.Result result = validator.validate(CatalogRecord.malformed(5, "{", "Malformed JSON"));
+
+        assertEquals("Malformed JSON", result.error());
+    }
+
+    private static CatalogRecord record(Map<String, String> fields) {
+        return new CatalogRecord(3, fields, fields, null);
+    }
+}
@@ -0,0 +1,108 @@
+package com.univiser.inventory.datasource;
+
+import com.univiser.inventory.config.InventoryProperties.ReplicaSelection;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    @AfterEach
+    void tearDown() {
+        ReadRouting.clear();
+    }
+
+    @Test
+    void testGetConnection_RoundRobinAcrossReplicas() throws SQLException {
+        HikariDataSource first = replica("replica-0");
+        HikariDataSource second = replica("replica-1");
+        ReplicaDataSource dataSource = dataSource(ReplicaSelection.ROUND_ROBIN, first, second);
+
+        for (int i = 0; i < 4; i++) {
+            dataSource.getConnection();
+        }
+
+        verify(first, times(2)).getConnection();
+        verify(second, times(2)).getConnection();
+    }
+
+    @Test
+    void testGetConnection_PrefersLeastConnections() throws SQLException {
+        HikariDataSource busy = replica("replica-0");
+        HikariDataSource idle = replica("replica-1");
+        activeConnections(busy, 7);
+        activeConnections(idle, 2);
+        ReplicaDataSource dataSource = dataSource(ReplicaSelection.LEAST_CONNECTIONS, busy, idle);
+
+        dataSource.getConnection();
+
+        verify(idle).getConnection();
+        verify(busy, never()).getConnection();
+    }
+
+    @Test
+    void testGetConnection_SkipsFailedReplicaThenFallsBackToPrimary() throws SQLException {
+        HikariDataSource broken = replica("replica-0");
+        when(broken.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaDataSource dataSource = dataSource(ReplicaSelection.ROUND_ROBIN, broken);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        // Tried once, then skipped for the cooldown.
+        verify(broken, times(1)).getConnection();
+        assertEquals(1.0, meterRegistry.get("inventory.datasource.replica.failures").counter().count());
+        assertEquals(2.0, meterRegistry.get("inventory.datasource.replica.fallbacks").counter().count());
+    }
+
+    @Test
+    void testGetConnection_PinnedThreadUsesPrimary() throws SQLException {
+        HikariDataSource replica = replica("replica-0");
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaDataSource dataSource = dataSource(ReplicaSelection.ROUND_ROBIN, replica);
+
+        ReadRouting.pinToPrimary();
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verify(replica, never()).getConnection();
+        assertEquals(0.0, meterRegistry.get("inventory.datasource.replica.fallbacks").counter().count());
+    }
+
+    private ReplicaDataSource dataSource(ReplicaSelection selection, HikariDataSource... replicas) {
+        return new ReplicaDataSource(primary, List.of(replicas), selection, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    private static HikariDataSource replica(String name) throws SQLException {
+        HikariDataSource replica = mock(HikariDataSource.class);
+        when(replica.getPoolName()).thenReturn(name);
+        when(replica.getConnection()).thenReturn(mock(Connection.class));
+        return replica;
+    }
+
+    private static void activeConnections(HikariDataSource replica, int active) {
+        HikariPoolMXBean mxBean = mock(HikariPoolMXBean.class);
+        when(mxBean.getActiveConnections()).thenReturn(active);
+        when(replica.getHikariPoolMXBean()).thenReturn(mxBean);
+    }
+}
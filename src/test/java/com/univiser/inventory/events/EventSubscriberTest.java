@@ -0,0 +1,143 @@
+package com.univiser.inventory.events;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.entity.Item;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventSubscriberTest {
+
+    private InventoryProperties.Events settings;
+    private Counter dropped;
+
+    @BeforeEach
+    void setUp() {
+        settings = new InventoryProperties().getEvents();
+        settings.setBufferSize(2);
+        dropped = new SimpleMeterRegistry().counter("dropped");
+    }
+
+    @Test
+    void testOffer_CoalescesChangesOfSameItem() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(3);
+        EventSubscriber subscriber = new EventSubscriber(emitter, null, settings, dropped, closed -> { });
+        subscriber.offer(InventoryChangeEvent.stockChanged(1L, 5));
+        subscriber.offer(InventoryChangeEvent.updated(item(1L)));
+        subscriber.offer(InventoryChangeEvent.stockChanged(1L, -2));
+        subscriber.offer(InventoryChangeEvent.stockChanged(1L, -1));
+        subscriber.offer(InventoryChangeEvent.deleted(2L));
+
+        Thread.ofVirtual().start(subscriber);
+
+        assertTrue(emitter.received.await(5, TimeUnit.SECONDS));
+        subscriber.close();
+        assertEquals(List.of(InventoryChangeEvent.Type.UPDATED, InventoryChangeEvent.Type.STOCK_CHANGED,
+                InventoryChangeEvent.Type.DELETED), emitter.events.stream().map(event -> ((InventoryChangeEvent) event).type()).toList());
+        assertEquals(-3, ((InventoryChangeEvent) emitter.events.get(1)).delta());
+    }
+
+    @Test
+    void testOffer_SlowClientDoesNotBlockWriter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(1) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        EventSubscriber subscriber = new EventSubscriber(emitter, null, settings, dropped, closed -> { });
+        subscriber.offer(InventoryChangeEvent.deleted(0L));
+        Thread.ofVirtual().start(subscriber);
+
+        long start = System.nanoTime();
+        for (long id = 1; id <= 10_000; id++) {
+            subscriber.offer(InventoryChangeEvent.deleted(id));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertTrue(elapsedMillis < 1_000, "Writer waited " + elapsedMillis + " ms on a stuck client");
+        assertTrue(dropped.count() >= 9_997, "Dropped " + dropped.count());
+        assertTrue(emitter.received.await(5, TimeUnit.SECONDS));
+        subscriber.close();
+    }
+
+    @Test
+    void testOffer_DisconnectPolicyClosesLaggingStream() throws Exception {
+        settings.setOverflowPolicy(InventoryProperties.OverflowPolicy.DISCONNECT);
+        CountDownLatch closed = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(1);
+        EventSubscriber subscriber = new EventSubscriber(emitter, null, settings, dropped, unused -> closed.countDown());
+        for (long id = 1; id <= 3; id++) {
+            subscriber.offer(InventoryChangeEvent.deleted(id));
+        }
+
+        Thread.ofVirtual().start(subscriber);
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertTrue(emitter.completed);
+        assertEquals(List.of(), emitter.events);
+    }
+
+    @Test
+    void testAccepts_FiltersByItemIds() {
+        EventSubscriber subscriber = new EventSubscriber(new RecordingEmitter(0), java.util.Set.of(1L), settings,
+                dropped, closed -> { });
+
+        assertTrue(subscriber.accepts(InventoryChangeEvent.deleted(1L)));
+        assertEquals(false, subscriber.accepts(InventoryChangeEvent.deleted(2L)));
+    }
+
+    private static Item item(Long id) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Item " + id);
+        return item;
+    }
+
+    /**
+     * Keeps the data of every event sent instead of writing to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<Object> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        volatile boolean completed;
+
+        RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            for (DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof InventoryChangeEvent || data.getData() instanceof Map) {
+                    events.add(data.getData());
+                    received.countDown();
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+}
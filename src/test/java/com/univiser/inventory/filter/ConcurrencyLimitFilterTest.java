@@ -0,0 +1,123 @@
+package com.univiser.inventory.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.util.ResponseUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final String BASE = "/api/v1/inventory-management";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getConcurrencyLimit().setInitialLimit(2);
+        properties.getConcurrencyLimit().setMinLimit(1);
+        properties.getConcurrencyLimit().setWindowSize(1);
+        properties.getConcurrencyLimit().setBackoffRatio(0.5);
+        properties.getConcurrencyLimit().setRetryAfter(Duration.ofSeconds(3));
+        meterRegistry = new SimpleMeterRegistry();
+        ResponseUtil responseUtil = new ResponseUtil(new MockHttpServletRequest("GET", BASE + "/1"));
+        filter = new ConcurrencyLimitFilter(properties, responseUtil, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void testBulkRequestHoldingItsShare_ShedsBulkButNotItemReads() throws Exception {
+        MockHttpServletRequest streaming = request("GET", "/stream");
+        streaming.setAsyncSupported(true);
+        filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        MockHttpServletResponse bulk = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/fetch-all"), bulk, new MockFilterChain());
+        MockHttpServletResponse item = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/1"), item, new MockFilterChain());
+        streaming.getAsyncContext().complete();
+
+        assertEquals(503, bulk.getStatus());
+        assertEquals("3", bulk.getHeader("Retry-After"));
+        assertTrue(bulk.getContentAsString().contains("Service busy!"));
+        assertEquals(200, item.getStatus());
+        assertEquals(1.0, meterRegistry.get("inventory.concurrency-limit.rejected").tag("priority", "bulk")
+                .counter().count());
+        assertEquals(0.0, meterRegistry.get("inventory.concurrency-limit.in-flight").gauge().value());
+    }
+
+    @Test
+    void testServiceUnavailable_ShrinksLimit() throws Exception {
+        FilterChain unavailable = (request, response) ->
+                ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+        filter.doFilter(request("GET", "/1"), new MockHttpServletResponse(), unavailable);
+
+        assertEquals(1.0, meterRegistry.get("inventory.concurrency-limit.limit").gauge().value());
+    }
+
+    @Test
+    void testConnectionTimeout_ShrinksLimit() {
+        FilterChain timingOut = (request, response) -> {
+            throw new CannotCreateTransactionException("Could not open JPA EntityManager",
+                    new SQLTransientConnectionException("Connection is not available, request timed out"));
+        };
+
+        assertThrows(CannotCreateTransactionException.class,
+                () -> filter.doFilter(request("GET", "/1"), new MockHttpServletResponse(), timingOut));
+
+        assertEquals(1.0, meterRegistry.get("inventory.concurrency-limit.limit").gauge().value());
+        assertEquals(0.0, meterRegistry.get("inventory.concurrency-limit.in-flight").gauge().value());
+    }
+
+    @Test
+    void testServerErrorOfTheRequest_KeepsLimit() throws Exception {
+        FilterChain failing = (request, response) ->
+                ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        FilterChain throwing = (request, response) -> {
+            throw new IllegalStateException("bug");
+        };
+
+        filter.doFilter(request("GET", "/1"), new MockHttpServletResponse(), failing);
+        assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request("GET", "/1"), new MockHttpServletResponse(), throwing));
+
+        assertEquals(2.0, meterRegistry.get("inventory.concurrency-limit.limit").gauge().value());
+        assertEquals(0.0, meterRegistry.get("inventory.concurrency-limit.in-flight").gauge().value());
+    }
+
+    @Test
+    void testClientError_KeepsLimit() throws Exception {
+        FilterChain notFound = (request, response) ->
+                ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+
+        filter.doFilter(request("GET", "/1"), new MockHttpServletResponse(), notFound);
+
+        assertEquals(2.0, meterRegistry.get("inventory.concurrency-limit.limit").gauge().value());
+    }
+
+    @Test
+    void testActuatorAndEvents_BypassLimit() {
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/health")));
+        assertTrue(filter.shouldNotFilter(request("GET", "/events")));
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        return new MockHttpServletRequest(method, BASE + path);
+    }
+}
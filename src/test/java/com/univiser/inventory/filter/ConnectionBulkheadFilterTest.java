@@ -0,0 +1,106 @@
+package com.univiser.inventory.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.util.ResponseUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionBulkheadFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionBulkheadFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getBulkhead().setMaxConcurrent(1);
+        properties.getBulkhead().setMaxWait(Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+        ResponseUtil responseUtil = new ResponseUtil(new MockHttpServletRequest("GET", "/api/v1/inventory-management/1"));
+        filter = new ConnectionBulkheadFilter(properties, responseUtil, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void testSequentialRequests_ReuseSlot() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        filter.doFilter(request(), first, new MockFilterChain());
+        filter.doFilter(request(), second, new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(0.0, meterRegistry.get("inventory.bulkhead.active").gauge().value());
+    }
+
+    @Test
+    void testSaturated_RejectsWith503AfterMaxWait() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(request(), new MockHttpServletResponse(), blocking);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request(), rejected, new MockFilterChain());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Service busy!"));
+        assertEquals(1.0, meterRegistry.get("inventory.bulkhead.rejected").counter().count());
+    }
+
+    @Test
+    void testAsyncRequest_HoldsSlotUntilComplete() throws Exception {
+        MockHttpServletRequest streaming = request();
+        streaming.setAsyncSupported(true);
+        filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        MockHttpServletResponse whileStreaming = new MockHttpServletResponse();
+        filter.doFilter(request(), whileStreaming, new MockFilterChain());
+        streaming.getAsyncContext().complete();
+        MockHttpServletResponse afterStreaming = new MockHttpServletResponse();
+        filter.doFilter(request(), afterStreaming, new MockFilterChain());
+
+        assertEquals(503, whileStreaming.getStatus());
+        assertEquals(200, afterStreaming.getStatus());
+    }
+
+    @Test
+    void testActuator_BypassesBulkhead() {
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/health")));
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/v1/inventory-management/1");
+    }
+}
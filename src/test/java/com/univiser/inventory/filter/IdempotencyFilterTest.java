@@ -0,0 +1,272 @@
+package com.univiser.inventory.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.entity.IdempotencyRecord;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import com.univiser.inventory.idempotency.IdempotencyStore;
+import com.univiser.inventory.util.ResponseUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class IdempotencyFilterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyStore store;
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getIdempotency().setMaxWait(Duration.ofSeconds(5));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jdbcTemplate = mock(JdbcTemplate.class);
+        store = spy(new IdempotencyStore(jdbcTemplate, properties, meterRegistry));
+        ResponseUtil responseUtil = new ResponseUtil(new MockHttpServletRequest("POST", "/api/v1/inventory-management"));
+        filter = new IdempotencyFilter(store, properties, responseUtil, new ObjectMapper(), meterRegistry);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void testRepeatedKey_ReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        filter.doFilter(request("key-1", "{\"name\":\"Pen\"}"), first, creating(201));
+        filter.doFilter(request("key-1", "{\"name\":\"Pen\"}"), second, creating(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("\"0\"", second.getHeader("ETag"));
+        assertEquals("true", second.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        assertNull(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+    }
+
+    @Test
+    void testConcurrentDuplicate_WaitsForFirstRequest() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            creating(201).doFilter(request, response);
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(request("key-2", "{}"), first, slow);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse duplicate = new MockHttpServletResponse();
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(request("key-2", "{}"), duplicate, creating(201));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        waiting.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, executions.get());
+        assertEquals(201, duplicate.getStatus());
+        assertEquals(first.getContentAsString(), duplicate.getContentAsString());
+    }
+
+    @Test
+    void testKeyReusedForOtherRequest_Returns422() throws Exception {
+        MockHttpServletResponse reused = new MockHttpServletResponse();
+
+        filter.doFilter(request("key-3", "{\"name\":\"Pen\"}"), new MockHttpServletResponse(), creating(201));
+        filter.doFilter(request("key-3", "{\"name\":\"Ink\"}"), reused, creating(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(422, reused.getStatus());
+        assertTrue(reused.getContentAsString().contains("Idempotency key reused!"));
+    }
+
+    @Test
+    void testServerError_IsNotStored() throws Exception {
+        MockHttpServletResponse retried = new MockHttpServletResponse();
+
+        filter.doFilter(request("key-4", "{}"), new MockHttpServletResponse(), creating(500));
+        filter.doFilter(request("key-4", "{}"), retried, creating(201));
+
+        assertEquals(2, executions.get());
+        assertEquals(201, retried.getStatus());
+    }
+
+    @Test
+    void testServerErrorAfterWriteCommitted_IsStored() throws Exception {
+        MockHttpServletResponse retried = new MockHttpServletResponse();
+        FilterChain failingAfterWrite = (request, response) -> {
+            store.onChange(InventoryChangeEvent.deleted(7L));
+            creating(500).doFilter(request, response);
+        };
+
+        filter.doFilter(request("key-9", "{}"), new MockHttpServletResponse(), failingAfterWrite);
+        filter.doFilter(request("key-9", "{}"), retried, creating(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(500, retried.getStatus());
+        assertEquals("true", retried.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+    }
+
+    @Test
+    void testKeyWithOverdueResponse_IsAnsweredAsApplied() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("key-10", "{}"), response, appliedElsewhere("key-10", LocalDateTime.now().minusMinutes(1)));
+
+        assertEquals(409, response.getStatus());
+        assertNull(response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Request already applied!"));
+        verify(store).settleLost(eq("key-10"), any(), any());
+    }
+
+    @Test
+    void testKeyWithPendingResponse_IsInProgress() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("key-11", "{}"), response, appliedElsewhere("key-11", LocalDateTime.now()));
+
+        assertEquals(409, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        verify(store, never()).settleLost(any(), any(), any());
+    }
+
+    @Test
+    void testKeyAppliedElsewhere_RollsBackAndReplaysDurableResponse() throws Exception {
+        MockHttpServletRequest request = request("key-5", "{}");
+        String body = "{\"statusMessage\":\"Success\",\"result\":{\"id\":7}}";
+        doThrow(new DuplicateKeyException("idempotency_key_pkey"))
+                .when(jdbcTemplate).update(anyString(), any(), any(), any(), any());
+        doReturn(Optional.of(new IdempotencyRecord("key-5", IdempotencyFilter.fingerprint(request, "{}".getBytes(StandardCharsets.UTF_8)),
+                201, "application/json", "\"0\"", body, LocalDateTime.now(), LocalDateTime.now().plusHours(1))))
+                .when(store).findDurable("key-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // The write finds its key taken and rolls back; the service turns that into a 500.
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            executions.incrementAndGet();
+            try {
+                store.onChange(InventoryChangeEvent.deleted(7L));
+            } catch (IdempotencyStore.DuplicateRequestException e) {
+                ((HttpServletResponse) servletResponse).setStatus(500);
+                servletResponse.getWriter().write("{\"statusMessage\":\"Error creating Item!\"}");
+            }
+        });
+
+        assertEquals(1, executions.get());
+        assertEquals(201, response.getStatus());
+        assertEquals(body, response.getContentAsString());
+        assertEquals("true", response.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+    }
+
+    @Test
+    void testRequestWithoutKey_IsNotFiltered() {
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("POST", "/api/v1/inventory-management")));
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/v1/inventory-management/1");
+        read.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "key-6");
+        assertTrue(filter.shouldNotFilter(read));
+    }
+
+    @Test
+    void testCatalogImport_IsNotFiltered() {
+        MockHttpServletRequest upload = new MockHttpServletRequest("POST", "/api/v1/inventory-management/catalog/import");
+        upload.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "key-7");
+        assertTrue(filter.shouldNotFilter(upload));
+    }
+
+    @Test
+    void testOversizedBody_IsRefusedUnread() throws Exception {
+        MockHttpServletRequest request = request("key-8", "x".repeat(IdempotencyFilter.MAX_BODY_BYTES + 1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, creating(201));
+
+        assertEquals(413, response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    /**
+     * Answers like the create endpoint: a JSON body echoing the request and the ETag of version 0.
+     */
+    private FilterChain creating(int status) {
+        return (request, response) -> {
+            int execution = executions.incrementAndGet();
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            HttpServletResponse servletResponse = (HttpServletResponse) response;
+            servletResponse.setStatus(status);
+            servletResponse.setContentType("application/json");
+            servletResponse.setHeader("ETag", "\"0\"");
+            servletResponse.getWriter().write("{\"execution\":" + execution + ",\"request\":" + body + "}");
+        };
+    }
+
+    /**
+     * Runs into a key another instance committed at the given time without storing its response yet.
+     */
+    private FilterChain appliedElsewhere(String key, LocalDateTime createdAt) {
+        doThrow(new DuplicateKeyException("idempotency_key_pkey"))
+                .when(jdbcTemplate).update(anyString(), any(), any(), any(), any());
+        doReturn(Optional.of(new IdempotencyRecord(key, IdempotencyFilter.fingerprint(request(key, "{}"), "{}".getBytes(StandardCharsets.UTF_8)),
+                null, null, null, null, createdAt, createdAt.plusHours(1))))
+                .when(store).findDurable(key);
+        return (servletRequest, servletResponse) -> {
+            try {
+                store.onChange(InventoryChangeEvent.deleted(7L));
+            } catch (IdempotencyStore.DuplicateRequestException e) {
+                ((HttpServletResponse) servletResponse).setStatus(500);
+            }
+        };
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/inventory-management");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,81 @@
+package com.univiser.inventory.filter;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.datasource.ReadRouting;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTest {
+
+    private ReadYourWritesFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getReplicas().setReadYourWritesWindow(Duration.ofSeconds(5));
+        filter = new ReadYourWritesFilter(properties);
+    }
+
+    @Test
+    void testWrite_PinsRequestAndSetsWindowCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/inventory-management"), response, recording(pinned));
+
+        assertTrue(pinned.get());
+        assertNotNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+        assertFalse(ReadRouting.isPinnedToPrimary());
+    }
+
+    @Test
+    void testRead_PinnedOnlyWithinWindow() throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        filter.doFilter(read(null), new MockHttpServletResponse(), recording(pinned));
+        assertFalse(pinned.get());
+
+        filter.doFilter(read(System.currentTimeMillis() + 3_000), new MockHttpServletResponse(), recording(pinned));
+        assertTrue(pinned.get());
+
+        filter.doFilter(read(System.currentTimeMillis() - 1), new MockHttpServletResponse(), recording(pinned));
+        assertFalse(pinned.get());
+
+        // Further out than the window allows, so not honoured.
+        filter.doFilter(read(System.currentTimeMillis() + 60_000), new MockHttpServletResponse(), recording(pinned));
+        assertFalse(pinned.get());
+    }
+
+    @Test
+    void testRead_DoesNotSetCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(read(null), response, recording(new AtomicBoolean()));
+
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+    }
+
+    private static MockHttpServletRequest read(Long until) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/inventory-management/1");
+        if (until != null) {
+            request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, until.toString()));
+        }
+        return request;
+    }
+
+    private static FilterChain recording(AtomicBoolean pinned) {
+        return (request, response) -> pinned.set(ReadRouting.isPinnedToPrimary());
+    }
+}
@@ -0,0 +1,69 @@
+package com.univiser.inventory.filter;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.sql.SqlStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlAccountingFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlAccountingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getSql().setStatementBudget(3);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SqlAccountingFilter(properties, meterRegistry);
+    }
+
+    @Test
+    void testRequest_RecordsStatementsPerEndpoint() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), running(2));
+        filter.doFilter(request(), new MockHttpServletResponse(), running(3));
+
+        assertEquals(2, meterRegistry.get("inventory.sql.statements").tag("uri", "/api/v1/inventory-management/{id}")
+                .summary().count());
+        assertEquals(5.0, meterRegistry.get("inventory.sql.statements").summary().totalAmount());
+        assertEquals(0.0, meterRegistry.get("inventory.sql.budget.exceeded").counter().count());
+        assertNull(SqlStats.current());
+    }
+
+    @Test
+    void testRequestOverBudget_IsCounted() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), running(4));
+
+        assertEquals(1.0, meterRegistry.get("inventory.sql.budget.exceeded").tag("method", "GET").counter().count());
+    }
+
+    @Test
+    void testActuator_IsNotAccounted() {
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/prometheus")));
+    }
+
+    /**
+     * Stands in for a handler that runs the given number of statements through the DataSource proxy.
+     */
+    private static FilterChain running(int statements) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/inventory-management/{id}");
+            for (int i = 0; i < statements; i++) {
+                SqlStats.current().record(1_000L);
+            }
+        };
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/v1/inventory-management/1");
+    }
+}
@@ -0,0 +1,97 @@
+package com.univiser.inventory.format;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.dto.CursorPage;
+import com.univiser.inventory.domain.dto.StockChange;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.util.ResponseUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProtobufResponseConverterTest {
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper protobufMapper = Jackson2ObjectMapperBuilder.json().factory(new ProtobufFactory()).build();
+    private final ProtobufSchema schema = ProtobufResponseConverter.loadSchema();
+    private final ProtobufResponseConverter converter = new ProtobufResponseConverter(protobufMapper, schema, jsonMapper);
+    private ResponseUtil responseUtil;
+
+    @BeforeEach
+    void setUp() {
+        responseUtil = new ResponseUtil(new MockHttpServletRequest("GET", "/api/v1/inventory-management/1"));
+    }
+
+    @Test
+    void testWrite_EncodesItemAsItemMessage() throws Exception {
+        JsonNode decoded = write(responseUtil.wrapSuccess(item(1L), HttpStatus.OK).getBody());
+
+        assertEquals("Success", decoded.get("statusMessage").asText());
+        assertEquals("0", decoded.get("statusCode").asText());
+        assertEquals("/api/v1/inventory-management/1", decoded.get("origin").asText());
+        JsonNode item = decoded.get("item");
+        assertEquals(1L, item.get("id").asLong());
+        assertEquals("Widget 1", item.get("name").asText());
+        assertFalse(item.has("description"));
+        assertEquals(7, item.get("quantity").asInt());
+        assertEquals(9.99, item.get("price").asDouble());
+        assertEquals("2024-01-01T10:00:00", item.get("createdAt").asText());
+        assertEquals(3L, item.get("version").asLong());
+    }
+
+    @Test
+    void testWrite_EncodesPageAsRepeatedItems() throws Exception {
+        JsonNode decoded = write(responseUtil.wrapSuccess(new CursorPage<>(List.of(item(1L), item(2L)), "next"),
+                HttpStatus.OK).getBody());
+
+        assertEquals(2, decoded.get("items").size());
+        assertEquals(2L, decoded.get("items").get(1).get("id").asLong());
+        assertEquals("next", decoded.get("nextCursor").asText());
+        assertFalse(decoded.has("item"));
+    }
+
+    @Test
+    void testWrite_EncodesOtherResultsAsJson() throws Exception {
+        JsonNode decoded = write(responseUtil.wrapSuccess(new StockChange(1L, -2), HttpStatus.OK).getBody());
+
+        assertEquals(jsonMapper.readTree(jsonMapper.writeValueAsString(new StockChange(1L, -2))),
+                jsonMapper.readTree(decoded.get("result").asText()));
+    }
+
+    @Test
+    void testWrite_EncodesError() throws Exception {
+        JsonNode decoded = write(responseUtil.wrapError("Item not found!", "No item with ID 1", HttpStatus.NOT_FOUND).getBody());
+
+        assertEquals("Failure", decoded.get("statusMessage").asText());
+        assertEquals("No item with ID 1", decoded.get("errorType").asText());
+        assertEquals("Item not found!", decoded.get("error").asText());
+        assertTrue(decoded.path("items").isEmpty());
+    }
+
+    private JsonNode write(APIResponse response) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(response, ProtobufResponseConverter.APPLICATION_PROTOBUF, message);
+        assertEquals(ProtobufResponseConverter.APPLICATION_PROTOBUF, message.getHeaders().getContentType());
+        return protobufMapper.readerFor(JsonNode.class).with(schema).readValue(message.getBodyAsBytes());
+    }
+
+    private static Item item(Long id) {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 10, 0);
+        return new Item(id, "Widget " + id, null, 7, new BigDecimal("9.99"), at, at, 3L);
+    }
+}
@@ -0,0 +1,172 @@
+package com.univiser.inventory.idempotency;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.entity.IdempotencyRecord;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.database=H2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+class IdempotencyStoreTest {
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private InventoryProperties properties;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        properties = new InventoryProperties();
+        store = new IdempotencyStore(jdbcTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from idempotency_key");
+        inventoryRepo.deleteAll();
+    }
+
+    @Test
+    void testOnChange_DuplicateKeyRollsBackTheWrite() {
+        createUnderKey("key-1");
+
+        assertThrows(IdempotencyStore.DuplicateRequestException.class, () -> createUnderKey("key-1"));
+
+        assertEquals(1, inventoryRepo.count());
+        assertEquals(1, countKeys());
+    }
+
+    @Test
+    void testOnChange_RolledBackWriteReleasesKey() {
+        store.begin("key-2", "fingerprint");
+        transactionTemplate.executeWithoutResult(status -> {
+            store.onChange(InventoryChangeEvent.deleted(1L));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(store.end().isClaimed());
+        assertEquals(0, countKeys());
+    }
+
+    @Test
+    void testFlushResponses_StoresResponseOfClaimedKey() {
+        IdempotencyStore.Claim claim = createUnderKey("key-3");
+        IdempotencyStore.Entry entry = IdempotencyStore.Entry.of("fingerprint");
+        store.reserve("key-3", entry);
+
+        store.complete("key-3", entry, claim, new StoredResponse(201, "application/json", "\"0\"",
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+        store.flushResponses();
+
+        IdempotencyRecord record = store.findDurable("key-3").orElseThrow();
+        assertEquals("fingerprint", record.getFingerprint());
+        assertEquals(201, record.getStatus());
+        assertEquals("\"0\"", record.getEtag());
+        assertEquals("{\"id\":1}", record.getBody());
+        assertTrue(entry.response().isDone());
+    }
+
+    @Test
+    void testFlushResponses_KeepsBinaryBodyIntact() {
+        IdempotencyStore.Claim claim = createUnderKey("key-4");
+        IdempotencyStore.Entry entry = IdempotencyStore.Entry.of("fingerprint");
+        store.reserve("key-4", entry);
+        byte[] body = {0x3a, 0x29, 0x0a, 0x05, (byte) 0xfa, (byte) 0x80, 0x00};
+
+        store.complete("key-4", entry, claim, new StoredResponse(201, "application/x-jackson-smile", "\"0\"", body));
+        store.flushResponses();
+
+        IdempotencyRecord record = store.findDurable("key-4").orElseThrow();
+        StoredResponse replayed = StoredResponse.decode(record.getStatus(), record.getContentType(), record.getEtag(),
+                record.getBody());
+        assertArrayEquals(body, replayed.body());
+    }
+
+    @Test
+    void testSettleLost_KeepsTheResponseStoredFirst() {
+        IdempotencyStore.Claim claim = createUnderKey("key-5");
+        IdempotencyStore.Entry entry = IdempotencyStore.Entry.of("fingerprint");
+        store.reserve("key-5", entry);
+        store.complete("key-5", entry, claim, new StoredResponse(201, "application/json", null,
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+        store.flushResponses();
+
+        store.settleLost("key-5", IdempotencyStore.Entry.of("fingerprint"), new StoredResponse(409, "application/json",
+                null, "{}".getBytes(StandardCharsets.UTF_8)));
+        store.flushResponses();
+
+        assertEquals(201, store.findDurable("key-5").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testPurgeExpired_DropsOnlyExpiredKeys() {
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        jdbcTemplate.update(IdempotencyStore.CLAIM_SQL, "expired", "fingerprint", yesterday, yesterday.plusHours(1));
+        createUnderKey("live");
+
+        store.purgeExpired();
+
+        assertEquals(1, countKeys());
+        assertTrue(store.findDurable("live").isPresent());
+    }
+
+    private IdempotencyStore.Claim createUnderKey(String key) {
+        store.begin(key, "fingerprint");
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Item item = new Item();
+                item.setName("Retried item");
+                item.setQuantity(1);
+                item.setPrice(BigDecimal.ONE);
+                Item saved = inventoryRepo.saveAndFlush(item);
+                store.onChange(InventoryChangeEvent.created(saved));
+            });
+        } catch (RuntimeException e) {
+            store.end();
+            throw e;
+        }
+        return store.end();
+    }
+
+    private int countKeys() {
+        return jdbcTemplate.queryForObject("select count(*) from idempotency_key", Integer.class);
+    }
+}
@@ -0,0 +1,167 @@
+package com.univiser.inventory.limit;
+
+import com.univiser.inventory.config.InventoryProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private InventoryProperties.ConcurrencyLimit properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InventoryProperties.ConcurrencyLimit();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(100);
+        properties.setWindowSize(10);
+        properties.setNormalShare(0.8);
+        properties.setBulkShare(0.5);
+    }
+
+    @Test
+    void testAdmission_LowerPrioritiesShedFirst() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.BULK));
+        }
+        assertFalse(limiter.tryAcquire(RequestPriority.BULK));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.NORMAL));
+        }
+        assertFalse(limiter.tryAcquire(RequestPriority.NORMAL));
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertFalse(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertEquals(10, limiter.getInFlight());
+
+        limiter.release(RequestPriority.BULK);
+
+        assertEquals(9, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+    }
+
+    @Test
+    void testSteadyLatencyUnderLoad_GrowsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int window = 0; window < 5; window++) {
+            runWindow(limiter, limiter.getLimit(), FAST);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void testRisingLatency_ShrinksLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        runWindow(limiter, limiter.getLimit(), FAST);
+        int before = limiter.getLimit();
+
+        for (int window = 0; window < 5; window++) {
+            runWindow(limiter, limiter.getLimit(), SLOW);
+        }
+
+        assertTrue(limiter.getLimit() < before, before + " -> " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    void testOverload_BacksOffOncePerWindow() {
+        properties.setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+        }
+        for (int i = 0; i < 10; i++) {
+            limiter.onOverload(RequestPriority.CRITICAL);
+        }
+
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testNoCompletionsForStallTimeout_RejectsUntilOneCompletes() throws InterruptedException {
+        properties.setStallTimeout(Duration.ofMillis(50));
+        properties.setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+
+        Thread.sleep(60);
+
+        assertFalse(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertFalse(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertEquals(5, limiter.getLimit());
+        limiter.onSuccess(SLOW);
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+    }
+
+    @Test
+    void testLongBulkRequests_DoNotCountAsStall() throws InterruptedException {
+        properties.setStallTimeout(Duration.ofMillis(50));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.BULK));
+        }
+
+        Thread.sleep(60);
+
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testLightLoad_KeepsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int window = 0; window < 5; window++) {
+            runWindow(limiter, 2, window == 0 ? FAST : SLOW);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testPriorityOf_ClassifiesEndpoints() {
+        String base = "/api/v1/inventory-management";
+
+        assertEquals(RequestPriority.CRITICAL, RequestPriority.of("GET", base + "/42"));
+        assertEquals(RequestPriority.CRITICAL, RequestPriority.of("POST", base + "/42/reserve"));
+        assertEquals(RequestPriority.CRITICAL, RequestPriority.of("POST", base + "/42/release"));
+        assertEquals(RequestPriority.NORMAL, RequestPriority.of("POST", base));
+        assertEquals(RequestPriority.NORMAL, RequestPriority.of("GET", base + "/page"));
+        assertEquals(RequestPriority.NORMAL, RequestPriority.of("GET", base + "/batch"));
+        assertEquals(RequestPriority.BULK, RequestPriority.of("GET", base + "/fetch-all"));
+        assertEquals(RequestPriority.BULK, RequestPriority.of("GET", base + "/stream"));
+        assertEquals(RequestPriority.BULK, RequestPriority.of("POST", base + "/bulk"));
+        assertEquals(RequestPriority.BULK, RequestPriority.of("POST", base + "/catalog/import"));
+    }
+
+    /**
+     * Runs one window of requests with the given concurrency and latency.
+     */
+    private static void runWindow(AdaptiveConcurrencyLimiter limiter, int concurrency, long rttNanos) {
+        for (int done = 0; done < 10; done += concurrency) {
+            for (int i = 0; i < concurrency; i++) {
+                assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+            }
+            for (int i = 0; i < concurrency; i++) {
+                limiter.onSuccess(rttNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.univiser.inventory.logging;
+
+import com.univiser.inventory.config.InventoryProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestLogSamplerTest {
+
+    @Test
+    void testShouldLog_AlwaysLogsFailures() {
+        RequestLogSampler sampler = sampler(0);
+
+        assertTrue(sampler.shouldLog(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+        assertTrue(sampler.shouldLog(ResponseEntity.internalServerError().build()));
+        assertFalse(sampler.shouldLog(ResponseEntity.ok().build()));
+        assertFalse(sampler.shouldLog(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+    }
+
+    @Test
+    void testShouldLog_LogsEverySuccessAtFullRate() {
+        RequestLogSampler sampler = sampler(1);
+
+        assertTrue(IntStream.range(0, 1000).allMatch(i -> sampler.shouldLog(ResponseEntity.ok().build())));
+    }
+
+    @Test
+    void testShouldLog_SamplesSuccesses() {
+        RequestLogSampler sampler = sampler(0.1);
+
+        long logged = IntStream.range(0, 10_000).filter(i -> sampler.shouldLog(ResponseEntity.ok().build())).count();
+
+        assertTrue(logged > 700 && logged < 1300, "logged " + logged + " of 10000");
+    }
+
+    private static RequestLogSampler sampler(double rate) {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getLogging().setSuccessSampleRate(rate);
+        return new RequestLogSampler(properties);
+    }
+}
@@ -0,0 +1,63 @@
+package com.univiser.inventory.metrics;
+
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.inventory_management.service.InventoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryServiceMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryService target;
+    private InventoryService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = mock(InventoryService.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new InventoryServiceMetrics(meterRegistry));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void testTime_TagsStatusCodeOfResponse() {
+        when(target.getItemById(1L, null)).thenReturn(ResponseEntity.ok(APIResponse.success("/", "now", "item")));
+        when(target.getItemById(2L, null)).thenReturn(new ResponseEntity<>(APIResponse.failure("/", "now",
+                "No item", "Item not found!"), HttpStatus.NOT_FOUND));
+        when(target.getItemById(3L, "\"0\"")).thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        service.getItemById(1L, null);
+        service.getItemById(2L, null);
+        service.getItemById(3L, "\"0\"");
+
+        assertEquals(2, count("getItemById", "SUCCESS", "none"));
+        assertEquals(1, count("getItemById", "FAILURE", "none"));
+    }
+
+    @Test
+    void testTime_TagsExceptionOfThrowingCall() {
+        when(target.reserveStock(any(), anyInt())).thenThrow(new IllegalStateException("Pool exhausted"));
+
+        assertThrows(IllegalStateException.class, () -> service.reserveStock(1L, 1));
+
+        assertEquals(1, count("reserveStock", "FAILURE", "IllegalStateException"));
+    }
+
+    private long count(String method, String status, String exception) {
+        return meterRegistry.get(InventoryServiceMetrics.TIMER_NAME)
+                .tag("method", method).tag("status", status).tag("exception", exception)
+                .timer().count();
+    }
+}
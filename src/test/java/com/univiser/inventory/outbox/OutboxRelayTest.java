@@ -0,0 +1,196 @@
+package com.univiser.inventory.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.database=H2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+class OutboxRelayTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private OutboxWriter writer;
+    private InventoryProperties properties;
+    private InMemoryOutboxPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        writer = new OutboxWriter(entityManager, new ObjectMapper().findAndRegisterModules());
+        properties = new InventoryProperties();
+        publisher = new InMemoryOutboxPublisher();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from outbox_event");
+    }
+
+    @Test
+    void testOnChange_CommitsAndRollsBackWithTheChange() {
+        transactionTemplate.executeWithoutResult(status -> writer.onChange(InventoryChangeEvent.stockChanged(1L, -2)));
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.onChange(InventoryChangeEvent.deleted(1L));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of("STOCK_CHANGED"), jdbcTemplate.queryForList("select event_type from outbox_event", String.class));
+    }
+
+    @Test
+    void testRelay_PublishesInOrderAndEmptiesOutbox() {
+        properties.getOutbox().setBatchSize(2);
+        write(3);
+
+        relay(publisher).relay();
+
+        List<OutboxMessage> published = publisher.getPublished();
+        assertEquals(List.of(1L, 2L, 3L), published.stream().map(OutboxMessage::aggregateId).toList());
+        assertTrue(published.get(0).id() < published.get(1).id() && published.get(1).id() < published.get(2).id());
+        assertTrue(published.get(0).payload().contains("\"delta\":-1"));
+        assertEquals(0, countOutbox());
+    }
+
+    @Test
+    void testRelay_FailedBatchIsKeptAndRetriedAfterBackoff() throws Exception {
+        properties.getOutbox().setInitialBackoff(Duration.ofMillis(200));
+        write(2);
+        AtomicInteger calls = new AtomicInteger();
+        OutboxRelay relay = relay(batch -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("Broker unavailable");
+            }
+            publisher.publish(batch);
+        });
+
+        relay.relay();
+        relay.relay();
+
+        assertEquals(1, calls.get());
+        assertEquals(2, countOutbox());
+        assertEquals(List.of(1), jdbcTemplate.queryForList("select distinct attempts from outbox_event", Integer.class));
+
+        Thread.sleep(300);
+        relay.relay();
+
+        assertEquals(2, calls.get());
+        assertEquals(2, publisher.getPublished().size());
+        assertEquals(1, publisher.getPublished().get(0).attempts());
+        assertEquals(0, countOutbox());
+    }
+
+    @Test
+    void testRelay_NewerEventsDoNotOvertakeAFailedBatch() throws Exception {
+        properties.getOutbox().setInitialBackoff(Duration.ofMillis(200));
+        write(1);
+        AtomicInteger calls = new AtomicInteger();
+        OutboxRelay relay = relay(batch -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("Broker unavailable");
+            }
+            publisher.publish(batch);
+        });
+
+        relay.relay();
+        transactionTemplate.executeWithoutResult(status -> writer.onChange(InventoryChangeEvent.deleted(1L)));
+        relay.relay();
+
+        assertEquals(1, calls.get());
+        assertTrue(publisher.getPublished().isEmpty());
+
+        Thread.sleep(300);
+        relay.relay();
+
+        assertEquals(List.of("STOCK_CHANGED", "DELETED"),
+                publisher.getPublished().stream().map(OutboxMessage::eventType).toList());
+        assertEquals(0, countOutbox());
+    }
+
+    @Test
+    void testRelayBatch_SkipsEventsClaimedByAnotherRelay() throws Exception {
+        write(4);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OutboxRelay slow = relay(batch -> {
+            claimed.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            publisher.publish(batch);
+        });
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> slow.relayBatch(2));
+        assertTrue(claimed.await(5, TimeUnit.SECONDS));
+
+        int second = relay(publisher).relayBatch(2);
+        release.countDown();
+
+        assertEquals(2, second);
+        assertEquals(2, first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(3L, 4L, 1L, 2L), publisher.getPublished().stream().map(OutboxMessage::aggregateId).toList());
+        assertEquals(0, countOutbox());
+    }
+
+    @Test
+    void testBackoff_DoublesUpToMaximum() {
+        properties.getOutbox().setInitialBackoff(Duration.ofSeconds(1));
+        properties.getOutbox().setMaxBackoff(Duration.ofSeconds(5));
+        OutboxRelay relay = relay(publisher);
+
+        assertEquals(Duration.ofSeconds(1), relay.backoff(0));
+        assertEquals(Duration.ofSeconds(4), relay.backoff(2));
+        assertEquals(Duration.ofSeconds(5), relay.backoff(3));
+        assertEquals(Duration.ofSeconds(5), relay.backoff(60));
+    }
+
+    private void write(int count) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long id = 1; id <= count; id++) {
+                writer.onChange(InventoryChangeEvent.stockChanged(id, -1));
+            }
+        });
+    }
+
+    private OutboxRelay relay(OutboxPublisher outboxPublisher) {
+        return new OutboxRelay(jdbcTemplate, transactionTemplate, outboxPublisher, properties, new SimpleMeterRegistry());
+    }
+
+    private int countOutbox() {
+        return jdbcTemplate.queryForObject("select count(*) from outbox_event", Integer.class);
+    }
+}
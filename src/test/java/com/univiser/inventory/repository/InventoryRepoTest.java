@@ -0,0 +1,182 @@
+package com.univiser.inventory.repository;
+
+import com.univiser.inventory.domain.dto.ItemSearchCriteria;
+import com.univiser.inventory.domain.dto.ItemSearchCursor;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.entity.ItemTombstone;
+import com.univiser.inventory.domain.enums.ItemSortField;
+import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import com.univiser.inventory.inventory_management.repository.ItemSpecifications;
+import com.univiser.inventory.inventory_management.repository.ItemTombstoneRepo;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.database=H2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+class InventoryRepoTest {
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private ItemTombstoneRepo itemTombstoneRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        Item item = new Item();
+        item.setName("Hot SKU");
+        item.setQuantity(10);
+        item.setPrice(new BigDecimal("9.99"));
+        id = inventoryRepo.saveAndFlush(item).getId();
+        entityManager.clear();
+    }
+
+    @Test
+    void testReserveStock_NeverGoesBelowZero() {
+        assertEquals(1, inventoryRepo.reserveStock(id, 10));
+        assertEquals(0, inventoryRepo.reserveStock(id, 1));
+        assertEquals(0, quantity());
+    }
+
+    @Test
+    void testReleaseStock_NeverExceedsMaximum() {
+        assertEquals(1, inventoryRepo.releaseStock(id, 9990));
+        assertEquals(0, inventoryRepo.releaseStock(id, 1));
+        assertEquals(10000, quantity());
+    }
+
+    @Test
+    void testAdjustStock_StaysInRange() {
+        assertEquals(1, inventoryRepo.adjustStock(id, -4));
+        assertEquals(0, inventoryRepo.adjustStock(id, -7));
+        assertEquals(1, inventoryRepo.adjustStock(id, 3));
+        assertEquals(9, quantity());
+    }
+
+    @Test
+    void testStockUpdates_IgnoreMissingItem() {
+        assertEquals(0, inventoryRepo.reserveStock(id + 1000, 1));
+        assertEquals(0, inventoryRepo.adjustStock(id + 1000, 1));
+    }
+
+    @Test
+    void testSearch_NamePrefixIsCaseInsensitiveAndLiteral() {
+        save("Hot_Dog", "", 1, "1.00");
+        save("Hotdog", "", 1, "1.00");
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setNamePrefix("HOT_");
+
+        List<Item> items = inventoryRepo.findAll(ItemSpecifications.matching(criteria));
+
+        assertEquals(List.of("Hot_Dog"), items.stream().map(Item::getName).toList());
+    }
+
+    @Test
+    void testSearch_CombinesTextAndRanges() {
+        save("Bolt", "Zinc plated steel", 5, "0.50");
+        save("Nut", "Zinc plated steel", 50, "0.20");
+        save("Washer", "Brass", 5, "0.10");
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setQ("steel");
+        criteria.setMaxQuantity(10);
+        criteria.setMinPrice(new BigDecimal("0.25"));
+
+        List<Item> items = inventoryRepo.findAll(ItemSpecifications.matching(criteria));
+
+        assertEquals(List.of("Bolt"), items.stream().map(Item::getName).toList());
+    }
+
+    @Test
+    void testSearch_KeysetPagesVisitEveryItemOnce() {
+        for (int i = 0; i < 7; i++) {
+            save("Item " + i, "", i, i % 2 == 0 ? "1.00" : "2.00");
+        }
+        List<Long> expected = inventoryRepo.findAll().stream()
+                .sorted(Comparator.comparing(Item::getPrice).thenComparing(Item::getId).reversed())
+                .map(Item::getId).toList();
+
+        List<Long> visited = new ArrayList<>();
+        Specification<Item> next = ItemSpecifications.matching(new ItemSearchCriteria());
+        for (int page = 0; page < 10; page++) {
+            List<Item> items = inventoryRepo.findBy(next, query -> query
+                    .sortBy(ItemSpecifications.order(ItemSortField.PRICE, Sort.Direction.DESC)).limit(3).all());
+            if (items.isEmpty()) {
+                break;
+            }
+            items.forEach(item -> visited.add(item.getId()));
+            ItemSearchCursor cursor = ItemSearchCursor.decode(ItemSearchCursor
+                    .of(ItemSortField.PRICE, Sort.Direction.DESC, items.get(items.size() - 1)).encode());
+            next = ItemSpecifications.matching(new ItemSearchCriteria()).and(ItemSpecifications.after(cursor));
+        }
+
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void testFindChangedAfter_ResumesAfterWatermark() {
+        save("Second", "", 1, "1.00");
+        save("Third", "", 1, "1.00");
+        LocalDateTime until = LocalDateTime.now().plusMinutes(1);
+        List<Item> all = inventoryRepo.findByUpdatedAtBeforeOrderByUpdatedAtAscIdAsc(until, Limit.of(10));
+        Item first = all.get(0);
+
+        List<Item> rest = inventoryRepo.findChangedAfter(first.getUpdatedAt(), first.getId(), until, Limit.of(10));
+
+        assertEquals(all.subList(1, 3).stream().map(Item::getId).toList(), rest.stream().map(Item::getId).toList());
+        assertEquals(List.of(), inventoryRepo.findChangedAfter(first.getUpdatedAt(), first.getId(), first.getUpdatedAt(), Limit.of(10)));
+    }
+
+    @Test
+    void testTombstones_PagedAndPurgedByDeletionTime() {
+        // Matches the precision of the column, as watermarks read back from the feed do.
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        itemTombstoneRepo.saveAndFlush(new ItemTombstone(100L, now.minusDays(40)));
+        itemTombstoneRepo.saveAndFlush(new ItemTombstone(101L, now.minusMinutes(2)));
+        itemTombstoneRepo.saveAndFlush(new ItemTombstone(102L, now.minusMinutes(2)));
+
+        List<ItemTombstone> page = itemTombstoneRepo.findDeletedAfter(now.minusMinutes(2), 101L, now, Limit.of(10));
+
+        assertEquals(List.of(102L), page.stream().map(ItemTombstone::getItemId).toList());
+        assertEquals(1, itemTombstoneRepo.deleteDeletedBefore(now.minusDays(30)));
+    }
+
+    private void save(String name, String description, int quantity, String price) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal(price));
+        inventoryRepo.saveAndFlush(item);
+    }
+
+    private int quantity() {
+        entityManager.clear();
+        return inventoryRepo.findById(id).orElseThrow().getQuantity();
+    }
+}
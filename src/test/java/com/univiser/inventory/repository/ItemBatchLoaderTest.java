@@ -0,0 +1,196 @@
+package com.univiser.inventory.repository;
+
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.datasource.ReadRouting;
+import com.univiser.inventory.domain.dto.ItemView;
+import com.univiser.inventory.inventory_management.repository.ItemBatchLoader;
+import com.univiser.inventory.inventory_management.repository.ItemQueryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBatchLoaderTest {
+
+    @Mock
+    private ItemQueryRepository itemQueryRepository;
+
+    private InventoryProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InventoryProperties();
+        properties.getItemLoader().setWindow(Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testLoad_IdleLookupQueriesAtOnce() {
+        when(itemQueryRepository.findById(1L)).thenReturn(Optional.of(view(1L)));
+        ItemBatchLoader loader = new ItemBatchLoader(itemQueryRepository, properties, meterRegistry);
+
+        assertEquals(Optional.of(view(1L)), loader.load(1L));
+        assertEquals(Optional.empty(), loader.load(2L));
+        verify(itemQueryRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testLoad_SameItemSharesRunningQuery() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemQueryRepository.findById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(view(1L));
+        });
+        ItemBatchLoader loader = new ItemBatchLoader(itemQueryRepository, properties, meterRegistry);
+
+        Future<Optional<ItemView>> first = executor.submit(() -> loader.load(1L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Optional<ItemView>> second = executor.submit(() -> loader.load(1L));
+        awaitShared(1);
+        release.countDown();
+
+        assertEquals(Optional.of(view(1L)), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of(view(1L)), second.get(5, TimeUnit.SECONDS));
+        verify(itemQueryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testLoad_BatchesLookupsArrivingWhileAQueryRuns() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemQueryRepository.findById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(view(1L));
+        });
+        when(itemQueryRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 3L).map(ItemBatchLoaderTest::view).toList();
+        });
+        ItemBatchLoader loader = new ItemBatchLoader(itemQueryRepository, properties, meterRegistry);
+
+        Future<Optional<ItemView>> first = executor.submit(() -> loader.load(1L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Future<Optional<ItemView>>> batched = List.of(
+                executor.submit(() -> loader.load(2L)),
+                executor.submit(() -> loader.load(3L)),
+                executor.submit(() -> loader.load(4L)));
+        release.countDown();
+
+        assertEquals(Optional.of(view(1L)), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of(view(2L)), batched.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.empty(), batched.get(1).get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of(view(4L)), batched.get(2).get(5, TimeUnit.SECONDS));
+        verify(itemQueryRepository, times(1)).findAllById(Set.of(2L, 3L, 4L));
+        assertEquals(3.0, meterRegistry.get("inventory.item-loader.batch.size").summary().max());
+    }
+
+    @Test
+    void testLoad_FailsEveryLookupOfTheQuery() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemQueryRepository.findById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("Database error");
+        });
+        ItemBatchLoader loader = new ItemBatchLoader(itemQueryRepository, properties, meterRegistry);
+
+        Future<Optional<ItemView>> first = executor.submit(() -> loader.load(1L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Optional<ItemView>> second = executor.submit(() -> loader.load(1L));
+        awaitShared(1);
+        release.countDown();
+
+        for (Future<Optional<ItemView>> lookup : List.of(first, second)) {
+            Exception e = assertThrows(Exception.class, () -> lookup.get(5, TimeUnit.SECONDS));
+            assertEquals("Database error", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void testLoad_DisabledQueriesEachLookup() {
+        properties.getItemLoader().setEnabled(false);
+        ItemBatchLoader loader = new ItemBatchLoader(itemQueryRepository, properties, meterRegistry);
+
+        loader.load(1L);
+        loader.load(1L);
+
+        verify(itemQueryRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testLoadItem_ReadsFromThePrimary() {
+        when(itemQueryRepository.findById(1L)).thenAnswer(invocation -> {
+            assertTrue(ReadRouting.isPinnedToPrimary());
+            return Optional.of(view(1L));
+        });
+        when(itemQueryRepository.findAllById(any())).thenAnswer(invocation -> {
+            assertTrue(ReadRouting.isPinnedToPrimary());
+            return List.of(view(2L));
+        });
+        ItemBatchLoader loader = new ItemBatchLoader(itemQueryRepository, properties, meterRegistry);
+
+        assertEquals(1L, loader.loadItem(1L).orElseThrow().getId());
+        assertEquals(Set.of(2L), loader.loadItems(Set.of(2L, 3L)).keySet());
+        assertFalse(ReadRouting.isPinnedToPrimary());
+    }
+
+    @Test
+    void testLoadItem_KeepsAnExistingPin() {
+        when(itemQueryRepository.findById(1L)).thenReturn(Optional.of(view(1L)));
+        ItemBatchLoader loader = new ItemBatchLoader(itemQueryRepository, properties, meterRegistry);
+
+        ReadRouting.pinToPrimary();
+        try {
+            loader.loadItem(1L);
+            assertTrue(ReadRouting.isPinnedToPrimary());
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+
+    private void awaitShared(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("inventory.item-loader.shared").counter().count() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static ItemView view(Long id) {
+        return new ItemView(id, "Item " + id, null, 1, BigDecimal.ONE, null, null, 0L);
+    }
+}
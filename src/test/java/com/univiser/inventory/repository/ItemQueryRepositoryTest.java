@@ -0,0 +1,137 @@
+package com.univiser.inventory.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.univiser.inventory.domain.dto.ItemSearchCriteria;
+import com.univiser.inventory.domain.dto.ItemSearchCursor;
+import com.univiser.inventory.domain.dto.ItemView;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.enums.ItemSortField;
+import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import com.univiser.inventory.inventory_management.repository.ItemQueryRepository;
+import com.univiser.inventory.inventory_management.repository.ItemSpecifications;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(ItemQueryRepository.class)
+@TestPropertySource(properties = {
+        "spring.jpa.database=H2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+class ItemQueryRepositoryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private ItemQueryRepository itemQueryRepository;
+
+    @Test
+    void testFindById_SerializesLikeTheEntity() throws Exception {
+        Item item = save("Bolt", "Zinc plated steel", 5, "0.50");
+
+        ItemView view = itemQueryRepository.findById(item.getId()).orElseThrow();
+
+        assertEquals(objectMapper.writeValueAsString(inventoryRepo.findById(item.getId()).orElseThrow()),
+                objectMapper.writeValueAsString(view));
+        assertTrue(itemQueryRepository.findById(item.getId() + 1000).isEmpty());
+    }
+
+    @Test
+    void testFindAllById_ReturnsExistingItems() {
+        Item bolt = save("Bolt", "Zinc plated steel", 5, "0.50");
+        Item nut = save("Nut", "Zinc plated steel", 50, "0.20");
+        save("Washer", "Brass", 5, "0.10");
+
+        List<Long> ids = itemQueryRepository.findAllById(List.of(nut.getId(), bolt.getId(), nut.getId() + 1000)).stream()
+                .map(ItemView::id).sorted().toList();
+
+        assertEquals(List.of(bolt.getId(), nut.getId()), ids);
+    }
+
+    @Test
+    void testSearch_MatchesSpecificationPath() {
+        save("Bolt", "Zinc plated steel", 5, "0.50");
+        save("Nut", "Zinc plated steel", 50, "0.20");
+        save("Washer", "Brass", 5, "0.10");
+        save("Hot_Dog", "", 1, "1.00");
+        save("Hotdog", "", 1, "1.00");
+        ItemSearchCriteria text = new ItemSearchCriteria();
+        text.setQ("steel");
+        text.setMaxQuantity(10);
+        text.setMinPrice(new BigDecimal("0.25"));
+        ItemSearchCriteria prefix = new ItemSearchCriteria();
+        prefix.setNamePrefix("HOT_");
+
+        for (ItemSearchCriteria criteria : List.of(text, prefix, new ItemSearchCriteria())) {
+            List<Long> expected = inventoryRepo.findAll(ItemSpecifications.matching(criteria),
+                    ItemSpecifications.order(ItemSortField.ID, Sort.Direction.ASC)).stream().map(Item::getId).toList();
+            List<Long> actual = itemQueryRepository.search(criteria, ItemSortField.ID, Sort.Direction.ASC, null, 100)
+                    .stream().map(ItemView::id).toList();
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testSearch_KeysetPagesVisitEveryItemOnce() {
+        for (int i = 0; i < 7; i++) {
+            save("Item " + i, "", i, i % 2 == 0 ? "1.00" : "2.00");
+        }
+        List<Long> expected = inventoryRepo.findAll(ItemSpecifications.order(ItemSortField.PRICE, Sort.Direction.DESC))
+                .stream().map(Item::getId).toList();
+
+        List<Long> visited = new ArrayList<>();
+        ItemSearchCursor cursor = null;
+        for (int page = 0; page < 10; page++) {
+            List<ItemView> items = itemQueryRepository.search(new ItemSearchCriteria(), ItemSortField.PRICE,
+                    Sort.Direction.DESC, cursor, 3);
+            if (items.isEmpty()) {
+                break;
+            }
+            items.forEach(item -> visited.add(item.id()));
+            cursor = ItemSearchCursor.decode(ItemSearchCursor
+                    .of(ItemSortField.PRICE, Sort.Direction.DESC, items.get(items.size() - 1)).encode());
+        }
+
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void testFindPageAndStreamAll_OrderedById() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(save("Item " + i, null, i, "1.00").getId());
+        }
+
+        assertEquals(ids.subList(2, 4), itemQueryRepository.findPage(ids.get(1), 2).stream().map(ItemView::id).toList());
+        List<Long> streamed = new ArrayList<>();
+        itemQueryRepository.streamAll(rs -> streamed.add(rs.getLong(1)));
+        assertEquals(ids, streamed);
+    }
+
+    private Item save(String name, String description, int quantity, String price) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal(price));
+        return inventoryRepo.saveAndFlush(item);
+    }
+}
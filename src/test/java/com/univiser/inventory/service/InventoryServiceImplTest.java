@@ -1,28 +1,84 @@
 package com.univiser.inventory.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.cache.ItemCache;
+import com.univiser.inventory.cache.NoOpItemCache;
+import com.univiser.inventory.catalog.CatalogExporter;
+import com.univiser.inventory.catalog.CatalogFormat;
+import com.univiser.inventory.catalog.CatalogImporter;
+import com.univiser.inventory.config.InventoryProperties;
 import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.dto.BulkItemResult;
+import com.univiser.inventory.domain.dto.BulkResult;
+import com.univiser.inventory.domain.dto.CatalogImportResult;
+import com.univiser.inventory.domain.dto.ChangeFeed;
+import com.univiser.inventory.domain.dto.ChangeFeedCursor;
+import com.univiser.inventory.domain.dto.CursorPage;
+import com.univiser.inventory.domain.dto.ItemSearchCriteria;
+import com.univiser.inventory.domain.dto.ItemSearchCursor;
+import com.univiser.inventory.domain.dto.ItemView;
+import com.univiser.inventory.domain.dto.StockChange;
 import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.entity.ItemTombstone;
+import com.univiser.inventory.domain.enums.ItemSortField;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import com.univiser.inventory.events.InventoryEventBroadcaster;
 import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import com.univiser.inventory.inventory_management.repository.ItemBatchLoader;
+import com.univiser.inventory.inventory_management.repository.ItemQueryRepository;
+import com.univiser.inventory.inventory_management.repository.ItemTombstoneRepo;
 import com.univiser.inventory.inventory_management.service.impl.InventoryServiceImpl;
+import com.univiser.inventory.inventory_management.service.impl.ItemBulkWriter;
+import com.univiser.inventory.stock.StockWriteCoalescer;
+import com.univiser.inventory.util.Constant;
 import com.univiser.inventory.util.ResponseUtil;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +90,48 @@ class InventoryServiceImplTest {
     @Mock
     private ResponseUtil responseUtil;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ItemBulkWriter itemBulkWriter;
+
+    @Spy
+    private ItemCache itemCache = new NoOpItemCache();
+
+    @Mock
+    private ObjectProvider<StockWriteCoalescer> stockWriteCoalescer;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ItemTombstoneRepo itemTombstoneRepo;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private InventoryProperties properties = new InventoryProperties();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private InventoryEventBroadcaster eventBroadcaster;
+
+    @Mock
+    private ItemQueryRepository itemQueryRepository;
+
+    @Mock
+    private ItemBatchLoader itemBatchLoader;
+
+    @Mock
+    private CatalogImporter catalogImporter;
+
+    @Mock
+    private CatalogExporter catalogExporter;
+
     @InjectMocks
     private InventoryServiceImpl inventoryService;
 
@@ -53,6 +151,7 @@ class InventoryServiceImplTest {
         item.setPrice(new BigDecimal("99.99"));
         item.setCreatedAt(LocalDateTime.now());
         item.setUpdatedAt(LocalDateTime.now());
+        item.setVersion(3L);
 
         successApiResponse = APIResponse.builder().statusMessage("Success").statusCode(HttpStatus.OK.name()).result(item).build();
 
@@ -64,7 +163,7 @@ class InventoryServiceImplTest {
 
     @Test
     void testCreateItem_Success() {
-        when(inventoryRepo.save(any(Item.class))).thenReturn(item);
+        when(inventoryRepo.saveAndFlush(any(Item.class))).thenReturn(item);
         when(responseUtil.wrapSuccess(item, HttpStatus.CREATED)).thenReturn(new ResponseEntity<>(successApiResponse, HttpStatus.CREATED));
 
         ResponseEntity<APIResponse> response = inventoryService.createItem(item);
@@ -72,65 +171,285 @@ class InventoryServiceImplTest {
         assertNotNull(response);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(successApiResponse, response.getBody());
-        verify(inventoryRepo, times(1)).save(item);
+        verify(inventoryRepo, times(1)).saveAndFlush(item);
         verify(responseUtil, times(1)).wrapSuccess(item, HttpStatus.CREATED);
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof InventoryChangeEvent change
+                && change.type() == InventoryChangeEvent.Type.CREATED && change.item() == item));
     }
 
     @Test
     void testUpdateItem_Success() {
-        when(inventoryRepo.save(any(Item.class))).thenReturn(item);
+        when(inventoryRepo.saveAndFlush(any(Item.class))).thenReturn(item);
         when(responseUtil.wrapSuccess(item, HttpStatus.OK)).thenReturn(successResponse);
 
-        ResponseEntity<APIResponse> response = inventoryService.updateItem(item);
+        ResponseEntity<APIResponse> response = inventoryService.updateItem(item, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(successApiResponse, response.getBody());
-        verify(inventoryRepo, times(1)).save(item);
+        verify(inventoryRepo, times(1)).saveAndFlush(item);
+        verify(itemCache, times(1)).put(item);
         verify(responseUtil, times(1)).wrapSuccess(item, HttpStatus.OK);
     }
 
     @Test
     void testDeleteItem_Success() {
-        doNothing().when(inventoryRepo).delete(any(Item.class));
+        when(inventoryRepo.deleteByIdAndVersion(1L, 3L)).thenReturn(1);
         when(responseUtil.wrapSuccess(item, HttpStatus.OK)).thenReturn(successResponse);
 
-        ResponseEntity<APIResponse> response = inventoryService.deleteItem(item);
+        ResponseEntity<APIResponse> response = inventoryService.deleteItem(item, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(successApiResponse, response.getBody());
-        verify(inventoryRepo, times(1)).delete(item);
+        verify(inventoryRepo, times(1)).deleteByIdAndVersion(1L, 3L);
+        verify(itemTombstoneRepo, times(1)).save(argThat(tombstone -> tombstone.getItemId() == 1L));
+        verify(itemCache, times(1)).evict(1L);
         verify(responseUtil, times(1)).wrapSuccess(item, HttpStatus.OK);
     }
 
+    @Test
+    void testDeleteItem_MissingItemWithBodyVersion() {
+        when(inventoryRepo.deleteByIdAndVersion(1L, 3L)).thenReturn(0);
+        when(inventoryRepo.findVersionById(1L)).thenReturn(Optional.empty());
+        when(responseUtil.wrapError("Item not found!", "No item with ID 1", HttpStatus.NOT_FOUND))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.NOT_FOUND));
+
+        ResponseEntity<APIResponse> response = inventoryService.deleteItem(item, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(itemTombstoneRepo, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+        verify(itemCache, never()).evict(any());
+    }
+
+    @Test
+    void testDeleteItem_StaleBodyVersion() {
+        when(inventoryRepo.deleteByIdAndVersion(1L, 3L)).thenReturn(0);
+        when(inventoryRepo.findVersionById(1L)).thenReturn(Optional.of(4L));
+        when(responseUtil.wrapError(eq("Item was modified!"), any(), eq(HttpStatus.CONFLICT)))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.CONFLICT));
+
+        ResponseEntity<APIResponse> response = inventoryService.deleteItem(item, null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(itemTombstoneRepo, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void testGetItemById_Success() {
-        when(inventoryRepo.findById(1L)).thenReturn(Optional.of(item));
+        when(itemBatchLoader.loadItem(1L)).thenReturn(Optional.of(item));
         when(responseUtil.wrapSuccess(item, HttpStatus.OK)).thenReturn(successResponse);
 
-        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L);
+        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(successApiResponse, response.getBody());
-        verify(inventoryRepo, times(1)).findById(1L);
+        verify(itemBatchLoader, times(1)).loadItem(1L);
         verify(responseUtil, times(1)).wrapSuccess(item, HttpStatus.OK);
     }
 
     @Test
     void testGetItemById_NotFound() {
-        when(inventoryRepo.findById(1L)).thenReturn(Optional.empty());
+        when(itemBatchLoader.loadItem(1L)).thenReturn(Optional.empty());
         when(responseUtil.wrapSuccess(null, HttpStatus.OK)).thenReturn(successResponse);
 
-        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L);
+        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(inventoryRepo, times(1)).findById(1L);
+        verify(itemBatchLoader, times(1)).loadItem(1L);
         verify(responseUtil, times(1)).wrapSuccess(null, HttpStatus.OK);
     }
 
+    @Test
+    void testGetItemById_SetsETag() {
+        when(itemBatchLoader.loadItem(1L)).thenReturn(Optional.of(item));
+        when(responseUtil.wrapSuccess(item, HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L, "\"2\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertEquals(successApiResponse, response.getBody());
+    }
+
+    @Test
+    void testGetItemById_NotModified() {
+        when(itemBatchLoader.loadItem(1L)).thenReturn(Optional.of(item));
+
+        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L, "\"2\", W/\"3\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verifyNoInteractions(responseUtil);
+    }
+
+    @Test
+    void testGetItemById_JdbcPath() {
+        properties.getReadPath().setItem(InventoryProperties.ReadPathType.JDBC);
+        ItemView view = new ItemView(1L, "Item", null, 5, new BigDecimal("2.50"), null, null, 3L);
+        when(itemBatchLoader.load(1L)).thenReturn(Optional.of(view));
+        when(responseUtil.wrapSuccess(view, HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L, "\"2\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        verifyNoInteractions(inventoryRepo);
+    }
+
+    @Test
+    void testGetItemById_JdbcPathNotModified() {
+        properties.getReadPath().setItem(InventoryProperties.ReadPathType.JDBC);
+        when(itemBatchLoader.load(1L)).thenReturn(Optional.of(
+                new ItemView(1L, "Item", null, 5, new BigDecimal("2.50"), null, null, 3L)));
+
+        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L, "\"3\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verifyNoInteractions(responseUtil);
+    }
+
+    @Test
+    void testGetItemsByIds_KeepsRequestOrderAndSkipsMissing() {
+        Item other = new Item(2L, "Other", null, 1, BigDecimal.ONE, null, null, 0L);
+        when(itemBatchLoader.loadItems(Set.of(1L, 2L, 3L))).thenReturn(Map.of(1L, item, 2L, other));
+        when(responseUtil.wrapSuccess(List.of(other, item), HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.getItemsByIds(List.of(2L, 3L, 1L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(itemBatchLoader, times(1)).loadItems(Set.of(1L, 2L, 3L));
+        verify(responseUtil, times(1)).wrapSuccess(List.of(other, item), HttpStatus.OK);
+    }
+
+    @Test
+    void testGetItemsByIds_JdbcPath() {
+        properties.getReadPath().setItem(InventoryProperties.ReadPathType.JDBC);
+        ItemView view = new ItemView(1L, "Item", null, 5, new BigDecimal("2.50"), null, null, 3L);
+        when(itemQueryRepository.findAllById(Set.of(1L, 4L))).thenReturn(List.of(view));
+        when(responseUtil.wrapSuccess(List.of(view), HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.getItemsByIds(List.of(4L, 1L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyNoInteractions(itemBatchLoader);
+    }
+
+    @Test
+    void testGetItemsByIds_TooMany() {
+        List<Long> ids = LongStream.rangeClosed(1, Constant.MAX_PAGE_SIZE + 1).boxed().toList();
+        when(responseUtil.wrapError(eq("Invalid IDs!"), any(), eq(HttpStatus.BAD_REQUEST))).thenReturn(errorResponse);
+
+        inventoryService.getItemsByIds(ids);
+
+        verify(responseUtil, times(1)).wrapError(eq("Invalid IDs!"), any(), eq(HttpStatus.BAD_REQUEST));
+        verifyNoInteractions(itemBatchLoader, itemQueryRepository);
+    }
+
+    @Test
+    void testUpdateItem_IfMatchStale() {
+        ObjectOptimisticLockingFailureException exception = new ObjectOptimisticLockingFailureException(Item.class, 1L);
+        when(inventoryRepo.saveAndFlush(item)).thenThrow(exception);
+        when(responseUtil.wrapError("Item was modified!", exception.getMessage(), HttpStatus.PRECONDITION_FAILED))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.PRECONDITION_FAILED));
+
+        ResponseEntity<APIResponse> response = inventoryService.updateItem(item, "\"2\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertEquals(2L, item.getVersion());
+        verify(itemCache, never()).put(any());
+    }
+
+    @Test
+    void testUpdateItem_IfMatchListNamesCurrentVersion() {
+        item.setVersion(null);
+        when(inventoryRepo.findVersionById(1L)).thenReturn(Optional.of(4L));
+        when(inventoryRepo.saveAndFlush(item)).thenReturn(item);
+        when(responseUtil.wrapSuccess(item, HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.updateItem(item, "\"3\", \"4\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(4L, item.getVersion());
+    }
+
+    @Test
+    void testUpdateItem_IfMatchListWithoutCurrentVersion() {
+        when(inventoryRepo.findVersionById(1L)).thenReturn(Optional.of(5L));
+        when(responseUtil.wrapError(eq("Item was modified!"), any(), eq(HttpStatus.PRECONDITION_FAILED)))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.PRECONDITION_FAILED));
+
+        ResponseEntity<APIResponse> response = inventoryService.updateItem(item, "\"3\", \"4\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(inventoryRepo, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testUpdateItem_WeakIfMatch() {
+        when(responseUtil.wrapError(eq("Invalid If-Match header!"), any(), eq(HttpStatus.BAD_REQUEST)))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.BAD_REQUEST));
+
+        ResponseEntity<APIResponse> response = inventoryService.updateItem(item, "W/\"3\"");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(inventoryRepo, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testUpdateItem_BodyVersionStale() {
+        ObjectOptimisticLockingFailureException exception = new ObjectOptimisticLockingFailureException(Item.class, 1L);
+        when(inventoryRepo.saveAndFlush(item)).thenThrow(exception);
+        when(responseUtil.wrapError("Item was modified!", exception.getMessage(), HttpStatus.CONFLICT))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.CONFLICT));
+
+        ResponseEntity<APIResponse> response = inventoryService.updateItem(item, null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void testUpdateItem_WithoutVersionUsesCurrent() {
+        item.setVersion(null);
+        when(inventoryRepo.findVersionById(1L)).thenReturn(Optional.of(7L));
+        when(inventoryRepo.saveAndFlush(item)).thenReturn(item);
+        when(responseUtil.wrapSuccess(item, HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.updateItem(item, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"7\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testDeleteItem_IfMatchMissingItem() {
+        item.setVersion(null);
+        when(inventoryRepo.findVersionById(1L)).thenReturn(Optional.empty());
+        when(responseUtil.wrapError("Item was modified!", "No item with ID 1", HttpStatus.PRECONDITION_FAILED))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.PRECONDITION_FAILED));
+
+        ResponseEntity<APIResponse> response = inventoryService.deleteItem(item, "*");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(inventoryRepo, never()).deleteByIdAndVersion(any(), any());
+    }
+
+    @Test
+    void testDeleteItem_MalformedIfMatch() {
+        when(responseUtil.wrapError(eq("Invalid If-Match header!"), any(), eq(HttpStatus.BAD_REQUEST)))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.BAD_REQUEST));
+
+        ResponseEntity<APIResponse> response = inventoryService.deleteItem(item, "\"abc\"");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(inventoryRepo, never()).deleteByIdAndVersion(any(), any());
+    }
+
     @Test
     void testGetAllItems_Success() {
         List<Item> items = Collections.singletonList(item);
@@ -149,7 +468,7 @@ class InventoryServiceImplTest {
     @Test
     void testCreateItem_Exception() {
         RuntimeException exception = new RuntimeException("Database error");
-        when(inventoryRepo.save(any(Item.class))).thenThrow(exception);
+        when(inventoryRepo.saveAndFlush(any(Item.class))).thenThrow(exception);
         when(responseUtil.wrapError("Error creating Item!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)).thenReturn(errorResponse);
 
         ResponseEntity<APIResponse> response = inventoryService.createItem(item);
@@ -157,52 +476,73 @@ class InventoryServiceImplTest {
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorApiResponse, response.getBody());
-        verify(inventoryRepo, times(1)).save(item);
+        verify(inventoryRepo, times(1)).saveAndFlush(item);
         verify(responseUtil, times(1)).wrapError("Error creating Item!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @Test
+    void testCreateItem_ConstraintViolation() {
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("null value in column \"name\"");
+        when(inventoryRepo.saveAndFlush(any(Item.class))).thenThrow(exception);
+
+        inventoryService.createItem(item);
+
+        verify(responseUtil, times(1)).wrapError("Error creating Item!", exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testCreateItem_ConnectionTimeout() {
+        CannotCreateTransactionException exception = new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("HikariPool-1 - Connection is not available, request timed out"));
+        when(inventoryRepo.saveAndFlush(any(Item.class))).thenThrow(exception);
+
+        inventoryService.createItem(item);
+
+        verify(responseUtil, times(1)).wrapError("Error creating Item!", exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @Test
     void testUpdateItem_Exception() {
         RuntimeException exception = new RuntimeException("Database error");
-        when(inventoryRepo.save(any(Item.class))).thenThrow(exception);
+        when(inventoryRepo.saveAndFlush(any(Item.class))).thenThrow(exception);
         when(responseUtil.wrapError("Error updating item!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)).thenReturn(errorResponse);
 
-        ResponseEntity<APIResponse> response = inventoryService.updateItem(item);
+        ResponseEntity<APIResponse> response = inventoryService.updateItem(item, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorApiResponse, response.getBody());
-        verify(inventoryRepo, times(1)).save(item);
+        verify(inventoryRepo, times(1)).saveAndFlush(item);
         verify(responseUtil, times(1)).wrapError("Error updating item!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     @Test
     void testDeleteItem_Exception() {
         RuntimeException exception = new RuntimeException("Database error");
-        doThrow(exception).when(inventoryRepo).delete(any(Item.class));
+        when(inventoryRepo.deleteByIdAndVersion(1L, 3L)).thenThrow(exception);
         when(responseUtil.wrapError("Error deleting item!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)).thenReturn(errorResponse);
 
-        ResponseEntity<APIResponse> response = inventoryService.deleteItem(item);
+        ResponseEntity<APIResponse> response = inventoryService.deleteItem(item, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorApiResponse, response.getBody());
-        verify(inventoryRepo, times(1)).delete(item);
+        verify(inventoryRepo, times(1)).deleteByIdAndVersion(1L, 3L);
         verify(responseUtil, times(1)).wrapError("Error deleting item!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     @Test
     void testGetItemById_Exception() {
         RuntimeException exception = new RuntimeException("Database error");
-        when(inventoryRepo.findById(1L)).thenThrow(exception);
+        when(itemBatchLoader.loadItem(1L)).thenThrow(exception);
         when(responseUtil.wrapError("Error getting item!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)).thenReturn(errorResponse);
 
-        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L);
+        ResponseEntity<APIResponse> response = inventoryService.getItemById(1L, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(errorApiResponse, response.getBody());
-        verify(inventoryRepo, times(1)).findById(1L);
+        verify(itemBatchLoader, times(1)).loadItem(1L);
         verify(responseUtil, times(1)).wrapError("Error getting item!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
@@ -220,4 +560,275 @@ class InventoryServiceImplTest {
         verify(inventoryRepo, times(1)).findAll();
         verify(responseUtil, times(1)).wrapError("Error getting items!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetItemsPage_HasNextPage() {
+        List<Item> items = new ArrayList<>();
+        for (long id = 11; id <= 13; id++) {
+            Item next = new Item();
+            next.setId(id);
+            items.add(next);
+        }
+        when(inventoryRepo.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(3))).thenReturn(items);
+        when(responseUtil.wrapSuccess(any(CursorPage.class), eq(HttpStatus.OK))).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.getItemsPage("10", 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ArgumentCaptor<CursorPage<Item>> captor = ArgumentCaptor.forClass(CursorPage.class);
+        verify(responseUtil, times(1)).wrapSuccess(captor.capture(), eq(HttpStatus.OK));
+        assertEquals(2, captor.getValue().getItems().size());
+        assertEquals("12", captor.getValue().getNextCursor());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetItemsPage_LastPage() {
+        when(inventoryRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(101))).thenReturn(List.of(item));
+        when(responseUtil.wrapSuccess(any(CursorPage.class), eq(HttpStatus.OK))).thenReturn(successResponse);
+
+        inventoryService.getItemsPage(null, 100);
+
+        ArgumentCaptor<CursorPage<Item>> captor = ArgumentCaptor.forClass(CursorPage.class);
+        verify(responseUtil, times(1)).wrapSuccess(captor.capture(), eq(HttpStatus.OK));
+        assertEquals(1, captor.getValue().getItems().size());
+        assertNull(captor.getValue().getNextCursor());
+    }
+
+    @Test
+    void testGetItemsPage_InvalidCursor() {
+        when(responseUtil.wrapError(eq("Invalid cursor!"), any(), eq(HttpStatus.BAD_REQUEST))).thenReturn(errorResponse);
+
+        inventoryService.getItemsPage("abc", 10);
+
+        verify(inventoryRepo, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSearchItems_HasNextPage() {
+        Item cheaper = new Item();
+        cheaper.setId(2L);
+        cheaper.setPrice(new BigDecimal("5.00"));
+        when(inventoryRepo.findBy(any(Specification.class), any())).thenReturn(List.of(cheaper, item));
+        when(responseUtil.wrapSuccess(any(CursorPage.class), eq(HttpStatus.OK))).thenReturn(successResponse);
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setSort("price");
+        criteria.setSize(1);
+
+        inventoryService.searchItems(criteria);
+
+        ArgumentCaptor<CursorPage<Item>> captor = ArgumentCaptor.forClass(CursorPage.class);
+        verify(responseUtil, times(1)).wrapSuccess(captor.capture(), eq(HttpStatus.OK));
+        assertEquals(List.of(cheaper), captor.getValue().getItems());
+        ItemSearchCursor cursor = ItemSearchCursor.decode(captor.getValue().getNextCursor());
+        assertEquals(ItemSortField.PRICE, cursor.sort());
+        assertEquals(Sort.Direction.ASC, cursor.direction());
+        assertEquals(2L, cursor.id());
+        assertEquals(new BigDecimal("5.00"), cursor.value());
+    }
+
+    @Test
+    void testSearchItems_InvalidSort() {
+        when(responseUtil.wrapError(eq("Invalid sort!"), any(), eq(HttpStatus.BAD_REQUEST))).thenReturn(errorResponse);
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setSort("colour");
+
+        inventoryService.searchItems(criteria);
+
+        verify(inventoryRepo, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void testSearchItems_CursorOfAnotherSort() {
+        when(responseUtil.wrapError("Invalid cursor!", "Cursor was issued for another sort", HttpStatus.BAD_REQUEST))
+                .thenReturn(errorResponse);
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setSort("name");
+        criteria.setCursor(ItemSearchCursor.of(ItemSortField.PRICE, Sort.Direction.ASC, item).encode());
+
+        inventoryService.searchItems(criteria);
+
+        verify(inventoryRepo, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetChanges_FullSyncTracksDeletesFromNow() {
+        when(inventoryRepo.findByUpdatedAtBeforeOrderByUpdatedAtAscIdAsc(any(), eq(Limit.of(3)))).thenReturn(List.of(item));
+        when(itemTombstoneRepo.findDeletedAfter(any(), eq(0L), any(), eq(Limit.of(3)))).thenReturn(List.of());
+        when(responseUtil.wrapSuccess(any(ChangeFeed.class), eq(HttpStatus.OK))).thenReturn(successResponse);
+
+        inventoryService.getChanges(null, null, 2);
+
+        ArgumentCaptor<ChangeFeed> captor = ArgumentCaptor.forClass(ChangeFeed.class);
+        verify(responseUtil, times(1)).wrapSuccess(captor.capture(), eq(HttpStatus.OK));
+        assertEquals(List.of(item), captor.getValue().getItems());
+        ChangeFeedCursor cursor = ChangeFeedCursor.decode(captor.getValue().getNextCursor());
+        assertEquals(item.getUpdatedAt(), cursor.itemsAfter());
+        assertEquals(1L, cursor.itemId());
+        assertTrue(cursor.deletedAfter().isAfter(LocalDateTime.now().minusMinutes(1)));
+        assertFalse(captor.getValue().isHasMore());
+    }
+
+    @Test
+    void testGetChanges_ResumesFromCursor() {
+        LocalDateTime watermark = LocalDateTime.now().minusHours(1);
+        ItemTombstone tombstone = new ItemTombstone(7L, watermark.plusMinutes(5));
+        when(inventoryRepo.findChangedAfter(eq(watermark), eq(4L), any(), eq(Limit.of(2)))).thenReturn(List.of(item, item));
+        when(itemTombstoneRepo.findDeletedAfter(eq(watermark), eq(6L), any(), eq(Limit.of(2)))).thenReturn(List.of(tombstone));
+        when(responseUtil.wrapSuccess(any(ChangeFeed.class), eq(HttpStatus.OK))).thenReturn(successResponse);
+
+        inventoryService.getChanges(new ChangeFeedCursor(watermark, 4L, watermark, 6L).encode(), null, 1);
+
+        ArgumentCaptor<ChangeFeed> captor = ArgumentCaptor.forClass(ChangeFeed.class);
+        verify(responseUtil, times(1)).wrapSuccess(captor.capture(), eq(HttpStatus.OK));
+        assertTrue(captor.getValue().isHasMore());
+        assertEquals(1, captor.getValue().getItems().size());
+        assertEquals(new ChangeFeedCursor(item.getUpdatedAt(), 1L, tombstone.getDeletedAt(), 7L),
+                ChangeFeedCursor.decode(captor.getValue().getNextCursor()));
+    }
+
+    @Test
+    void testGetChanges_ExpiredCursor() {
+        when(responseUtil.wrapError(eq("Cursor expired!"), any(), eq(HttpStatus.GONE))).thenReturn(errorResponse);
+
+        inventoryService.getChanges(null, LocalDateTime.now().minusDays(31), 100);
+
+        verifyNoInteractions(itemTombstoneRepo);
+    }
+
+    @Test
+    void testGetChanges_InvalidCursor() {
+        when(responseUtil.wrapError(eq("Invalid cursor!"), any(), eq(HttpStatus.BAD_REQUEST))).thenReturn(errorResponse);
+
+        inventoryService.getChanges("not-a-cursor", null, 100);
+
+        verifyNoInteractions(itemTombstoneRepo);
+    }
+
+    @Test
+    void testStreamAllItems_WritesNdjson() throws Exception {
+        Item second = new Item();
+        second.setId(2L);
+        second.setName("Second");
+        item.setCreatedAt(null);
+        item.setUpdatedAt(null);
+        when(inventoryRepo.streamAllByOrderByIdAsc()).thenReturn(Stream.of(item, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        inventoryService.streamAllItems(out);
+
+        String[] lines = out.toString().split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals('{', lines[1].charAt(0));
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong());
+        verify(entityManager, times(2)).detach(any(Item.class));
+    }
+
+    @Test
+    void testBulkCreateItems_Success() {
+        Iterator<Item> items = List.of(item).iterator();
+        BulkResult result = BulkResult.of(List.of(BulkItemResult.success(0, 1L)));
+        when(itemBulkWriter.create(items)).thenReturn(result);
+        when(responseUtil.wrapSuccess(result, HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.bulkCreateItems(items);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(itemBulkWriter, times(1)).create(items);
+        verify(responseUtil, times(1)).wrapSuccess(result, HttpStatus.OK);
+    }
+
+    @Test
+    void testBulkDeleteItems_Exception() {
+        Iterator<Item> items = List.of(item).iterator();
+        RuntimeException exception = new RuntimeException("Database error");
+        when(itemBulkWriter.delete(items)).thenThrow(exception);
+        when(responseUtil.wrapError("Error deleting items!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)).thenReturn(errorResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.bulkDeleteItems(items);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        verify(responseUtil, times(1)).wrapError("Error deleting items!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void testImportCatalog_Success() throws Exception {
+        InputStream input = new ByteArrayInputStream(new byte[0]);
+        CatalogImportResult result = new CatalogImportResult(2, 1, 1, 0, null, 5);
+        when(catalogImporter.importCatalog(input, CatalogFormat.CSV)).thenReturn(result);
+        when(responseUtil.wrapSuccess(result, HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.importCatalog(input, CatalogFormat.CSV);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(responseUtil, times(1)).wrapSuccess(result, HttpStatus.OK);
+    }
+
+    @Test
+    void testImportCatalog_Exception() throws Exception {
+        InputStream input = new ByteArrayInputStream(new byte[0]);
+        SQLException exception = new SQLException("Connection refused");
+        when(catalogImporter.importCatalog(input, CatalogFormat.NDJSON)).thenThrow(exception);
+        when(responseUtil.wrapError("Error importing catalog!", exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)).thenReturn(errorResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.importCatalog(input, CatalogFormat.NDJSON);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    @Test
+    void testReserveStock_Success() {
+        when(inventoryRepo.reserveStock(1L, 3)).thenReturn(1);
+        when(responseUtil.wrapSuccess(new StockChange(1L, -3), HttpStatus.OK)).thenReturn(successResponse);
+
+        ResponseEntity<APIResponse> response = inventoryService.reserveStock(1L, 3);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(inventoryRepo, never()).findById(any());
+        verify(inventoryRepo, never()).existsById(any());
+        verify(itemCache, times(1)).evict(1L);
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof InventoryChangeEvent change
+                && change.type() == InventoryChangeEvent.Type.STOCK_CHANGED && change.delta() == -3));
+    }
+
+    @Test
+    void testReserveStock_InsufficientStock() {
+        when(inventoryRepo.reserveStock(1L, 30)).thenReturn(0);
+        when(inventoryRepo.existsById(1L)).thenReturn(true);
+        when(responseUtil.wrapError(eq("Insufficient stock!"), any(), eq(HttpStatus.CONFLICT)))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.CONFLICT));
+
+        ResponseEntity<APIResponse> response = inventoryService.reserveStock(1L, 30);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(itemCache, never()).evict(any());
+    }
+
+    @Test
+    void testAdjustStock_NotFound() {
+        when(inventoryRepo.adjustStock(1L, -2)).thenReturn(0);
+        when(inventoryRepo.existsById(1L)).thenReturn(false);
+        when(responseUtil.wrapError(eq("Item not found!"), any(), eq(HttpStatus.NOT_FOUND)))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.NOT_FOUND));
+
+        ResponseEntity<APIResponse> response = inventoryService.adjustStock(1L, -2);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testReleaseStock_InvalidQuantity() {
+        when(responseUtil.wrapError(eq("Invalid quantity!"), any(), eq(HttpStatus.BAD_REQUEST)))
+                .thenReturn(new ResponseEntity<>(errorApiResponse, HttpStatus.BAD_REQUEST));
+
+        ResponseEntity<APIResponse> response = inventoryService.releaseStock(1L, 0);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(inventoryRepo, never()).releaseStock(any(), anyInt());
+    }
+}
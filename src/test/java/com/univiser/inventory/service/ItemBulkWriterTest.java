@@ -0,0 +1,165 @@
+package com.univiser.inventory.service;
+
+import com.univiser.inventory.cache.ItemCache;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.dto.BulkResult;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.domain.entity.ItemTombstone;
+import com.univiser.inventory.events.InventoryChangeEvent;
+import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import com.univiser.inventory.inventory_management.service.impl.ItemBulkWriter;
+import com.univiser.inventory.stock.StockWriteCoalescer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBulkWriterTest {
+
+    @Mock
+    private InventoryRepo inventoryRepo;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private ObjectProvider<StockWriteCoalescer> stockWriteCoalescer;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ItemBulkWriter itemBulkWriter;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getBulk().setChunkSize(2);
+        itemBulkWriter = new ItemBulkWriter(inventoryRepo, entityManager, transactionTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), itemCache, properties, stockWriteCoalescer, eventPublisher);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testCreate_InvalidRecordDoesNotFailBatch() {
+        BulkResult result = itemBulkWriter.create(List.of(item(null, "First"), item(null, ""), item(null, "Third")).iterator());
+
+        assertEquals(3, result.getTotal());
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getResults().get(1).getIndex());
+        assertTrue(result.getResults().get(1).getError().startsWith("name:"));
+        verify(entityManager, times(2)).persist(any(Item.class));
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void testCreate_MalformedRecordIsReportedAtItsPosition() {
+        Iterator<Item> items = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Item next() {
+                if (read++ == 1) {
+                    throw new IllegalArgumentException("Unexpected end of input");
+                }
+                return item(null, "First");
+            }
+        };
+
+        BulkResult result = itemBulkWriter.create(items);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(1, result.getSucceeded());
+        assertEquals(1, result.getResults().get(1).getIndex());
+        assertTrue(result.getResults().get(1).getError().startsWith("Malformed record:"));
+    }
+
+    @Test
+    void testCreate_FailedChunkIsRetriedRowByRow() {
+        doAnswer(invocation -> {
+            if ("Broken".equals(invocation.<Item>getArgument(0).getName())) {
+                throw new PersistenceException("value too long");
+            }
+            return null;
+        }).when(entityManager).persist(any(Item.class));
+
+        BulkResult result = itemBulkWriter.create(List.of(item(null, "First"), item(null, "Broken")).iterator());
+
+        assertEquals(1, result.getSucceeded());
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertEquals("value too long", result.getResults().get(1).getError());
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    void testUpdate_MissingItemIsReported() {
+        Item existing = item(1L, "Existing");
+        when(inventoryRepo.findAllById(any())).thenReturn(List.of(existing));
+
+        BulkResult result = itemBulkWriter.update(List.of(item(1L, "Renamed"), item(2L, "Missing"), item(null, "No id")).iterator());
+
+        assertEquals("Renamed", existing.getName());
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertEquals("Item not found", result.getResults().get(1).getError());
+        assertEquals("id: ID is required", result.getResults().get(2).getError());
+    }
+
+    @Test
+    void testDelete_RemovesExistingItems() {
+        Item existing = item(1L, "Existing");
+        when(inventoryRepo.findAllById(any())).thenReturn(List.of(existing));
+
+        BulkResult result = itemBulkWriter.delete(List.of(item(1L, null), item(2L, null)).iterator());
+
+        assertEquals(1, result.getSucceeded());
+        assertNull(result.getResults().get(0).getError());
+        verify(entityManager, times(1)).remove(existing);
+        verify(entityManager, times(1)).persist(argThat(tombstone -> tombstone instanceof ItemTombstone itemTombstone
+                && itemTombstone.getItemId() == 1L));
+        verify(entityManager, times(1)).flush();
+        verify(itemCache, times(1)).evict(1L);
+        verify(itemCache, never()).evict(2L);
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof InventoryChangeEvent change
+                && change.type() == InventoryChangeEvent.Type.DELETED && change.itemId() == 1L));
+    }
+
+    private static Item item(Long id, String name) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setQuantity(5);
+        item.setPrice(new BigDecimal("10.00"));
+        return item;
+    }
+}
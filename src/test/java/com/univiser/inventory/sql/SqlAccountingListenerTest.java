@@ -0,0 +1,87 @@
+package com.univiser.inventory.sql;
+
+import com.univiser.inventory.config.InventoryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlAccountingListenerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryProperties properties;
+    private JdbcDataSource h2;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new InventoryProperties();
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-accounting;DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(h2).execute("create table if not exists probe (id bigint primary key, name varchar(20))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SqlStats.clear();
+        new JdbcTemplate(h2).execute("drop table probe");
+    }
+
+    @Test
+    void testAfterQuery_CountsEachExecutionOfTheRequest() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(proxied());
+        SqlStats stats = SqlStats.start();
+
+        jdbcTemplate.update("insert into probe (id, name) values (?, ?)", 1L, "one");
+        jdbcTemplate.batchUpdate("insert into probe (id, name) values (?, ?)", List.of(new Object[]{2L, "two"}, new Object[]{3L, "three"}));
+        jdbcTemplate.queryForObject("select count(*) from probe where id > ?", Integer.class, 0L);
+
+        assertEquals(3, stats.getStatements());
+        assertTrue(stats.getNanos() > 0);
+    }
+
+    @Test
+    void testAfterQuery_OutsideRequestOnlyFeedsSlowLog() {
+        properties.getSql().setSlowQueryThreshold(Duration.ZERO);
+
+        new JdbcTemplate(proxied()).queryForObject("select count(*) from probe", Integer.class);
+
+        assertNull(SqlStats.current());
+        assertEquals(1.0, meterRegistry.get("inventory.sql.slow").counter().count());
+    }
+
+    @Test
+    void testDescribe_ShowsParameterShapeWithoutValues() {
+        properties.getSql().setSlowQueryThreshold(Duration.ZERO);
+        List<String> described = new ArrayList<>();
+        SqlAccountingListener listener = new SqlAccountingListener(properties, meterRegistry) {
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                described.add(describe(queryInfoList));
+            }
+        };
+        DataSource dataSource = ProxyDataSourceBuilder.create(h2).listener(listener).build();
+
+        new JdbcTemplate(dataSource).update("insert into probe (id, name)\n  values (?, ?)", 4L, null);
+
+        assertEquals(List.of("insert into probe (id, name) values (?, ?) [Object, Null]"), described);
+    }
+
+    private DataSource proxied() {
+        return ProxyDataSourceBuilder.create(h2).listener(new SqlAccountingListener(properties, meterRegistry)).build();
+    }
+}
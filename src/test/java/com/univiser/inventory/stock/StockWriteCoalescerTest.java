@@ -0,0 +1,193 @@
+package com.univiser.inventory.stock;
+
+import com.univiser.inventory.cache.NoOpItemCache;
+import com.univiser.inventory.config.InventoryProperties;
+import com.univiser.inventory.domain.entity.Item;
+import com.univiser.inventory.inventory_management.repository.InventoryRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.database=H2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+class StockWriteCoalescerTest {
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockWriteCoalescer coalescer;
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        // Postgres function the flush stamps updated_at with.
+        jdbcTemplate.execute("create alias if not exists statement_timestamp for 'java.time.LocalDateTime.now()'");
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new StockWriteCoalescer(inventoryRepo, jdbcTemplate, new TransactionTemplate(transactionManager),
+                new NoOpItemCache(), meterRegistry, new InventoryProperties(), eventPublisher);
+        Item item = new Item();
+        item.setName("Flash sale");
+        item.setQuantity(10);
+        item.setPrice(BigDecimal.TEN);
+        id = inventoryRepo.save(item).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryRepo.deleteAll();
+    }
+
+    @Test
+    void testSubmit_ConcurrentReservationsNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<CompletableFuture<StockWriteCoalescer.Outcome>>> submitted = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            submitted.add(executor.submit(() -> coalescer.submit(id, -1)));
+        }
+        List<CompletableFuture<StockWriteCoalescer.Outcome>> outcomes = new ArrayList<>();
+        for (Future<CompletableFuture<StockWriteCoalescer.Outcome>> outcome : submitted) {
+            outcomes.add(outcome.get());
+        }
+        executor.shutdown();
+
+        assertEquals(10, outcomes.stream().filter(outcome -> !outcome.isDone()).count());
+        assertEquals(10, quantity());
+        coalescer.flush();
+        assertEquals(0, quantity());
+        assertEquals(10, outcomes.stream().filter(outcome -> outcome.join() == StockWriteCoalescer.Outcome.APPLIED).count());
+        assertEquals(1, meterRegistry.get("inventory.stock.flush.batch.size").summary().count());
+        assertEquals(40.0, meterRegistry.get("inventory.stock.changes").tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void testFlush_WritesNetChangeOnce() {
+        CompletableFuture<StockWriteCoalescer.Outcome> take = coalescer.submit(id, -3);
+        CompletableFuture<StockWriteCoalescer.Outcome> put = coalescer.submit(id, 5);
+        assertEquals(2.0, meterRegistry.get("inventory.stock.pending").tag("item", String.valueOf(id)).gauge().value());
+
+        coalescer.flush();
+        coalescer.flush();
+
+        assertEquals(12, quantity());
+        assertEquals(StockWriteCoalescer.Outcome.APPLIED, take.join());
+        assertEquals(StockWriteCoalescer.Outcome.APPLIED, put.join());
+        assertEquals(1, meterRegistry.get("inventory.stock.flush.batch.size").summary().count());
+    }
+
+    @Test
+    void testFlush_RefusedNetChangeIsReplayedChangeByChange() {
+        CompletableFuture<StockWriteCoalescer.Outcome> large = coalescer.submit(id, -4);
+        CompletableFuture<StockWriteCoalescer.Outcome> small = coalescer.submit(id, -1);
+        // Another instance took most of the stock since the counter was seeded.
+        jdbcTemplate.update("update item set quantity = 2 where id = ?", id);
+
+        coalescer.flush();
+
+        assertEquals(StockWriteCoalescer.Outcome.REJECTED, large.join());
+        assertEquals(StockWriteCoalescer.Outcome.APPLIED, small.join());
+        assertEquals(1, quantity());
+        assertEquals(1.0, meterRegistry.get("inventory.stock.flush.conflicts").counter().count());
+        assertEquals(1.0, meterRegistry.get("inventory.stock.changes").tag("result", "refused").counter().count());
+        assertEquals(StockWriteCoalescer.Outcome.REJECTED, coalescer.submit(id, -2).join());
+    }
+
+    @Test
+    void testFlush_DeletedItemReportsNotFound() {
+        CompletableFuture<StockWriteCoalescer.Outcome> outcome = coalescer.submit(id, -1);
+        jdbcTemplate.update("delete from item where id = ?", id);
+
+        coalescer.flush();
+
+        assertEquals(StockWriteCoalescer.Outcome.NOT_FOUND, outcome.join());
+    }
+
+    @Test
+    void testEvict_WritesPendingChangeAndReloadsQuantity() {
+        CompletableFuture<StockWriteCoalescer.Outcome> outcome = coalescer.submit(id, -4);
+        coalescer.evict(id);
+        assertEquals(StockWriteCoalescer.Outcome.APPLIED, outcome.join());
+        assertEquals(6, quantity());
+
+        jdbcTemplate.update("update item set quantity = 1 where id = ?", id);
+        coalescer.flush();
+        assertEquals(StockWriteCoalescer.Outcome.REJECTED, coalescer.submit(id, -2).join());
+        CompletableFuture<StockWriteCoalescer.Outcome> last = coalescer.submit(id, -1);
+        coalescer.flush();
+        assertEquals(StockWriteCoalescer.Outcome.APPLIED, last.join());
+        assertEquals(0, quantity());
+    }
+
+    @Test
+    void testSubmit_StockFreedElsewhereIsSeenBeforeRejecting() {
+        CompletableFuture<StockWriteCoalescer.Outcome> soldOut = coalescer.submit(id, -10);
+        coalescer.flush();
+        assertEquals(StockWriteCoalescer.Outcome.APPLIED, soldOut.join());
+        assertEquals(StockWriteCoalescer.Outcome.REJECTED, coalescer.submit(id, -1).join());
+
+        // Another instance restocks; this counter still holds 0 and never goes idle.
+        jdbcTemplate.update("update item set quantity = quantity + 5 where id = ?", id);
+
+        assertEquals(StockWriteCoalescer.Outcome.APPLIED, coalescer.submit(id, -3).join());
+        assertEquals(2, quantity());
+        assertEquals(1.0, meterRegistry.get("inventory.stock.changes").tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void testApply_WaitsForTheFlush() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(coalescer::flush, 10, 10, TimeUnit.MILLISECONDS);
+        try {
+            assertEquals(StockWriteCoalescer.Outcome.APPLIED, coalescer.apply(id, -3));
+            assertEquals(7, quantity());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testApply_MissingItem() {
+        assertEquals(StockWriteCoalescer.Outcome.NOT_FOUND, coalescer.apply(id + 1000, -1));
+    }
+
+    private int quantity() {
+        return jdbcTemplate.queryForObject("select quantity from item where id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,88 @@
+package com.univiser.inventory.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univiser.inventory.domain.APIResponse;
+import com.univiser.inventory.domain.entity.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseUtilTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ResponseUtil responseUtil;
+
+    @BeforeEach
+    void setUp() {
+        responseUtil = new ResponseUtil(new MockHttpServletRequest("GET", "/api/v1/inventory-management/1"));
+    }
+
+    @Test
+    void testWrapSuccess_SerializesEnvelope() throws Exception {
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Widget");
+        item.setPrice(new BigDecimal("9.99"));
+
+        ResponseEntity<APIResponse> response = responseUtil.wrapSuccess(item, HttpStatus.OK);
+        String json = objectMapper.writeValueAsString(response.getBody());
+        JsonNode tree = objectMapper.readTree(json);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of("statusMessage", "statusCode", "responseTime", "origin", "result"), fieldNames(tree));
+        assertEquals("Success", tree.get("statusMessage").asText());
+        assertEquals("0", tree.get("statusCode").asText());
+        assertTrue(tree.get("responseTime").asText().matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"));
+        assertEquals("/api/v1/inventory-management/1", tree.get("origin").asText());
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(item)), tree.get("result"));
+    }
+
+    @Test
+    void testWrapSuccess_OmitsNullResult() throws Exception {
+        JsonNode tree = objectMapper.readTree(objectMapper.writeValueAsString(
+                responseUtil.wrapSuccess(null, HttpStatus.OK).getBody()));
+
+        assertFalse(tree.has("result"));
+    }
+
+    @Test
+    void testWrapError_WrapsDetailUnderErrorKey() throws Exception {
+        ResponseEntity<APIResponse> response = responseUtil.wrapError("Item not found!", "No item with ID 1", HttpStatus.NOT_FOUND);
+        JsonNode tree = objectMapper.readTree(objectMapper.writeValueAsString(response.getBody()));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(List.of("statusMessage", "statusCode", "responseTime", "origin", "errorType", "result"), fieldNames(tree));
+        assertEquals("Failure", tree.get("statusMessage").asText());
+        assertEquals("1", tree.get("statusCode").asText());
+        assertEquals("No item with ID 1", tree.get("errorType").asText());
+        assertEquals("Item not found!", tree.get("result").get(Constant.ERROR).asText());
+        assertEquals(Map.of(Constant.ERROR, "Item not found!"), response.getBody().getResult());
+    }
+
+    @Test
+    void testWrapError_WithoutDetailStillWritesErrorKey() throws Exception {
+        ResponseEntity<APIResponse> response = responseUtil.wrapError(null, "Unknown failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        JsonNode tree = objectMapper.readTree(objectMapper.writeValueAsString(response.getBody()));
+
+        assertTrue(tree.get("result").has(Constant.ERROR));
+        assertTrue(tree.get("result").get(Constant.ERROR).isNull());
+        assertEquals(Collections.singletonMap(Constant.ERROR, null), response.getBody().getResult());
+    }
+
+    private static List<String> fieldNames(JsonNode tree) {
+        return tree.properties().stream().map(Map.Entry::getKey).toList();
+    }
+}